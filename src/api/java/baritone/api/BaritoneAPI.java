@@ -27,25 +27,35 @@ import baritone.api.utils.SettingsUtil;
  */
 public final class BaritoneAPI {
 
-    private static final IBaritoneProvider provider;
     private static final Settings settings;
 
     static {
         settings = new Settings();
         SettingsUtil.readAndApply(settings, SettingsUtil.SETTINGS_DEFAULT_NAME);
-
-        try {
-            provider = (IBaritoneProvider) Class.forName("baritone.BaritoneProvider").newInstance();
-        } catch (ReflectiveOperationException ex) {
-            throw new RuntimeException(ex);
-        }
     }
 
     public static IBaritoneProvider getProvider() {
-        return BaritoneAPI.provider;
+        return ProviderHolder.provider;
     }
 
     public static Settings getSettings() {
         return BaritoneAPI.settings;
     }
+
+    /**
+     * The provider is only created the first time it's asked for, since creating it needs a Minecraft client. That
+     * way the settings, and anything that only needs the settings, can be used on their own.
+     */
+    private static final class ProviderHolder {
+
+        private static final IBaritoneProvider provider;
+
+        static {
+            try {
+                provider = (IBaritoneProvider) Class.forName("baritone.BaritoneProvider").newInstance();
+            } catch (ReflectiveOperationException ex) {
+                throw new RuntimeException(ex);
+            }
+        }
+    }
 }
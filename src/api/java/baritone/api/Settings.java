@@ -502,6 +502,19 @@ public final class Settings {
      */
     public final Setting<Integer> costVerificationLookahead = new Setting<>(5);
 
+    /**
+     * When a block change makes a movement on the current path impossible, try to find a way around just that part
+     * and rejoin the path, instead of throwing the whole path away and searching again from scratch.
+     * <p>
+     * Also rechecks movements past {@link #costVerificationLookahead} whenever a block right next to them changes.
+     */
+    public final Setting<Boolean> incrementalReplanning = new Setting<>(false);
+
+    /**
+     * How many nodes {@link #incrementalReplanning} can consider before giving up and doing a full search
+     */
+    public final Setting<Integer> incrementalReplanningMaxNodes = new Setting<>(5000);
+
     /**
      * Static cutoff factor. 0.9 means cut off the last 10% of all paths, regardless of chunk load state
      */
@@ -529,6 +542,88 @@ public final class Settings {
      */
     public final Setting<Float> pathingMapLoadFactor = new Setting<>(0.75f);
 
+    /**
+     * Store pathing nodes in primitive arrays indexed by int handle, instead of allocating one object per position
+     * <p>
+     * Much less garbage on long searches, the map settings above still apply to the position lookup. These searches
+     * always use a binary heap for the open set, whatever {@link #pathingOpenSet} says.
+     */
+    public final Setting<Boolean> pathingNodePool = new Setting<>(false);
+
+    /**
+     * The open set used by searches that allocate one object per position.
+     * <p>
+     * "binary" is the usual binary heap, "quaternary" is a 4-ary heap, and "bucket" groups nodes into buckets by cost
+     * <p>
+     * This has no effect while {@link #pathingNodePool} is on, those searches always use a binary heap
+     */
+    public final Setting<String> pathingOpenSet = new Setting<>("binary");
+
+    /**
+     * Spread the path search over several threads, each owning a share of the positions.
+     * <p>
+     * Mostly helps long trips that would otherwise hit the failure timeout. Falls back to the normal search for
+     * processes that bring their own calculation context, and when slowPath is on.
+     */
+    public final Setting<Boolean> parallelPathing = new Setting<>(false);
+
+    /**
+     * How many threads to use when parallelPathing is on
+     */
+    public final Setting<Integer> parallelPathingThreads = new Setting<>(4);
+
+    /**
+     * Search backwards from the goal at the same time as forwards from the start, when the goal is a specific block
+     * <p>
+     * Applies to GoalBlock, GoalTwoBlocks and GoalGetToBlock. Ignored when parallelPathing is on.
+     */
+    public final Setting<Boolean> bidirectionalPathing = new Setting<>(false);
+
+    /**
+     * Before a long search, plan a rough route chunk by chunk over the cache, and favor the chunks along it
+     * <p>
+     * Only uses cached regions that are already in memory, and does nothing in dimensions with a roof
+     */
+    public final Setting<Boolean> coarsePathing = new Setting<>(false);
+
+    /**
+     * The most chunks the coarse route planner will look at before giving up
+     */
+    public final Setting<Integer> coarsePathingMaxChunks = new Setting<>(20000);
+
+    /**
+     * How many chunks on either side of the coarse route to favor
+     */
+    public final Setting<Integer> coarsePathingCorridorRadius = new Setting<>(1);
+
+    /**
+     * Multiplies the cost of moving through chunks on the coarse route
+     * <p>
+     * Decrease to stick closer to the route, 1 to have it only be planned and not used
+     */
+    public final Setting<Double> coarsePathingCorridorCoefficient = new Setting<>(0.8);
+
+    /**
+     * Use waypoints as landmarks to estimate the cost to GoalBlock goals around terrain, instead of just in a straight line
+     * <p>
+     * The tables for each landmark are built in the background the first time, and saved next to the cache. Until they're
+     * loaded or built, searches just use the straight line.
+     * <p>
+     * The tables are in whole chunks, and from the cache as it was when they were built, so the estimate isn't a proven
+     * lower bound on the real cost. When it's too high, paths can come out a bit longer than they need to be.
+     */
+    public final Setting<Boolean> landmarkHeuristic = new Setting<>(false);
+
+    /**
+     * How many of the most recent waypoints to use as landmarks
+     */
+    public final Setting<Integer> landmarkCount = new Setting<>(4);
+
+    /**
+     * How many chunks out from each landmark its table covers
+     */
+    public final Setting<Integer> landmarkRadius = new Setting<>(64);
+
     /**
      * How far are you allowed to fall onto solid ground (without a water bucket)?
      * 3 won't deal any damage. But if you just want to get down the mountain quickly and you have
@@ -561,7 +656,8 @@ public final class Settings {
     public final Setting<Boolean> simplifyUnloadedYCoord = new Setting<>(true);
 
     /**
-     * Whenever a block changes, repack the whole chunk that it's in
+     * Whenever a block changes, update the cached chunk that it's in. Only the blocks that changed are looked at, the
+     * whole chunk is repacked when it unloads.
      */
     public final Setting<Boolean> repackOnAnyBlockChange = new Setting<>(true);
 
@@ -637,12 +733,19 @@ public final class Settings {
     public final Setting<Boolean> pruneRegionsFromRAM = new Setting<>(true);
 
     /**
-     * The chunk packer queue can never grow to larger than this, if it does, the oldest chunks are discarded
+     * The chunk packer queue can never grow to larger than this, if it does, the chunks farthest from the player and
+     * their current path are discarded
      * <p>
-     * The newest chunks are kept, so that if you're moving in a straight line quickly then stop, your immediate render distance is still included
+     * A discarded chunk is queued again if it changes or unloads while still loaded, so flying or teleporting quickly
+     * mostly just means the cache is filled in a bit later, nearest first
      */
     public final Setting<Integer> chunkPackerQueueMaxSize = new Setting<>(2000);
 
+    /**
+     * How many threads pack chunks into the cache, shared by every world. Only read the first time a chunk is packed.
+     */
+    public final Setting<Integer> chunkPackerThreads = new Setting<>(Math.max(1, Runtime.getRuntime().availableProcessors() / 2));
+
     /**
      * Fill in blocks behind you
      */
@@ -790,6 +893,27 @@ public final class Settings {
      */
     public final Setting<Boolean> pathThroughCachedOnly = new Setting<>(false);
 
+    /**
+     * In path searches, remember the last few hundred chunk sections that blocks were looked up in, instead of just the
+     * last chunk. Searches go back and forth between neighbouring chunks a lot, so this saves a chunk lookup for most
+     * of those.
+     * <p>
+     * Only here to compare against the old behavior, taking effect on the next path search.
+     */
+    public final Setting<Boolean> blockLookupSectionCache = new Setting<>(true);
+
+    /**
+     * In path searches, work out whether each block of a chunk section can be walked on or through all at once, the
+     * first time something in the section is checked, instead of one block at a time
+     */
+    public final Setting<Boolean> precomputeSectionPlanes = new Setting<>(true);
+
+    /**
+     * Remember the cost of each movement out of each position across path searches, and reuse it in later searches as
+     * long as nothing around it has changed and the settings and inventory it depends on are the same
+     */
+    public final Setting<Boolean> memoizeMovementCosts = new Setting<>(true);
+
     /**
      * Continue sprinting while in water
      */
@@ -909,6 +1033,12 @@ public final class Settings {
      */
     public final Setting<Integer> maxCachedWorldScanCount = new Setting<>(10);
 
+    /**
+     * How far from the player, in blocks, mine will look for the target block in the cache.
+     * The default of 1024 covers the regions around the one you're in, like the old region ring did.
+     */
+    public final Setting<Integer> mineCacheScanRadius = new Setting<>(1024);
+
     /**
      * Mine will not scan for or remember more than this many target locations.
      * Note that the number of locations retrieved from cache is additionaly
@@ -1223,6 +1353,32 @@ public final class Settings {
      */
     public final Setting<Long> cachedChunksExpirySeconds = new Setting<>(-1L);
 
+    /**
+     * How many chunks of each cached region to keep decoded in memory. The rest are kept compressed, as they are on
+     * disk, and decoded again when something needs them.
+     * <p>
+     * Chunks that haven't been saved yet are always kept decoded, so this can be exceeded for a while.
+     */
+    public final Setting<Integer> maxDecodedChunksPerRegion = new Setting<>(256);
+
+    /**
+     * Keep the compressed cached chunks outside of the Java heap, so that a very large cache doesn't make garbage
+     * collection slower. Takes effect as regions are loaded and saved.
+     */
+    public final Setting<Boolean> cachedChunksOffHeap = new Setting<>(false);
+
+    /**
+     * With {@link #cachedChunksOffHeap}, how many megabytes of compressed chunks to keep in memory at most. Past this,
+     * the oldest are dropped and read back from the cache files on disk when they're needed.
+     */
+    public final Setting<Integer> cachedChunksOffHeapBudgetMB = new Setting<>(256);
+
+    /**
+     * Load cached regions from disk in the background before they're needed: the ones the current path and the best
+     * path so far go through, and the next ones towards the goal
+     */
+    public final Setting<Boolean> prefetchCachedRegions = new Setting<>(true);
+
     /**
      * The function that is called when Baritone will log to chat. This function can be added to
      * via {@link Consumer#andThen(Consumer)} or it can completely be overriden via setting
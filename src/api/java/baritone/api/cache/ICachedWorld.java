@@ -18,6 +18,7 @@
 package baritone.api.cache;
 
 import java.util.ArrayList;
+import java.util.function.Predicate;
 import net.minecraft.core.BlockPos;
 import net.minecraft.world.level.chunk.LevelChunk;
 
@@ -69,6 +70,20 @@ public interface ICachedWorld {
      */
     ArrayList<BlockPos> getLocationsOf(String block, int maximum, int centerX, int centerZ, int maxRegionDistanceSq);
 
+    /**
+     * Finds the cached locations of the specified special block that are nearest to a position, without looking at
+     * any that are further away than needed. Like {@link #getLocationsOf}, these may not be up to date.
+     *
+     * @param block     The special block to search for
+     * @param maximum   The maximum number of position results to receive
+     * @param threshold Once this many have been found, no more regions are searched
+     * @param center    The center of the search
+     * @param radius    The maximum distance from the center, in blocks
+     * @param filter    Which locations count, checked before they take up any of the results
+     * @return The locations found that match the special block, nearest first
+     */
+    ArrayList<BlockPos> getNearestLocationsOf(String block, int maximum, int threshold, BlockPos center, int radius, Predicate<BlockPos> filter);
+
     /**
      * Reloads all of the cached regions in this world from disk. Anything that is not saved
      * will be lost. This operation does not execute in a new thread by default.
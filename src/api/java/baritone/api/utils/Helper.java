@@ -79,6 +79,10 @@ public interface Helper {
      * @param message The message to display in the popup
      */
     default void logToast(Component title, Component message) {
+        if (Minecraft.getInstance() == null) {
+            System.out.println(title.getString() + " " + message.getString());
+            return;
+        }
         Minecraft.getInstance().execute(() -> BaritoneAPI.getSettings().toaster.value.accept(title, message));
     }
 
@@ -140,6 +144,10 @@ public interface Helper {
      * @param error   Whether to log as an error
      */
     default void logNotificationDirect(String message, boolean error) {
+        if (Minecraft.getInstance() == null) {
+            System.out.println(message);
+            return;
+        }
         Minecraft.getInstance().execute(() -> BaritoneAPI.getSettings().notifier.value.accept(message, error));
     }
 
@@ -174,6 +182,9 @@ public interface Helper {
         Arrays.asList(components).forEach(component::append);
         if (logAsToast) {
             logToast(getPrefix(), component);
+        } else if (Minecraft.getInstance() == null) {
+            // no client to send it to, we're running headless
+            System.out.println(component.getString());
         } else {
             Minecraft.getInstance().execute(() -> BaritoneAPI.getSettings().logger.value.accept(component));
         }
@@ -36,6 +36,7 @@ import java.lang.reflect.Type;
 import java.nio.file.Files;
 import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
@@ -107,6 +108,10 @@ public class SettingsUtil {
     }
 
     private static Path settingsByName(String name) {
+        if (Minecraft.getInstance() == null) {
+            // running without a client, so there's no game directory
+            return Paths.get("baritone").resolve(name);
+        }
         return Minecraft.getInstance().gameDirectory.toPath().resolve("baritone").resolve(name);
     }
 
@@ -0,0 +1,81 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Baritone.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package baritone.bench;
+
+import baritone.api.pathing.calc.IPath;
+import baritone.api.pathing.goals.GoalBlock;
+import baritone.api.utils.BetterBlockPos;
+import baritone.api.utils.PathCalculationResult;
+import baritone.pathing.calc.AStarPathFinder;
+import baritone.pathing.movement.CalculationContext;
+import baritone.utils.pathing.Favoring;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Whole searches from one side of the world to the other. The nodes counter gives nodes per second, and running with
+ * {@code -prof gc} gives allocation per search.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class AStarBenchmark {
+
+    @Param({"FLAT", "CAVE_MAZE", "OCEAN", "NETHER"})
+    public Terrain terrain;
+
+    private CalculationContext context;
+    private BetterBlockPos start;
+    private GoalBlock goal;
+
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Counters {
+
+        /**
+         * Nodes considered, summed over every search
+         */
+        public long nodes;
+
+        @Setup(Level.Iteration)
+        public void reset() {
+            nodes = 0;
+        }
+    }
+
+    @Setup(Level.Trial)
+    public void setup() {
+        Benchmarks.bootstrap();
+        BenchmarkWorld world = terrain.create();
+        context = new BenchmarkContext(world);
+        start = world.start();
+        goal = new GoalBlock(world.goal());
+    }
+
+    @Benchmark
+    public PathCalculationResult search(Counters counters) {
+        AStarPathFinder finder = new AStarPathFinder(start.x, start.y, start.z, goal, new Favoring(null, context), context);
+        PathCalculationResult result = finder.calculate(30000, 30000);
+        counters.nodes += result.getPath().map(IPath::getNumNodesConsidered).orElse(0);
+        return result;
+    }
+}
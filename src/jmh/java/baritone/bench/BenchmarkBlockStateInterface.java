@@ -0,0 +1,55 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Baritone.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package baritone.bench;
+
+import baritone.utils.BlockStateInterface;
+import baritone.utils.pathing.BetterWorldBorder;
+import net.minecraft.world.level.block.Blocks;
+import net.minecraft.world.level.block.state.BlockState;
+
+/**
+ * Gets blocks straight from a {@link BenchmarkWorld}
+ */
+public final class BenchmarkBlockStateInterface extends BlockStateInterface {
+
+    private static final BlockState AIR = Blocks.AIR.defaultBlockState();
+
+    private final BenchmarkWorld blocks;
+    private final int minY;
+    private final int maxY;
+
+    public BenchmarkBlockStateInterface(BenchmarkWorld blocks, BetterWorldBorder worldBorder) {
+        super(null, blocks.dimension(), worldBorder);
+        this.blocks = blocks;
+        this.minY = blocks.dimension().minY();
+        this.maxY = minY + blocks.dimension().height();
+    }
+
+    @Override
+    public BlockState get0(int x, int y, int z) {
+        if (y < minY || y >= maxY) {
+            return AIR;
+        }
+        return blocks.get(x, y, z);
+    }
+
+    @Override
+    public boolean isLoaded(int x, int z) {
+        return blocks.isLoaded(x, z);
+    }
+}
@@ -0,0 +1,39 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Baritone.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package baritone.bench;
+
+import baritone.pathing.movement.CalculationContext;
+import baritone.pathing.movement.CapabilityProfile;
+import baritone.utils.pathing.BetterWorldBorder;
+import net.minecraft.world.item.ItemStack;
+import net.minecraft.world.item.Items;
+import net.minecraft.world.level.border.WorldBorder;
+
+import java.util.Collections;
+
+/**
+ * A context for a player with a diamond pickaxe, standing in a {@link BenchmarkWorld}. Everything else comes from the
+ * settings.
+ */
+public class BenchmarkContext extends CalculationContext {
+
+    public BenchmarkContext(BenchmarkWorld world) {
+        super(new BenchmarkBlockStateInterface(world, new BetterWorldBorder(new WorldBorder())), null, world.dimension(),
+                CapabilityProfile.fromSettings().hotbar(Collections.singletonList(new ItemStack(Items.DIAMOND_PICKAXE))).build());
+    }
+}
@@ -0,0 +1,50 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Baritone.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package baritone.bench;
+
+import baritone.api.utils.BetterBlockPos;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.dimension.DimensionType;
+
+/**
+ * Blocks for the benchmarks to path through, without a Minecraft world
+ */
+public interface BenchmarkWorld {
+
+    DimensionType dimension();
+
+    /**
+     * @return The block at this position, never null
+     */
+    BlockState get(int x, int y, int z);
+
+    /**
+     * @return Whether this column has blocks, everything else is treated like an unloaded chunk
+     */
+    boolean isLoaded(int x, int z);
+
+    /**
+     * @return Where the player stands at the start of a search
+     */
+    BetterBlockPos start();
+
+    /**
+     * @return Where the search should end up
+     */
+    BetterBlockPos goal();
+}
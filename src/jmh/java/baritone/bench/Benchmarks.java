@@ -0,0 +1,83 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Baritone.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package baritone.bench;
+
+import baritone.api.utils.BetterBlockPos;
+import net.minecraft.SharedConstants;
+import net.minecraft.server.Bootstrap;
+import net.minecraft.world.level.block.state.BlockState;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Setup shared by the benchmarks
+ */
+public final class Benchmarks {
+
+    private Benchmarks() {}
+
+    /**
+     * Fills the block and item registries, which has to happen before anything touches {@link net.minecraft.world.level.block.Blocks}
+     */
+    public static void bootstrap() {
+        SharedConstants.tryDetectVersion();
+        Bootstrap.bootStrap();
+    }
+
+    /**
+     * @return Positions that a player could stand at, picked from random columns. If there aren't enough different
+     * ones, some are repeated.
+     */
+    public static BetterBlockPos[] standablePositions(BenchmarkWorld world, int count, long seed) {
+        Random rand = new Random(seed);
+        BetterBlockPos start = world.start();
+        int minY = world.dimension().minY();
+        int maxY = minY + world.dimension().height() - 2;
+        List<BetterBlockPos> found = new ArrayList<>();
+        for (int attempt = 0; attempt < count * 16 && found.size() < count; attempt++) {
+            int x = start.x + rand.nextInt(257) - 128;
+            int z = start.z + rand.nextInt(257) - 128;
+            if (!world.isLoaded(x, z)) {
+                continue;
+            }
+            List<Integer> candidates = new ArrayList<>();
+            for (int y = minY + 1; y < maxY; y++) {
+                if (isSolid(world.get(x, y - 1, z)) && !isSolid(world.get(x, y, z)) && !isSolid(world.get(x, y + 1, z))) {
+                    candidates.add(y);
+                }
+            }
+            if (!candidates.isEmpty()) {
+                found.add(new BetterBlockPos(x, candidates.get(rand.nextInt(candidates.size())), z));
+            }
+        }
+        if (found.isEmpty()) {
+            throw new IllegalStateException("Nowhere to stand near " + start);
+        }
+        BetterBlockPos[] positions = new BetterBlockPos[count];
+        for (int i = 0; i < count; i++) {
+            positions[i] = found.get(i % found.size());
+        }
+        return positions;
+    }
+
+    private static boolean isSolid(BlockState state) {
+        return !state.isAir() && state.getFluidState().isEmpty();
+    }
+}
@@ -0,0 +1,69 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Baritone.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package baritone.bench;
+
+import baritone.api.utils.BetterBlockPos;
+import baritone.pathing.movement.CalculationContext;
+import baritone.pathing.movement.Moves;
+import baritone.utils.pathing.MutableMoveResult;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Costing a single move from a batch of positions a player could be standing at
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MovesBenchmark {
+
+    private static final int POSITIONS = 1024;
+
+    @Param({"FLAT", "CAVE_MAZE", "OCEAN", "NETHER"})
+    public Terrain terrain;
+
+    @Param
+    public Moves move;
+
+    private CalculationContext context;
+    private BetterBlockPos[] positions;
+    private final MutableMoveResult res = new MutableMoveResult();
+
+    @Setup(Level.Trial)
+    public void setup() {
+        Benchmarks.bootstrap();
+        BenchmarkWorld world = terrain.create();
+        context = new BenchmarkContext(world);
+        positions = Benchmarks.standablePositions(world, POSITIONS, 1);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(POSITIONS)
+    public void apply(Blackhole bh) {
+        for (BetterBlockPos pos : positions) {
+            res.reset();
+            move.apply(context, pos.x, pos.y, pos.z, res);
+            bh.consume(res.cost);
+        }
+    }
+}
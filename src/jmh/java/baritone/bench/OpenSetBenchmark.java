@@ -0,0 +1,111 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Baritone.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package baritone.bench;
+
+import baritone.api.pathing.goals.GoalBlock;
+import baritone.pathing.calc.PathNode;
+import baritone.pathing.calc.openset.BinaryHeapOpenSet;
+import baritone.pathing.calc.openset.BucketOpenSet;
+import baritone.pathing.calc.openset.DAryHeapOpenSet;
+import baritone.pathing.calc.openset.IOpenSet;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The open set on its own, with a mix of operations like a search does: costs that mostly go up over time, a
+ * decrease-key for every few inserts, and a remove for every two.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class OpenSetBenchmark {
+
+    @Param({"binary", "quaternary", "bucket"})
+    public String openSet;
+
+    @Param({"10000", "1000000"})
+    public int size;
+
+    private PathNode[] nodes;
+    private double[] initialCosts;
+    private int[] updateTargets;
+    private double[] updateCosts;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        Benchmarks.bootstrap();
+        Random rand = new Random(1);
+        GoalBlock goal = new GoalBlock(0, 0, 0);
+        nodes = new PathNode[size];
+        initialCosts = new double[size];
+        updateTargets = new int[size];
+        updateCosts = new double[size];
+        for (int i = 0; i < size; i++) {
+            nodes[i] = new PathNode(i, 64, -i, goal);
+            // a slowly rising floor plus some spread, like f values on the frontier of a search
+            initialCosts[i] = i * 0.01 + rand.nextDouble() * 20;
+            updateTargets[i] = rand.nextInt(i + 1);
+            updateCosts[i] = initialCosts[i] - rand.nextDouble() * 5;
+        }
+    }
+
+    private IOpenSet create() {
+        switch (openSet) {
+            case "quaternary":
+                return new DAryHeapOpenSet();
+            case "bucket":
+                return new BucketOpenSet();
+            default:
+                return new BinaryHeapOpenSet();
+        }
+    }
+
+    @Benchmark
+    public int mixed() {
+        for (int i = 0; i < size; i++) {
+            nodes[i].combinedCost = initialCosts[i];
+            nodes[i].heapPosition = -1;
+        }
+        IOpenSet set = create();
+        int removed = 0;
+        for (int i = 0; i < size; i++) {
+            set.insert(nodes[i]);
+            if ((i & 3) == 3) {
+                PathNode target = nodes[updateTargets[i]];
+                if (target.isOpen() && updateCosts[i] < target.combinedCost) {
+                    target.combinedCost = updateCosts[i];
+                    set.update(target);
+                }
+            }
+            if ((i & 1) == 1) {
+                set.removeLowest();
+                removed++;
+            }
+        }
+        while (!set.isEmpty()) {
+            set.removeLowest();
+            removed++;
+        }
+        return removed;
+    }
+}
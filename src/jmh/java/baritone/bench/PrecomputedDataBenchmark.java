@@ -0,0 +1,103 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Baritone.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package baritone.bench;
+
+import baritone.api.utils.BetterBlockPos;
+import baritone.pathing.movement.CalculationContext;
+import baritone.pathing.precompute.PrecomputedData;
+import baritone.utils.BlockStateInterface;
+import net.minecraft.world.level.block.state.BlockState;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The per-block lookups that every move does several of, at the feet, head and floor of standable positions
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PrecomputedDataBenchmark {
+
+    private static final int POSITIONS = 1024;
+
+    @Param({"FLAT", "CAVE_MAZE", "OCEAN", "NETHER"})
+    public Terrain terrain;
+
+    private PrecomputedData data;
+    private BlockStateInterface bsi;
+    private int[] coords;
+    private BlockState[] states;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        Benchmarks.bootstrap();
+        BenchmarkWorld world = terrain.create();
+        CalculationContext context = new BenchmarkContext(world);
+        data = context.precomputedData;
+        bsi = context.bsi;
+        BetterBlockPos[] positions = Benchmarks.standablePositions(world, POSITIONS, 1);
+        coords = new int[positions.length * 9];
+        states = new BlockState[positions.length * 3];
+        for (int i = 0; i < positions.length; i++) {
+            for (int dy = -1; dy <= 1; dy++) {
+                int j = i * 3 + dy + 1;
+                coords[j * 3] = positions[i].x;
+                coords[j * 3 + 1] = positions[i].y + dy;
+                coords[j * 3 + 2] = positions[i].z;
+                states[j] = bsi.get0(positions[i].x, positions[i].y + dy, positions[i].z);
+            }
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(POSITIONS * 3)
+    public void get(Blackhole bh) {
+        for (int i = 0; i < states.length; i++) {
+            bh.consume(bsi.get0(coords[i * 3], coords[i * 3 + 1], coords[i * 3 + 2]));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(POSITIONS * 3)
+    public void canWalkOn(Blackhole bh) {
+        for (int i = 0; i < states.length; i++) {
+            bh.consume(data.canWalkOn(bsi, coords[i * 3], coords[i * 3 + 1], coords[i * 3 + 2], states[i]));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(POSITIONS * 3)
+    public void canWalkThrough(Blackhole bh) {
+        for (int i = 0; i < states.length; i++) {
+            bh.consume(data.canWalkThrough(bsi, coords[i * 3], coords[i * 3 + 1], coords[i * 3 + 2], states[i]));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(POSITIONS * 3)
+    public void fullyPassable(Blackhole bh) {
+        for (int i = 0; i < states.length; i++) {
+            bh.consume(data.fullyPassable(bsi, coords[i * 3], coords[i * 3 + 1], coords[i * 3 + 2], states[i]));
+        }
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Baritone.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package baritone.bench;
+
+import baritone.api.utils.BetterBlockPos;
+import baritone.cache.BenchmarkRegions;
+import baritone.cache.CachedRegion;
+import net.minecraft.world.level.block.Blocks;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.dimension.DimensionType;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * One region of a real cache. The search goes from the first cached chunk in the region to the last one.
+ */
+public final class RegionWorld implements BenchmarkWorld {
+
+    private static final BlockState AIR = Blocks.AIR.defaultBlockState();
+
+    private final CachedRegion region;
+    private final DimensionType dimension;
+    private final BetterBlockPos start;
+    private final BetterBlockPos goal;
+
+    private RegionWorld(CachedRegion region, DimensionType dimension) {
+        this.region = region;
+        this.dimension = dimension;
+        BetterBlockPos first = null;
+        BetterBlockPos last = null;
+        for (int chunkX = 0; chunkX < 32; chunkX++) {
+            for (int chunkZ = 0; chunkZ < 32; chunkZ++) {
+                if (region.getChunk(chunkX, chunkZ) == null) {
+                    continue;
+                }
+                BetterBlockPos surface = surface(region.getX() * 512 + chunkX * 16 + 8, region.getZ() * 512 + chunkZ * 16 + 8);
+                if (surface == null) {
+                    continue;
+                }
+                if (first == null) {
+                    first = surface;
+                }
+                last = surface;
+            }
+        }
+        if (first == null) {
+            throw new IllegalStateException("Region has no cached chunks to path through");
+        }
+        this.start = first;
+        this.goal = last;
+    }
+
+    public static RegionWorld load(Path file, DimensionType dimension) throws IOException {
+        return new RegionWorld(BenchmarkRegions.load(file, dimension), dimension);
+    }
+
+    /**
+     * @return The position on top of the highest block in the column, or null if it's all air
+     */
+    private BetterBlockPos surface(int x, int z) {
+        for (int y = dimension.minY() + dimension.height() - 2; y >= dimension.minY(); y--) {
+            if (!get(x, y, z).isAir()) {
+                return new BetterBlockPos(x, y + 1, z);
+            }
+        }
+        return null;
+    }
+
+    private boolean inRegion(int x, int z) {
+        return x >> 9 == region.getX() && z >> 9 == region.getZ();
+    }
+
+    @Override
+    public DimensionType dimension() {
+        return dimension;
+    }
+
+    @Override
+    public BlockState get(int x, int y, int z) {
+        if (!inRegion(x, z) || y < dimension.minY() || y >= dimension.minY() + dimension.height()) {
+            return AIR;
+        }
+        BlockState state = region.getBlock(x & 511, y, z & 511);
+        return state == null ? AIR : state;
+    }
+
+    @Override
+    public boolean isLoaded(int x, int z) {
+        return inRegion(x, z) && region.isCached(x & 511, z & 511);
+    }
+
+    @Override
+    public BetterBlockPos start() {
+        return start;
+    }
+
+    @Override
+    public BetterBlockPos goal() {
+        return goal;
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Baritone.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package baritone.bench;
+
+import baritone.api.utils.BetterBlockPos;
+import net.minecraft.world.level.block.Blocks;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.dimension.DimensionType;
+
+/**
+ * A {@link #SIZE} by {@link #SIZE} area of generated terrain starting at 0, 0. Only {@link #BAKED_HEIGHT} layers are
+ * actually stored, everything below and above those is a single block.
+ */
+public final class SyntheticWorld implements BenchmarkWorld {
+
+    public static final int SIZE = 256;
+    public static final int BAKED_HEIGHT = 128;
+
+    private static final BlockState AIR = Blocks.AIR.defaultBlockState();
+
+    private final DimensionType dimension;
+    private final int bakedMinY;
+    private final BlockState below;
+    private final BlockState above;
+
+    private final BlockState[] palette = new BlockState[256];
+    private int paletteSize;
+    private final byte[] blocks = new byte[SIZE * SIZE * BAKED_HEIGHT];
+
+    private BetterBlockPos start;
+    private BetterBlockPos goal;
+
+    /**
+     * @param dimension The dimension
+     * @param bakedMinY The lowest y that is stored
+     * @param fill      What the stored layers start out as
+     * @param below     The block everywhere under the stored layers
+     * @param above     The block everywhere over the stored layers
+     */
+    SyntheticWorld(DimensionType dimension, int bakedMinY, BlockState fill, BlockState below, BlockState above) {
+        this.dimension = dimension;
+        this.bakedMinY = bakedMinY;
+        this.below = below;
+        this.above = above;
+        this.palette[paletteSize++] = fill;
+    }
+
+    void set(int x, int y, int z, BlockState state) {
+        blocks[index(x, y, z)] = (byte) paletteId(state);
+    }
+
+    void fill(int minX, int minY, int minZ, int maxX, int maxY, int maxZ, BlockState state) {
+        byte id = (byte) paletteId(state);
+        for (int y = Math.max(minY, bakedMinY); y <= maxY && y < bakedMinY + BAKED_HEIGHT; y++) {
+            for (int z = Math.max(minZ, 0); z <= maxZ && z < SIZE; z++) {
+                for (int x = Math.max(minX, 0); x <= maxX && x < SIZE; x++) {
+                    blocks[index(x, y, z)] = id;
+                }
+            }
+        }
+    }
+
+    void setEndpoints(BetterBlockPos start, BetterBlockPos goal) {
+        this.start = start;
+        this.goal = goal;
+    }
+
+    private int paletteId(BlockState state) {
+        for (int i = 0; i < paletteSize; i++) {
+            if (palette[i] == state) {
+                return i;
+            }
+        }
+        if (paletteSize == palette.length) {
+            throw new IllegalStateException("Too many different blocks");
+        }
+        palette[paletteSize] = state;
+        return paletteSize++;
+    }
+
+    private int index(int x, int y, int z) {
+        return ((y - bakedMinY) * SIZE + z) * SIZE + x;
+    }
+
+    @Override
+    public DimensionType dimension() {
+        return dimension;
+    }
+
+    @Override
+    public BlockState get(int x, int y, int z) {
+        if (x < 0 || x >= SIZE || z < 0 || z >= SIZE) {
+            return AIR;
+        }
+        if (y < bakedMinY) {
+            return below;
+        }
+        if (y >= bakedMinY + BAKED_HEIGHT) {
+            return above;
+        }
+        return palette[blocks[index(x, y, z)] & 0xff];
+    }
+
+    @Override
+    public boolean isLoaded(int x, int z) {
+        return x >= 0 && x < SIZE && z >= 0 && z < SIZE;
+    }
+
+    @Override
+    public BetterBlockPos start() {
+        return start;
+    }
+
+    @Override
+    public BetterBlockPos goal() {
+        return goal;
+    }
+}
@@ -0,0 +1,256 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Baritone.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package baritone.bench;
+
+import baritone.api.utils.BetterBlockPos;
+import baritone.headless.Dimensions;
+import net.minecraft.world.level.block.Blocks;
+import net.minecraft.world.level.block.state.BlockState;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Paths;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Random;
+
+/**
+ * The kinds of world the benchmarks run in. Everything is generated from a fixed seed so that runs are comparable.
+ */
+public enum Terrain {
+
+    /**
+     * Grass at y=63 with short stone pillars scattered around, so it isn't just a straight line
+     */
+    FLAT {
+        @Override
+        public BenchmarkWorld create() {
+            Random rand = new Random(SEED);
+            SyntheticWorld world = new SyntheticWorld(Dimensions.OVERWORLD, 0, AIR, STONE, AIR);
+            int size = SyntheticWorld.SIZE;
+            world.fill(0, 0, 0, size - 1, 62, size - 1, STONE);
+            world.fill(0, 63, 0, size - 1, 63, size - 1, GRASS);
+            for (int x = 0; x < size; x++) {
+                for (int z = 0; z < size; z++) {
+                    if (rand.nextInt(16) == 0) {
+                        world.fill(x, 64, z, x, 64 + rand.nextInt(3), z, STONE);
+                    }
+                }
+            }
+            BetterBlockPos start = new BetterBlockPos(8, 64, 8);
+            BetterBlockPos goal = new BetterBlockPos(size - 9, 64, size - 9);
+            world.fill(start.x - 2, 64, start.z - 2, start.x + 2, 70, start.z + 2, AIR);
+            world.fill(goal.x - 2, 64, goal.z - 2, goal.x + 2, 70, goal.z + 2, AIR);
+            world.setEndpoints(start, goal);
+            return world;
+        }
+    },
+
+    /**
+     * Solid stone with a two block high maze carved into it at y=40, from one corner to the other
+     */
+    CAVE_MAZE {
+        @Override
+        public BenchmarkWorld create() {
+            Random rand = new Random(SEED);
+            SyntheticWorld world = new SyntheticWorld(Dimensions.OVERWORLD, 0, STONE, STONE, AIR);
+            int cells = (SyntheticWorld.SIZE - 1) / 3;
+            int y = 40;
+            // depth first maze, each cell is 2x2 with a wall of 1 between cells
+            boolean[] visited = new boolean[cells * cells];
+            Deque<Integer> stack = new ArrayDeque<>();
+            stack.push(0);
+            visited[0] = true;
+            carveCell(world, 0, 0, y);
+            int[][] directions = {{1, 0}, {-1, 0}, {0, 1}, {0, -1}};
+            while (!stack.isEmpty()) {
+                int cell = stack.peek();
+                int cx = cell / cells;
+                int cz = cell % cells;
+                int[] options = new int[4];
+                int count = 0;
+                for (int i = 0; i < 4; i++) {
+                    int nx = cx + directions[i][0];
+                    int nz = cz + directions[i][1];
+                    if (nx >= 0 && nx < cells && nz >= 0 && nz < cells && !visited[nx * cells + nz]) {
+                        options[count++] = i;
+                    }
+                }
+                if (count == 0) {
+                    stack.pop();
+                    continue;
+                }
+                int[] dir = directions[options[rand.nextInt(count)]];
+                int nx = cx + dir[0];
+                int nz = cz + dir[1];
+                // the wall between the two cells
+                int wallX = dir[0] == 0 ? cx * 3 + 1 : Math.max(cx, nx) * 3;
+                int wallZ = dir[1] == 0 ? cz * 3 + 1 : Math.max(cz, nz) * 3;
+                world.fill(wallX, y, wallZ, wallX + (dir[0] == 0 ? 1 : 0), y + 1, wallZ + (dir[1] == 0 ? 1 : 0), AIR);
+                carveCell(world, nx, nz, y);
+                visited[nx * cells + nz] = true;
+                stack.push(nx * cells + nz);
+            }
+            world.setEndpoints(new BetterBlockPos(1, y, 1), new BetterBlockPos((cells - 1) * 3 + 1, y, (cells - 1) * 3 + 1));
+            return world;
+        }
+
+        private void carveCell(SyntheticWorld world, int cx, int cz, int y) {
+            world.fill(cx * 3 + 1, y, cz * 3 + 1, cx * 3 + 2, y + 1, cz * 3 + 2, AIR);
+        }
+    },
+
+    /**
+     * Open water from y=31 to y=62 over a sand floor, with small islands to start and end on and a few in between
+     */
+    OCEAN {
+        @Override
+        public BenchmarkWorld create() {
+            Random rand = new Random(SEED);
+            SyntheticWorld world = new SyntheticWorld(Dimensions.OVERWORLD, 0, AIR, STONE, AIR);
+            int size = SyntheticWorld.SIZE;
+            world.fill(0, 0, 0, size - 1, 29, size - 1, STONE);
+            world.fill(0, 30, 0, size - 1, 30, size - 1, SAND);
+            world.fill(0, 31, 0, size - 1, 62, size - 1, WATER);
+            BetterBlockPos start = new BetterBlockPos(8, 64, 8);
+            BetterBlockPos goal = new BetterBlockPos(size - 9, 64, size - 9);
+            island(world, start.x, start.z, 4);
+            island(world, goal.x, goal.z, 4);
+            for (int i = 0; i < 12; i++) {
+                island(world, rand.nextInt(size), rand.nextInt(size), 2 + rand.nextInt(6));
+            }
+            world.setEndpoints(start, goal);
+            return world;
+        }
+
+        private void island(SyntheticWorld world, int x, int z, int radius) {
+            for (int dx = -radius; dx <= radius; dx++) {
+                for (int dz = -radius; dz <= radius; dz++) {
+                    if (dx * dx + dz * dz <= radius * radius) {
+                        world.fill(x + dx, 31, z + dz, x + dx, 63, z + dz, SAND);
+                    }
+                }
+            }
+        }
+    },
+
+    /**
+     * Netherrack with big noisy caverns, a lava sea up to y=31, and bedrock at the top and bottom
+     */
+    NETHER {
+        @Override
+        public BenchmarkWorld create() {
+            SyntheticWorld world = new SyntheticWorld(Dimensions.NETHER, 0, NETHERRACK, BEDROCK, BEDROCK);
+            int size = SyntheticWorld.SIZE;
+            for (int y = 1; y < SyntheticWorld.BAKED_HEIGHT - 1; y++) {
+                for (int z = 0; z < size; z++) {
+                    for (int x = 0; x < size; x++) {
+                        if (noise(x / 16.0, y / 8.0, z / 16.0) < 0.45) {
+                            world.set(x, y, z, y <= 31 ? LAVA : AIR);
+                        }
+                    }
+                }
+            }
+            world.fill(0, 0, 0, size - 1, 0, size - 1, BEDROCK);
+            world.fill(0, SyntheticWorld.BAKED_HEIGHT - 1, 0, size - 1, SyntheticWorld.BAKED_HEIGHT - 1, size - 1, BEDROCK);
+            BetterBlockPos start = new BetterBlockPos(8, 64, 8);
+            BetterBlockPos goal = new BetterBlockPos(size - 9, 64, size - 9);
+            for (BetterBlockPos pos : new BetterBlockPos[]{start, goal}) {
+                world.fill(pos.x - 1, pos.y, pos.z - 1, pos.x + 1, pos.y + 2, pos.z + 1, AIR);
+                world.fill(pos.x - 1, pos.y - 1, pos.z - 1, pos.x + 1, pos.y - 1, pos.z + 1, NETHERRACK);
+            }
+            world.setEndpoints(start, goal);
+            return world;
+        }
+
+        /**
+         * Smoothed value noise between 0 and 1
+         */
+        private double noise(double x, double y, double z) {
+            int x0 = (int) Math.floor(x);
+            int y0 = (int) Math.floor(y);
+            int z0 = (int) Math.floor(z);
+            double fx = smooth(x - x0);
+            double fy = smooth(y - y0);
+            double fz = smooth(z - z0);
+            double result = 0;
+            for (int i = 0; i < 8; i++) {
+                int dx = i & 1;
+                int dy = (i >> 1) & 1;
+                int dz = (i >> 2) & 1;
+                double weight = (dx == 1 ? fx : 1 - fx) * (dy == 1 ? fy : 1 - fy) * (dz == 1 ? fz : 1 - fz);
+                result += weight * lattice(x0 + dx, y0 + dy, z0 + dz);
+            }
+            return result;
+        }
+
+        private double smooth(double t) {
+            return t * t * (3 - 2 * t);
+        }
+
+        private double lattice(int x, int y, int z) {
+            long hash = SEED;
+            hash = hash * 6364136223846793005L + x;
+            hash = hash * 6364136223846793005L + y;
+            hash = hash * 6364136223846793005L + z;
+            hash ^= hash >>> 33;
+            hash *= 0xff51afd7ed558ccdL;
+            hash ^= hash >>> 33;
+            return (hash >>> 11) * 0x1.0p-53;
+        }
+    },
+
+    /**
+     * A region from a real cache, given by the {@link #REGION_PROPERTY} system property. Blocks come from the cache,
+     * so they're as approximate as the cache is.
+     */
+    REPLAY {
+        @Override
+        public BenchmarkWorld create() {
+            String file = System.getProperty(REGION_PROPERTY);
+            if (file == null) {
+                throw new IllegalStateException("Set -D" + REGION_PROPERTY + " to the path of a .bcr file to replay");
+            }
+            try {
+                return RegionWorld.load(Paths.get(file), Boolean.getBoolean(NETHER_PROPERTY) ? Dimensions.NETHER : Dimensions.OVERWORLD);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+    };
+
+    public static final String REGION_PROPERTY = "baritone.bench.region";
+
+    /**
+     * Whether the replayed region is from the nether, since the file doesn't say
+     */
+    public static final String NETHER_PROPERTY = "baritone.bench.nether";
+
+    private static final long SEED = 0x6261726974L;
+
+    private static final BlockState AIR = Blocks.AIR.defaultBlockState();
+    private static final BlockState STONE = Blocks.STONE.defaultBlockState();
+    private static final BlockState GRASS = Blocks.GRASS_BLOCK.defaultBlockState();
+    private static final BlockState SAND = Blocks.SAND.defaultBlockState();
+    private static final BlockState WATER = Blocks.WATER.defaultBlockState();
+    private static final BlockState NETHERRACK = Blocks.NETHERRACK.defaultBlockState();
+    private static final BlockState LAVA = Blocks.LAVA.defaultBlockState();
+    private static final BlockState BEDROCK = Blocks.BEDROCK.defaultBlockState();
+
+    public abstract BenchmarkWorld create();
+}
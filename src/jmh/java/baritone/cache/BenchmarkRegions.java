@@ -0,0 +1,56 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Baritone.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package baritone.cache;
+
+import net.minecraft.world.level.dimension.DimensionType;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Loads single cached regions for the benchmarks, which otherwise couldn't get at the package private constructor
+ */
+public final class BenchmarkRegions {
+
+    private BenchmarkRegions() {}
+
+    /**
+     * @param file      A region file, named like {@code r.0.-1.bcr}
+     * @param dimension The dimension it was cached in
+     * @return The region
+     * @throws IOException If the file doesn't exist or isn't named like a region file
+     */
+    public static CachedRegion load(Path file, DimensionType dimension) throws IOException {
+        String[] parts = file.getFileName().toString().split("\\.");
+        if (parts.length != 4 || !parts[0].equals("r") || !parts[3].equals("bcr")) {
+            throw new IOException("Not a region file " + file);
+        }
+        if (!Files.exists(file)) {
+            throw new IOException("No such region file " + file);
+        }
+        CachedRegion region;
+        try {
+            region = new CachedRegion(Integer.parseInt(parts[1]), Integer.parseInt(parts[2]), dimension, true);
+        } catch (NumberFormatException e) {
+            throw new IOException("Not a region file " + file, e);
+        }
+        region.load(file.toAbsolutePath().getParent().toString());
+        return region;
+    }
+}
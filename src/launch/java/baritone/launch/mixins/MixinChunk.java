@@ -0,0 +1,46 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Baritone.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package baritone.launch.mixins;
+
+import baritone.pathing.precompute.SectionVersions;
+import net.minecraft.core.BlockPos;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.chunk.LevelChunk;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfoReturnable;
+
+/**
+ * Every block that changes on the client goes through here, whether it came from the server or was predicted from our
+ * own breaking and placing, so this is where {@link SectionVersions} finds out about single block changes.
+ */
+@Mixin(LevelChunk.class)
+public abstract class MixinChunk {
+
+    @Inject(
+            method = "setBlockState",
+            at = @At("RETURN")
+    )
+    private void postSetBlockState(BlockPos pos, BlockState state, boolean isMoving, CallbackInfoReturnable<BlockState> cir) {
+        // null means nothing changed
+        if (cir.getReturnValue() != null && ((LevelChunk) (Object) this).getLevel().isClientSide()) {
+            SectionVersions.changed(pos.getX(), pos.getY(), pos.getZ());
+        }
+    }
+}
@@ -29,6 +29,7 @@ import baritone.behavior.*;
 import baritone.cache.WorldProvider;
 import baritone.command.manager.CommandManager;
 import baritone.event.GameEventHandler;
+import baritone.pathing.movement.MoveCostMemo;
 import baritone.process.*;
 import baritone.selection.SelectionManager;
 import baritone.utils.BlockStateInterface;
@@ -90,6 +91,11 @@ public class Baritone implements IBaritone {
 
     public BlockStateInterface bsi;
 
+    /**
+     * Shared by every path search, made the first time one wants it
+     */
+    private MoveCostMemo moveCostMemo;
+
     Baritone(Minecraft mc) {
         this.mc = mc;
         this.gameEventHandler = new GameEventHandler(this);
@@ -250,6 +256,13 @@ public class Baritone implements IBaritone {
         }).start();
     }
 
+    public synchronized MoveCostMemo getMoveCostMemo() {
+        if (this.moveCostMemo == null) {
+            this.moveCostMemo = new MoveCostMemo(16);
+        }
+        return this.moveCostMemo;
+    }
+
     public Path getDirectory() {
         return this.directory;
     }
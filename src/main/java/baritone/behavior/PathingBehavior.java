@@ -30,6 +30,11 @@ import baritone.api.utils.PathCalculationResult;
 import baritone.api.utils.interfaces.IGoalRenderPos;
 import baritone.pathing.calc.AStarPathFinder;
 import baritone.pathing.calc.AbstractNodeCostSearch;
+import baritone.pathing.calc.BidirectionalAStarPathFinder;
+import baritone.pathing.calc.ParallelAStarPathFinder;
+import baritone.pathing.calc.PathRepairFinder;
+import baritone.pathing.calc.PathfinderArena;
+import baritone.pathing.coarse.CoarsePathPlanner;
 import baritone.pathing.movement.CalculationContext;
 import baritone.pathing.movement.MovementHelper;
 import baritone.pathing.path.PathExecutor;
@@ -37,6 +42,7 @@ import baritone.process.ElytraProcess;
 import baritone.utils.PathRenderer;
 import baritone.utils.PathingCommandContext;
 import baritone.utils.pathing.Favoring;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.Objects;
@@ -68,6 +74,8 @@ public final class PathingBehavior extends Behavior implements IPathingBehavior,
 
     private final Object pathPlanLock = new Object();
 
+    private final PathfinderArena arena = new PathfinderArena();
+
     private boolean lastAutoJump;
 
     private BetterBlockPos expectedSegmentStart;
@@ -152,6 +160,7 @@ public final class PathingBehavior extends Behavior implements IPathingBehavior,
             }
             safeToCancel = current.onTick();
             if (current.failed() || current.finished()) {
+                PathExecutor ended = current;
                 current = null;
                 if (goal == null || goal.isInGoal(ctx.playerFeet())) {
                     logDebug("All done. At " + goal);
@@ -189,7 +198,11 @@ public final class PathingBehavior extends Behavior implements IPathingBehavior,
                     }
                     // we aren't calculating
                     queuePathEvent(PathEvent.CALC_STARTED);
-                    findPathInNewThread(expectedSegmentStart, true, context);
+                    if (Baritone.settings().incrementalReplanning.value && ended.failed() && ended.getBrokenMovement() != -1) {
+                        findPathInNewThread(expectedSegmentStart, true, context, ended.getPath(), ended.getBrokenMovement());
+                    } else {
+                        findPathInNewThread(expectedSegmentStart, true, context);
+                    }
                 }
                 return;
             }
@@ -234,6 +247,13 @@ public final class PathingBehavior extends Behavior implements IPathingBehavior,
         }
     }
 
+    @Override
+    public void onBlockChange(BlockChangeEvent event) {
+        if (Baritone.settings().incrementalReplanning.value && current != null) {
+            current.onBlocksChanged(event.getBlocks());
+        }
+    }
+
     @Override
     public void onPlayerUpdate(PlayerUpdateEvent event) {
         if (current != null) {
@@ -467,6 +487,18 @@ public final class PathingBehavior extends Behavior implements IPathingBehavior,
      * @param talkAboutIt
      */
     private void findPathInNewThread(final BlockPos start, final boolean talkAboutIt, CalculationContext context) {
+        findPathInNewThread(start, talkAboutIt, context, null, -1);
+    }
+
+    /**
+     * In a new thread, pathfind to target blockpos, patching up a broken path if there is one
+     *
+     * @param start
+     * @param talkAboutIt
+     * @param broken         A path that something has made impossible, or null
+     * @param brokenMovement The index of the movement in it that became impossible
+     */
+    private void findPathInNewThread(final BlockPos start, final boolean talkAboutIt, CalculationContext context, IPath broken, int brokenMovement) {
         // this must be called with synchronization on pathCalcLock!
         // actually, we can check this, muahaha
         if (!Thread.holdsLock(pathCalcLock)) {
@@ -493,7 +525,7 @@ public final class PathingBehavior extends Behavior implements IPathingBehavior,
             primaryTimeout = Baritone.settings().planAheadPrimaryTimeoutMS.value;
             failureTimeout = Baritone.settings().planAheadFailureTimeoutMS.value;
         }
-        AbstractNodeCostSearch pathfinder = createPathfinder(start, goal, current == null ? null : current.getPath(), context);
+        AbstractNodeCostSearch pathfinder = createPathfinder(start, goal, current == null ? null : current.getPath(), context, arena, broken, brokenMovement);
         if (!Objects.equals(pathfinder.getGoal(), goal)) { // will return the exact same object if simplification didn't happen
             logDebug("Simplifying " + goal.getClass() + " to GoalXZ due to distance");
         }
@@ -515,6 +547,13 @@ public final class PathingBehavior extends Behavior implements IPathingBehavior,
                         } else {
                             logDebug("Warning: discarding orphan path segment with incorrect start");
                         }
+                    } else if (pathfinder instanceof PathRepairFinder && calcResult.getType() != PathCalculationResult.Type.CANCELLATION) {
+                        logDebug("Couldn't repair the path, searching again from scratch");
+                        synchronized (pathCalcLock) {
+                            inProgress = null;
+                            findPathInNewThread(start, talkAboutIt, context);
+                        }
+                        return;
                     } else {
                         if (calcResult.getType() != PathCalculationResult.Type.CANCELLATION && calcResult.getType() != PathCalculationResult.Type.EXCEPTION) {
                             // don't dispatch CALC_FAILED on cancellation
@@ -553,7 +592,7 @@ public final class PathingBehavior extends Behavior implements IPathingBehavior,
         });
     }
 
-    private static AbstractNodeCostSearch createPathfinder(BlockPos start, Goal goal, IPath previous, CalculationContext context) {
+    private static AbstractNodeCostSearch createPathfinder(BlockPos start, Goal goal, IPath previous, CalculationContext context, PathfinderArena arena, IPath broken, int brokenMovement) {
         Goal transformed = goal;
         if (Baritone.settings().simplifyUnloadedYCoord.value && goal instanceof IGoalRenderPos) {
             BlockPos pos = ((IGoalRenderPos) goal).getGoalPos();
@@ -561,8 +600,34 @@ public final class PathingBehavior extends Behavior implements IPathingBehavior,
                 transformed = new GoalXZ(pos.getX(), pos.getZ());
             }
         }
+        if (broken != null && transformed.equals(broken.getGoal())) {
+            PathRepairFinder repair = PathRepairFinder.create(start, transformed, broken, brokenMovement, context);
+            if (repair != null) {
+                return repair;
+            }
+        }
         Favoring favoring = new Favoring(context.getBaritone().getPlayerContext(), previous, context);
-        return new AStarPathFinder(start.getX(), start.getY(), start.getZ(), transformed, favoring, context);
+        if (Baritone.settings().coarsePathing.value) {
+            LongOpenHashSet corridor = CoarsePathPlanner.corridorFor(context, start, transformed);
+            if (corridor != null) {
+                favoring.setCorridor(corridor, Baritone.settings().coarsePathingCorridorCoefficient.value);
+            }
+        }
+        AbstractNodeCostSearch pathfinder;
+        if (Baritone.settings().parallelPathing.value && !Baritone.settings().slowPath.value && context.getClass() == CalculationContext.class) {
+            // a subclass would lose its overrides when the workers copy it
+            pathfinder = new ParallelAStarPathFinder(start.getX(), start.getY(), start.getZ(), transformed, favoring, context, Baritone.settings().parallelPathingThreads.value);
+        } else if (Baritone.settings().bidirectionalPathing.value && !Baritone.settings().slowPath.value && BidirectionalAStarPathFinder.supports(transformed)) {
+            // the backward half needs to see the plain goal, so no landmark heuristic here
+            return new BidirectionalAStarPathFinder(start.getX(), start.getY(), start.getZ(), transformed, favoring, context);
+        } else {
+            pathfinder = new AStarPathFinder(start.getX(), start.getY(), start.getZ(), transformed, favoring, context, arena);
+        }
+        if (Baritone.settings().landmarkHeuristic.value && context.worldData != null) {
+            // only the heuristic, the path still says it's going to the goal that was asked for
+            pathfinder.setHeuristic(context.worldData.landmarks.wrap(transformed));
+        }
+        return pathfinder;
     }
 
     @Override
@@ -28,7 +28,6 @@ import net.minecraft.world.level.block.state.BlockState;
 import net.minecraft.world.level.dimension.DimensionType;
 
 import java.util.ArrayList;
-import java.util.BitSet;
 import java.util.List;
 import java.util.Map;
 
@@ -139,7 +138,7 @@ public final class CachedChunk {
      * <p>
      * Each block is expressed as 2 bits giving a total of 16 KiB
      */
-    private final BitSet data;
+    private final PackedBlockTypes data;
 
     private final Int2ObjectOpenHashMap<String> special;
 
@@ -154,10 +153,12 @@ public final class CachedChunk {
 
     public final long cacheTimestamp;
 
-    CachedChunk(int x, int z, int height, BitSet data, BlockState[] overview, Map<String, List<BlockPos>> specialBlockLocations, long cacheTimestamp) {
+    CachedChunk(int x, int z, int height, PackedBlockTypes data, BlockState[] overview, Map<String, List<BlockPos>> specialBlockLocations, long cacheTimestamp) {
         this.size = size(height);
         this.sizeInBytes = sizeInBytes(size);
-        validateSize(data);
+        if (data.height != height) {
+            throw new IllegalArgumentException("Packed data of invalid height provided");
+        }
 
         this.x = x;
         this.z = z;
@@ -228,22 +229,34 @@ public final class CachedChunk {
         return ChunkPacker.pathingTypeToBlock(type, dimension);
     }
 
+    /**
+     * @param x The x position, relative to this chunk
+     * @param y The y position, relative to the bottom of the world
+     * @param z The z position, relative to this chunk
+     * @return The cached type of the block
+     */
+    public final PathingBlockType getType(int x, int y, int z) {
+        return getType(getPositionIndex(x, y, z));
+    }
+
+    /**
+     * @param x The x position, relative to this chunk
+     * @param z The z position, relative to this chunk
+     * @return The y of the highest non air block in the column, relative to the bottom of the world
+     */
+    public final int getSurfaceHeight(int x, int z) {
+        return heightMap[z << 4 | x];
+    }
+
     private PathingBlockType getType(int index) {
-        return PathingBlockType.fromBits(data.get(index), data.get(index + 1));
+        return data.get(index);
     }
 
     private void calculateHeightMap() {
-        for (int z = 0; z < 16; z++) {
-            for (int x = 0; x < 16; x++) {
-                int index = z << 4 | x;
-                heightMap[index] = 0;
-                for (int y = height; y >= 0; y--) {
-                    int i = getPositionIndex(x, y, z);
-                    if (data.get(i) || data.get(i + 1)) {
-                        heightMap[index] = y;
-                        break;
-                    }
-                }
+        data.highestNonAir(heightMap);
+        for (int i = 0; i < 256; i++) {
+            if (heightMap[i] == -1) {
+                heightMap[i] = 0;
             }
         }
     }
@@ -267,6 +280,13 @@ public final class CachedChunk {
         return res;
     }
 
+    /**
+     * @return A copy of the packed block types, to make a changed version of this chunk from
+     */
+    final PackedBlockTypes copyTypes() {
+        return data.copy();
+    }
+
     /**
      * @return Returns the raw packed chunk data as a byte array
      */
@@ -285,18 +305,4 @@ public final class CachedChunk {
     public static int getPositionIndex(int x, int y, int z) {
         return (x << 1) | (z << 5) | (y << 9);
     }
-
-    /**
-     * Validates the size of an input {@link BitSet} containing the raw
-     * packed chunk data. Sizes that exceed {@link CachedChunk#size} are
-     * considered invalid, and thus, an exception will be thrown.
-     *
-     * @param data The raw data
-     * @throws IllegalArgumentException if the bitset size exceeds the maximum size
-     */
-    private void validateSize(BitSet data) {
-        if (data.size() > size) {
-            throw new IllegalArgumentException("BitSet of invalid length provided");
-        }
-    }
 }
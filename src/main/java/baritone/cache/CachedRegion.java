@@ -18,19 +18,23 @@
 package baritone.cache;
 
 import baritone.Baritone;
+import baritone.api.Settings;
 import baritone.api.cache.ICachedRegion;
 import baritone.api.utils.BlockUtils;
+import baritone.pathing.precompute.SectionVersions;
 import net.minecraft.core.BlockPos;
 import net.minecraft.world.level.block.state.BlockState;
 import net.minecraft.world.level.dimension.DimensionType;
 
 import java.io.*;
+import java.nio.ByteBuffer;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.util.*;
-import java.util.zip.GZIPInputStream;
-import java.util.zip.GZIPOutputStream;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.zip.*;
 
 /**
  * @author Brady
@@ -42,15 +46,76 @@ public final class CachedRegion implements ICachedRegion {
     private static final byte CHUNK_PRESENT = 1;
 
     /**
-     * Magic value to detect invalid cache files, or incompatible cache files saved in an old version of Baritone
+     * Magic value to detect invalid cache files, or incompatible cache files saved in an old version of Baritone.
+     * Only files in the old format, from before {@link RegionFile}, have this.
      */
     private static final int CACHED_REGION_MAGIC = 456022911;
 
     /**
-     * All of the chunks in this region: A 32x32 array of them.
+     * The decoded chunks in this region: A 32x32 array of them. At most {@link Settings#maxDecodedChunksPerRegion} of
+     * these are kept, not counting dirty ones, and the rest are only in {@link #compressed}.
      */
     private final CachedChunk[][] chunks = new CachedChunk[32][32];
 
+    /**
+     * Each chunk as it is stored in the region file, or null if it isn't cached, has changed since it was last loaded
+     * or saved, or has been spilled. A chunk that's in both this and {@link #chunks} can be evicted back to just this
+     * at any time. These come from {@link OffHeapChunkStore}, so they might not be on the heap.
+     */
+    private final ByteBuffer[][] compressed = new ByteBuffer[32][32];
+
+    /**
+     * Chunks that {@link OffHeapChunkStore} has spilled, so they're only in the region file
+     */
+    private final boolean[][] spilled = new boolean[32][32];
+
+    /**
+     * The region file this was last loaded from or saved to, where spilled chunks are read back from
+     */
+    private Path diskFile;
+
+    /**
+     * Guards {@link #reader} and the region file itself. Spilled chunks are read with the read lock, and the file is
+     * only written to or replaced with the write lock, once the reader is closed.
+     */
+    private final ReentrantReadWriteLock fileLock = new ReentrantReadWriteLock();
+
+    /**
+     * Kept open to read spilled chunks from {@link #diskFile}, so its index is only read once. Null until a spilled
+     * chunk is needed, and again whenever the file changes. Only opened or closed with the write lock of
+     * {@link #fileLock}.
+     */
+    private RegionFile reader;
+
+    /**
+     * When each chunk was cached, whether or not it's decoded
+     */
+    private final long[][] timestamps = new long[32][32];
+
+    /**
+     * The special block locations of chunks that have been evicted, so that searching for them doesn't need to
+     * decode everything again
+     */
+    private final Map<String, List<BlockPos>>[][] specials = new Map[32][32];
+
+    /**
+     * Set whenever a decoded chunk is used, and cleared as {@link #clockHand} passes over it. Chunks that haven't been
+     * used for a whole trip around are the ones that get evicted.
+     */
+    private final boolean[][] referenced = new boolean[32][32];
+
+    private int clockHand;
+
+    /**
+     * Where every special block in this region is, or null if something has changed since it was last needed
+     */
+    private volatile SpecialBlockIndex specialIndex;
+
+    /**
+     * How many of {@link #chunks} aren't null
+     */
+    private int decodedCount;
+
     /**
      * The region x coordinate
      */
@@ -63,22 +128,37 @@ public final class CachedRegion implements ICachedRegion {
 
     private final DimensionType dimension;
 
+    /**
+     * Whether this region only ever reads its file, and never converts, creates or saves it
+     */
+    private final boolean readOnly;
+
     /**
      * Has this region been modified since its most recent load or save
      */
     private boolean hasUnsavedChanges;
 
+    /**
+     * Which chunks have been modified or removed since the most recent load or save
+     */
+    private final boolean[][] dirty = new boolean[32][32];
+
     CachedRegion(int x, int z, DimensionType dimension) {
+        this(x, z, dimension, false);
+    }
+
+    CachedRegion(int x, int z, DimensionType dimension, boolean readOnly) {
         this.x = x;
         this.z = z;
         this.hasUnsavedChanges = false;
         this.dimension = dimension;
+        this.readOnly = readOnly;
     }
 
     @Override
     public final BlockState getBlock(int x, int y, int z) {
         int adjY = y - dimension.minY();
-        CachedChunk chunk = chunks[x >> 4][z >> 4];
+        CachedChunk chunk = getChunk(x >> 4, z >> 4);
         if (chunk != null) {
             return chunk.getBlock(x & 15, adjY, z & 15, dimension);
         }
@@ -87,111 +167,440 @@ public final class CachedRegion implements ICachedRegion {
 
     @Override
     public final boolean isCached(int x, int z) {
-        return chunks[x >> 4][z >> 4] != null;
+        return chunks[x >> 4][z >> 4] != null || hasPayload(x >> 4, z >> 4);
     }
 
-    public final ArrayList<BlockPos> getLocationsOf(String block) {
-        ArrayList<BlockPos> res = new ArrayList<>();
+    /**
+     * @return Whether the chunk can be decoded, either from {@link #compressed} or from the region file
+     */
+    private boolean hasPayload(int chunkX, int chunkZ) {
+        return compressed[chunkX][chunkZ] != null || spilled[chunkX][chunkZ];
+    }
+
+    /**
+     * @param chunkX The chunk x coordinate, relative to this region
+     * @param chunkZ The chunk z coordinate, relative to this region
+     * @return The cached chunk, decoded if it wasn't already, or null if it isn't cached
+     */
+    public final CachedChunk getChunk(int chunkX, int chunkZ) {
+        CachedChunk chunk = chunks[chunkX][chunkZ];
+        if (chunk == null) {
+            // checked first so that looking at uncached chunks doesn't need the lock
+            return hasPayload(chunkX, chunkZ) ? decodeChunk(chunkX, chunkZ) : null;
+        }
+        if (!referenced[chunkX][chunkZ]) { // read first so that hot chunks don't get written to all the time
+            referenced[chunkX][chunkZ] = true;
+        }
+        return chunk;
+    }
+
+    private CachedChunk decodeChunk(int chunkX, int chunkZ) {
+        ByteBuffer payload;
+        Path file;
+        synchronized (this) {
+            CachedChunk chunk = chunks[chunkX][chunkZ];
+            if (chunk != null || !hasPayload(chunkX, chunkZ)) {
+                return chunk; // someone else got here first
+            }
+            payload = compressed[chunkX][chunkZ];
+            file = diskFile;
+        }
+        try {
+            if (payload == null) {
+                // without the lock, so that everything else can keep using this region while it's read
+                payload = readSpilled(file, chunkX, chunkZ);
+            }
+        } catch (Exception ex) {
+            return failedToDecode(chunkX, chunkZ, ex);
+        }
+        synchronized (this) {
+            CachedChunk chunk = chunks[chunkX][chunkZ];
+            if (chunk != null || !hasPayload(chunkX, chunkZ)) {
+                return chunk; // decoded or changed while it was being read
+            }
+            try {
+                chunk = decode(chunkX, chunkZ, payload, timestamps[chunkX][chunkZ]);
+            } catch (Exception ex) {
+                return failedToDecode(chunkX, chunkZ, ex);
+            }
+            evictColdChunks(Baritone.settings().maxDecodedChunksPerRegion.value - 1);
+            chunks[chunkX][chunkZ] = chunk;
+            referenced[chunkX][chunkZ] = true;
+            decodedCount++;
+            return chunk;
+        }
+    }
+
+    private synchronized CachedChunk failedToDecode(int chunkX, int chunkZ, Exception ex) {
+        if (chunks[chunkX][chunkZ] != null) {
+            return chunks[chunkX][chunkZ]; // it was replaced in the meantime, so that's fine
+        }
+        // the other chunks are stored separately, so they're still fine
+        System.out.println("Unable to load chunk " + (chunkX + 32 * this.x) + "," + (chunkZ + 32 * this.z));
+        ex.printStackTrace();
+        setCompressed(chunkX, chunkZ, null);
+        spilled[chunkX][chunkZ] = false;
+        specials[chunkX][chunkZ] = null;
+        specialIndex = null;
+        SectionVersions.columnChanged(chunkX + 32 * this.x, chunkZ + 32 * this.z);
+        return null;
+    }
+
+    /**
+     * Evicts decoded chunks that haven't been used recently back to their compressed form, until at most this many
+     * are left or there's nothing else that can be evicted
+     */
+    private synchronized void evictColdChunks(int limit) {
+        // twice around, since the first time might only clear the reference bits
+        for (int i = 0; i < 2 * 1024 && decodedCount > limit; i++) {
+            int chunkX = clockHand >> 5;
+            int chunkZ = clockHand & 31;
+            clockHand = (clockHand + 1) & 1023;
+            CachedChunk chunk = chunks[chunkX][chunkZ];
+            if (chunk == null || dirty[chunkX][chunkZ] || !hasPayload(chunkX, chunkZ)) {
+                continue;
+            }
+            if (referenced[chunkX][chunkZ]) {
+                referenced[chunkX][chunkZ] = false;
+                continue;
+            }
+            specials[chunkX][chunkZ] = chunk.getRelativeBlocks();
+            chunks[chunkX][chunkZ] = null;
+            decodedCount--;
+        }
+    }
+
+    /**
+     * Called by {@link OffHeapChunkStore} when it's over budget, to drop a compressed chunk that's also in the region
+     * file. Nothing happens if the chunk has been replaced since.
+     */
+    synchronized void spill(int chunkX, int chunkZ, ByteBuffer payload) {
+        if (compressed[chunkX][chunkZ] == payload && !dirty[chunkX][chunkZ]) {
+            // in this order, so that it never looks uncached to anything checking without the lock
+            spilled[chunkX][chunkZ] = true;
+            compressed[chunkX][chunkZ] = null;
+        }
+    }
+
+    /**
+     * Replaces the compressed form of a chunk, releasing the old one from {@link OffHeapChunkStore}
+     */
+    private void setCompressed(int chunkX, int chunkZ, ByteBuffer payload) {
+        ByteBuffer old = compressed[chunkX][chunkZ];
+        if (old != null && old != payload) {
+            OffHeapChunkStore.INSTANCE.release(old);
+        }
+        compressed[chunkX][chunkZ] = payload;
+    }
+
+    /**
+     * Called once this region is no longer used, to give back everything it holds in {@link OffHeapChunkStore}. Chunks
+     * that were only held compressed are treated as spilled, in case something still has a reference to this region.
+     */
+    synchronized void releaseCompressed() {
         for (int chunkX = 0; chunkX < 32; chunkX++) {
             for (int chunkZ = 0; chunkZ < 32; chunkZ++) {
-                if (chunks[chunkX][chunkZ] == null) {
-                    continue;
+                if (compressed[chunkX][chunkZ] != null) {
+                    spilled[chunkX][chunkZ] = true;
+                    setCompressed(chunkX, chunkZ, null);
                 }
-                ArrayList<BlockPos> locs = chunks[chunkX][chunkZ].getAbsoluteBlocks(block);
-                if (locs != null) {
-                    res.addAll(locs);
+            }
+        }
+        fileLock.writeLock().lock();
+        try {
+            closeReader();
+        } finally {
+            fileLock.writeLock().unlock();
+        }
+    }
+
+    private ByteBuffer readSpilled(Path file, int chunkX, int chunkZ) throws IOException {
+        int index = chunkX * 32 + chunkZ;
+        fileLock.readLock().lock();
+        try {
+            if (reader != null) {
+                return readFrom(reader, index);
+            }
+        } finally {
+            fileLock.readLock().unlock();
+        }
+        fileLock.writeLock().lock();
+        try {
+            if (reader == null) {
+                reader = RegionFile.open(file, dimension.height(), false);
+            }
+            return readFrom(reader, index);
+        } finally {
+            fileLock.writeLock().unlock();
+        }
+    }
+
+    private static ByteBuffer readFrom(RegionFile regionFile, int index) throws IOException {
+        ByteBuffer data = regionFile.read(index);
+        if (data == null) {
+            throw new IOException("Spilled chunk is missing from its region file");
+        }
+        return data;
+    }
+
+    /**
+     * Has to be called with the write lock of {@link #fileLock}, before the region file is written to or replaced
+     */
+    private void closeReader() {
+        if (reader == null) {
+            return;
+        }
+        try {
+            reader.close();
+        } catch (IOException ex) {
+            ex.printStackTrace();
+        }
+        reader = null;
+    }
+
+    public final ArrayList<BlockPos> getLocationsOf(String block) {
+        return getSpecialIndex().getAll(block);
+    }
+
+    /**
+     * Offers every location of this block in this region that could be one of the nearest to the search
+     */
+    final void findNearest(String block, NearestPositions search) {
+        getSpecialIndex().findNearest(block, search);
+    }
+
+    private SpecialBlockIndex getSpecialIndex() {
+        SpecialBlockIndex index = specialIndex;
+        return index != null ? index : buildSpecialIndex();
+    }
+
+    private synchronized SpecialBlockIndex buildSpecialIndex() {
+        if (specialIndex != null) {
+            return specialIndex;
+        }
+        SpecialBlockIndex.Builder builder = new SpecialBlockIndex.Builder(this.x, this.z);
+        for (int chunkX = 0; chunkX < 32; chunkX++) {
+            for (int chunkZ = 0; chunkZ < 32; chunkZ++) {
+                Map<String, List<BlockPos>> locations = specials[chunkX][chunkZ];
+                if (chunks[chunkX][chunkZ] != null || locations == null) {
+                    // only chunks that have never been decoded need to be, evicted ones left their locations behind
+                    CachedChunk chunk = getChunk(chunkX, chunkZ);
+                    if (chunk == null) {
+                        continue;
+                    }
+                    locations = chunk.getRelativeBlocks();
                 }
+                builder.addChunk(chunkX, chunkZ, locations);
             }
         }
-        return res;
+        specialIndex = builder.build();
+        return specialIndex;
     }
 
     public final synchronized void updateCachedChunk(int chunkX, int chunkZ, CachedChunk chunk) {
+        if (this.chunks[chunkX][chunkZ] == null) {
+            decodedCount++;
+        }
         this.chunks[chunkX][chunkZ] = chunk;
+        setCompressed(chunkX, chunkZ, null);
+        this.spilled[chunkX][chunkZ] = false;
+        this.specials[chunkX][chunkZ] = null;
+        this.specialIndex = null;
+        this.timestamps[chunkX][chunkZ] = chunk.cacheTimestamp;
+        this.referenced[chunkX][chunkZ] = true;
+        this.dirty[chunkX][chunkZ] = true;
         hasUnsavedChanges = true;
+        evictColdChunks(Baritone.settings().maxDecodedChunksPerRegion.value);
     }
 
 
     public synchronized final void save(String directory) {
-        if (!hasUnsavedChanges) {
+        if (readOnly || !hasUnsavedChanges) {
             return;
         }
         removeExpired();
+        fileLock.writeLock().lock();
         try {
+            // nothing else can have the file open while it's written to or replaced
+            closeReader();
             Path path = Paths.get(directory);
             if (!Files.exists(path)) {
                 Files.createDirectories(path);
-
             }
             System.out.println("Saving region " + x + "," + z + " to disk " + path);
             Path regionFile = getRegionFile(path, this.x, this.z);
-            if (!Files.exists(regionFile)) {
-                Files.createFile(regionFile);
-            }
-            try (
-                    FileOutputStream fileOut = new FileOutputStream(regionFile.toFile());
-                    GZIPOutputStream gzipOut = new GZIPOutputStream(fileOut, 16384);
-                    DataOutputStream out = new DataOutputStream(gzipOut)
-            ) {
-                out.writeInt(CACHED_REGION_MAGIC);
-                for (int x = 0; x < 32; x++) {
-                    for (int z = 0; z < 32; z++) {
-                        CachedChunk chunk = this.chunks[x][z];
-                        if (chunk == null) {
-                            out.write(CHUNK_NOT_PRESENT);
-                        } else {
-                            out.write(CHUNK_PRESENT);
-                            byte[] chunkBytes = chunk.toByteArray();
-                            out.write(chunkBytes);
-                            // Messy, but fills the empty 0s that should be trailing to fill up the space.
-                            out.write(new byte[chunk.sizeInBytes - chunkBytes.length]);
-                        }
-                    }
-                }
-                for (int x = 0; x < 32; x++) {
-                    for (int z = 0; z < 32; z++) {
-                        if (chunks[x][z] != null) {
-                            for (int i = 0; i < 256; i++) {
-                                out.writeUTF(BlockUtils.blockToString(chunks[x][z].getOverview()[i].getBlock()));
-                            }
-                        }
-                    }
-                }
-                for (int x = 0; x < 32; x++) {
-                    for (int z = 0; z < 32; z++) {
-                        if (chunks[x][z] != null) {
-                            Map<String, List<BlockPos>> locs = chunks[x][z].getRelativeBlocks();
-                            out.writeShort(locs.entrySet().size());
-                            for (Map.Entry<String, List<BlockPos>> entry : locs.entrySet()) {
-                                out.writeUTF(entry.getKey());
-                                out.writeShort(entry.getValue().size());
-                                for (BlockPos pos : entry.getValue()) {
-                                    out.writeByte((byte) (pos.getZ() << 4 | pos.getX()));
-                                    out.writeInt(pos.getY()-dimension.minY());
-                                }
-                            }
-                        }
-                    }
-                }
-                for (int x = 0; x < 32; x++) {
-                    for (int z = 0; z < 32; z++) {
-                        if (chunks[x][z] != null) {
-                            out.writeLong(chunks[x][z].cacheTimestamp);
-                        }
-                    }
+            if (Files.exists(regionFile) && Files.size(regionFile) > 0 && RegionFile.isLegacy(regionFile)) {
+                // it never got converted, so it's easiest to just start over with everything we have
+                markAllDirty();
+                Files.delete(regionFile);
+            }
+            diskFile = regionFile;
+            Path compacted = null;
+            int saved;
+            try (RegionFile file = RegionFile.open(regionFile, dimension.height(), true)) {
+                saved = writeDirtyChunks(file);
+                if (file.needsCompaction()) {
+                    compacted = RegionFile.tempFileFor(regionFile);
+                    file.copyTo(compacted, dimension.height());
                 }
             }
+            // only once it's closed, and spilled chunks can't be read until we let go of the write lock
+            if (compacted != null) {
+                Files.move(compacted, regionFile, StandardCopyOption.REPLACE_EXISTING);
+            }
             hasUnsavedChanges = false;
-            System.out.println("Saved region successfully");
+            System.out.println("Saved " + saved + " chunks of region successfully");
         } catch (Exception ex) {
             ex.printStackTrace();
+        } finally {
+            fileLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return How many chunks were written, not counting ones that were removed
+     */
+    private int writeDirtyChunks(RegionFile file) throws IOException {
+        int saved = 0;
+        for (int x = 0; x < 32; x++) {
+            for (int z = 0; z < 32; z++) {
+                if (!dirty[x][z]) {
+                    continue;
+                }
+                CachedChunk chunk = chunks[x][z];
+                if (chunk == null) {
+                    file.remove(x * 32 + z);
+                } else {
+                    byte[] data = encode(chunk);
+                    file.write(x * 32 + z, data, data.length, chunk.cacheTimestamp);
+                    setCompressed(x, z, OffHeapChunkStore.INSTANCE.store(this, x, z, data));
+                    spilled[x][z] = false;
+                    saved++;
+                }
+            }
+        }
+        file.flush();
+        // only once the index points at them are they actually saved, and so can be evicted
+        for (boolean[] column : dirty) {
+            Arrays.fill(column, false);
+        }
+        evictColdChunks(Baritone.settings().maxDecodedChunksPerRegion.value);
+        return saved;
+    }
+
+    private void markAllDirty() {
+        for (int x = 0; x < 32; x++) {
+            for (int z = 0; z < 32; z++) {
+                if (getChunk(x, z) != null) {
+                    dirty[x][z] = true;
+                }
+            }
+        }
+    }
+
+    /**
+     * @return The chunk, compressed: the packed block types, then the surface blocks as a palette, then the special
+     * block locations
+     */
+    private byte[] encode(CachedChunk chunk) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(4096);
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try (DataOutputStream out = new DataOutputStream(new DeflaterOutputStream(bytes, deflater, 4096))) {
+            byte[] data = chunk.toByteArray();
+            out.writeInt(data.length);
+            out.write(data);
+            List<String> palette = new ArrayList<>();
+            byte[] overview = new byte[256];
+            for (int i = 0; i < 256; i++) {
+                String name = BlockUtils.blockToString(chunk.getOverview()[i].getBlock());
+                int id = palette.indexOf(name);
+                if (id == -1) {
+                    id = palette.size();
+                    palette.add(name);
+                }
+                overview[i] = (byte) id;
+            }
+            out.writeShort(palette.size());
+            for (String name : palette) {
+                out.writeUTF(name);
+            }
+            out.write(overview);
+            Map<String, List<BlockPos>> locs = chunk.getRelativeBlocks();
+            out.writeShort(locs.size());
+            for (Map.Entry<String, List<BlockPos>> entry : locs.entrySet()) {
+                out.writeUTF(entry.getKey());
+                out.writeInt(entry.getValue().size());
+                for (BlockPos pos : entry.getValue()) {
+                    out.writeByte((byte) (pos.getZ() << 4 | pos.getX()));
+                    out.writeInt(pos.getY() - dimension.minY());
+                }
+            }
+        } finally {
+            deflater.end();
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * The opposite of {@link #encode(CachedChunk)}
+     */
+    private CachedChunk decode(int chunkX, int chunkZ, ByteBuffer compressed, long cacheTimestamp) throws IOException {
+        byte[] input = new byte[compressed.remaining()];
+        compressed.duplicate().get(input);
+        Inflater inflater = new Inflater();
+        try (DataInputStream in = new DataInputStream(new InflaterInputStream(new ByteArrayInputStream(input), inflater, 4096))) {
+            int length = in.readInt();
+            if (length < 0 || length > CachedChunk.sizeInBytes(CachedChunk.size(dimension.height()))) {
+                throw new IOException("Bad chunk data length " + length);
+            }
+            byte[] data = new byte[length];
+            in.readFully(data);
+            int paletteSize = in.readShort() & 0xffff;
+            if (paletteSize == 0 || paletteSize > 256) {
+                throw new IOException("Bad overview palette size " + paletteSize);
+            }
+            BlockState[] palette = new BlockState[paletteSize];
+            for (int i = 0; i < paletteSize; i++) {
+                palette[i] = BlockUtils.stringToBlockRequired(in.readUTF()).defaultBlockState();
+            }
+            byte[] ids = new byte[256];
+            in.readFully(ids);
+            BlockState[] overview = new BlockState[256];
+            for (int i = 0; i < 256; i++) {
+                int id = ids[i] & 0xff;
+                if (id >= paletteSize) {
+                    throw new IOException("Bad overview palette id " + id);
+                }
+                overview[i] = palette[id];
+            }
+            int numSpecialBlockTypes = in.readShort() & 0xffff;
+            Map<String, List<BlockPos>> location = new HashMap<>();
+            for (int i = 0; i < numSpecialBlockTypes; i++) {
+                String blockName = in.readUTF();
+                BlockUtils.stringToBlockRequired(blockName);
+                int numLocations = in.readInt();
+                List<BlockPos> locs = new ArrayList<>(numLocations);
+                location.put(blockName, locs);
+                for (int j = 0; j < numLocations; j++) {
+                    byte xz = in.readByte();
+                    int X = xz & 0x0f;
+                    int Z = (xz >>> 4) & 0x0f;
+                    int Y = in.readInt();
+                    locs.add(new BlockPos(X, Y + dimension.minY(), Z));
+                }
+            }
+            return new CachedChunk(chunkX + 32 * this.x, chunkZ + 32 * this.z, dimension.height(), PackedBlockTypes.fromByteArray(dimension.height(), data), overview, location, cacheTimestamp);
+        } finally {
+            inflater.end();
         }
     }
 
     public synchronized void load(String directory) {
+        fileLock.writeLock().lock();
         try {
+            closeReader();
             Path path = Paths.get(directory);
-            if (!Files.exists(path)) {
+            if (!readOnly && !Files.exists(path)) {
                 Files.createDirectories(path);
             }
 
@@ -200,110 +609,168 @@ public final class CachedRegion implements ICachedRegion {
                 return;
             }
 
+            diskFile = regionFile;
             System.out.println("Loading region " + x + "," + z + " from disk " + path);
             long start = System.nanoTime() / 1000000L;
 
-            try (
-                    FileInputStream fileIn = new FileInputStream(regionFile.toFile());
-                    GZIPInputStream gzipIn = new GZIPInputStream(fileIn, 32768);
-                    DataInputStream in = new DataInputStream(gzipIn)
-            ) {
-                int magic = in.readInt();
-                if (magic != CACHED_REGION_MAGIC) {
-                    // in the future, if we change the format on disk
-                    // we can keep converters for the old format
-                    // by switching on the magic value, and either loading it normally, or loading through a converter.
-                    throw new IOException("Bad magic value " + magic);
-                }
-                boolean[][] present = new boolean[32][32];
-                BitSet[][] bitSets = new BitSet[32][32];
-                Map<String, List<BlockPos>>[][] location = new Map[32][32];
-                BlockState[][][] overview = new BlockState[32][32][];
-                long[][] cacheTimestamp = new long[32][32];
-                for (int x = 0; x < 32; x++) {
-                    for (int z = 0; z < 32; z++) {
-                        int isChunkPresent = in.read();
-                        switch (isChunkPresent) {
-                            case CHUNK_PRESENT:
-                                byte[] bytes = new byte[CachedChunk.sizeInBytes(CachedChunk.size(dimension.height()))];
-                                in.readFully(bytes);
-                                bitSets[x][z] = BitSet.valueOf(bytes);
-                                location[x][z] = new HashMap<>();
-                                //this is top block in columns
-                                overview[x][z] = new BlockState[256];
-                                present[x][z] = true;
-                                break;
-                            case CHUNK_NOT_PRESENT:
-                                break;
-                            default:
-                                throw new IOException("Malformed stream");
+            boolean unconverted = false;
+            if (RegionFile.isLegacy(regionFile)) {
+                loadLegacy(regionFile);
+                if (!readOnly) {
+                    unconverted = !convert(regionFile);
+                } // otherwise the chunks just stay decoded, since they aren't stored anywhere else
+            } else {
+                // nothing gets decoded until something actually looks at it
+                try (RegionFile file = RegionFile.open(regionFile, dimension.height(), false)) {
+                    for (int x = 0; x < 32; x++) {
+                        for (int z = 0; z < 32; z++) {
+                            int index = x * 32 + z;
+                            if (!file.isPresent(index)) {
+                                continue;
+                            }
+                            ByteBuffer data = file.read(index);
+                            byte[] bytes = new byte[data.remaining()];
+                            data.get(bytes);
+                            setCompressed(x, z, OffHeapChunkStore.INSTANCE.store(this, x, z, bytes));
+                            this.timestamps[x][z] = file.timestamp(index);
                         }
                     }
                 }
-                for (int x = 0; x < 32; x++) {
-                    for (int z = 0; z < 32; z++) {
-                        if (present[x][z]) {
-                            for (int i = 0; i < 256; i++) {
-                                overview[x][z][i] = BlockUtils.stringToBlockRequired(in.readUTF()).defaultBlockState();
-                            }
+            }
+            // chunks that couldn't be converted are still dirty, and get written whenever this region is saved next
+            hasUnsavedChanges = unconverted;
+            specialIndex = null;
+            removeExpired();
+            long end = System.nanoTime() / 1000000L;
+            System.out.println("Loaded region successfully in " + (end - start) + "ms");
+        } catch (Exception ex) { // corrupted files can cause NullPointerExceptions as well as IOExceptions
+            ex.printStackTrace();
+        } finally {
+            fileLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Rewrites a region file in the old format in the new one, from what was just loaded out of it
+     *
+     * @return Whether it worked, otherwise every chunk is left dirty
+     */
+    private boolean convert(Path regionFile) {
+        markAllDirty();
+        Path temp = RegionFile.tempFileFor(regionFile);
+        try {
+            Files.deleteIfExists(temp);
+            try (RegionFile file = RegionFile.open(temp, dimension.height(), true)) {
+                writeDirtyChunks(file);
+            }
+            Files.move(temp, regionFile, StandardCopyOption.REPLACE_EXISTING);
+            System.out.println("Converted region " + x + "," + z + " to the new format");
+            return true;
+        } catch (IOException ex) {
+            System.out.println("Unable to convert region " + x + "," + z);
+            ex.printStackTrace();
+            markAllDirty(); // even if they made it into the new file, that didn't replace the old one
+            return false;
+        }
+    }
+
+    /**
+     * Loads a region file in the format from before each chunk was stored separately
+     */
+    private void loadLegacy(Path regionFile) throws IOException {
+        try (
+                FileInputStream fileIn = new FileInputStream(regionFile.toFile());
+                GZIPInputStream gzipIn = new GZIPInputStream(fileIn, 32768);
+                DataInputStream in = new DataInputStream(gzipIn)
+        ) {
+            int magic = in.readInt();
+            if (magic != CACHED_REGION_MAGIC) {
+                throw new IOException("Bad magic value " + magic);
+            }
+            boolean[][] present = new boolean[32][32];
+            PackedBlockTypes[][] types = new PackedBlockTypes[32][32];
+            Map<String, List<BlockPos>>[][] location = new Map[32][32];
+            BlockState[][][] overview = new BlockState[32][32][];
+            long[][] cacheTimestamp = new long[32][32];
+            for (int x = 0; x < 32; x++) {
+                for (int z = 0; z < 32; z++) {
+                    int isChunkPresent = in.read();
+                    switch (isChunkPresent) {
+                        case CHUNK_PRESENT:
+                            byte[] bytes = new byte[CachedChunk.sizeInBytes(CachedChunk.size(dimension.height()))];
+                            in.readFully(bytes);
+                            types[x][z] = PackedBlockTypes.fromByteArray(dimension.height(), bytes);
+                            location[x][z] = new HashMap<>();
+                            //this is top block in columns
+                            overview[x][z] = new BlockState[256];
+                            present[x][z] = true;
+                            break;
+                        case CHUNK_NOT_PRESENT:
+                            break;
+                        default:
+                            throw new IOException("Malformed stream");
+                    }
+                }
+            }
+            for (int x = 0; x < 32; x++) {
+                for (int z = 0; z < 32; z++) {
+                    if (present[x][z]) {
+                        for (int i = 0; i < 256; i++) {
+                            overview[x][z][i] = BlockUtils.stringToBlockRequired(in.readUTF()).defaultBlockState();
                         }
                     }
                 }
-                for (int x = 0; x < 32; x++) {
-                    for (int z = 0; z < 32; z++) {
-                        if (present[x][z]) {
-                            // 16 * 16 * 256 = 65536 so a short is enough
-                            // ^ haha jokes on leijurv, java doesn't have unsigned types so that isn't correct
-                            //   also why would you have more than 32767 special blocks in a chunk
-                            // haha double jokes on you now it works for 65535 not just 32767
-                            int numSpecialBlockTypes = in.readShort() & 0xffff;
-                            for (int i = 0; i < numSpecialBlockTypes; i++) {
-                                String blockName = in.readUTF();
-                                BlockUtils.stringToBlockRequired(blockName);
-                                List<BlockPos> locs = new ArrayList<>();
-                                location[x][z].put(blockName, locs);
-                                int numLocations = in.readShort() & 0xffff;
-                                if (numLocations == 0) {
-                                    // an entire chunk full of air can happen in the end
-                                    numLocations = 65536;
-                                }
-                                for (int j = 0; j < numLocations; j++) {
-                                    byte xz = in.readByte();
-                                    int X = xz & 0x0f;
-                                    int Z = (xz >>> 4) & 0x0f;
-                                    int Y = in.readInt();
-                                    locs.add(new BlockPos(X, Y+dimension.minY(), Z));
-                                }
+            }
+            for (int x = 0; x < 32; x++) {
+                for (int z = 0; z < 32; z++) {
+                    if (present[x][z]) {
+                        // 16 * 16 * 256 = 65536 so a short is enough
+                        // ^ haha jokes on leijurv, java doesn't have unsigned types so that isn't correct
+                        //   also why would you have more than 32767 special blocks in a chunk
+                        // haha double jokes on you now it works for 65535 not just 32767
+                        int numSpecialBlockTypes = in.readShort() & 0xffff;
+                        for (int i = 0; i < numSpecialBlockTypes; i++) {
+                            String blockName = in.readUTF();
+                            BlockUtils.stringToBlockRequired(blockName);
+                            List<BlockPos> locs = new ArrayList<>();
+                            location[x][z].put(blockName, locs);
+                            int numLocations = in.readShort() & 0xffff;
+                            if (numLocations == 0) {
+                                // an entire chunk full of air can happen in the end
+                                numLocations = 65536;
+                            }
+                            for (int j = 0; j < numLocations; j++) {
+                                byte xz = in.readByte();
+                                int X = xz & 0x0f;
+                                int Z = (xz >>> 4) & 0x0f;
+                                int Y = in.readInt();
+                                locs.add(new BlockPos(X, Y+dimension.minY(), Z));
                             }
                         }
                     }
                 }
-                for (int x = 0; x < 32; x++) {
-                    for (int z = 0; z < 32; z++) {
-                        if (present[x][z]) {
-                            cacheTimestamp[x][z] = in.readLong();
-                        }
+            }
+            for (int x = 0; x < 32; x++) {
+                for (int z = 0; z < 32; z++) {
+                    if (present[x][z]) {
+                        cacheTimestamp[x][z] = in.readLong();
                     }
                 }
-                // only if the entire file was uncorrupted do we actually set the chunks
-                for (int x = 0; x < 32; x++) {
-                    for (int z = 0; z < 32; z++) {
-                        if (present[x][z]) {
-                            int regionX = this.x;
-                            int regionZ = this.z;
-                            int chunkX = x + 32 * regionX;
-                            int chunkZ = z + 32 * regionZ;
-                            this.chunks[x][z] = new CachedChunk(chunkX, chunkZ, dimension.height(), bitSets[x][z], overview[x][z], location[x][z], cacheTimestamp[x][z]);
-                        }
+            }
+            // only if the entire file was uncorrupted do we actually set the chunks
+            for (int x = 0; x < 32; x++) {
+                for (int z = 0; z < 32; z++) {
+                    if (present[x][z]) {
+                        int regionX = this.x;
+                        int regionZ = this.z;
+                        int chunkX = x + 32 * regionX;
+                        int chunkZ = z + 32 * regionZ;
+                        this.chunks[x][z] = new CachedChunk(chunkX, chunkZ, dimension.height(), types[x][z], overview[x][z], location[x][z], cacheTimestamp[x][z]);
+                        this.timestamps[x][z] = cacheTimestamp[x][z];
+                        decodedCount++;
                     }
                 }
             }
-            removeExpired();
-            hasUnsavedChanges = false;
-            long end = System.nanoTime() / 1000000L;
-            System.out.println("Loaded region successfully in " + (end - start) + "ms");
-        } catch (Exception ex) { // corrupted files can cause NullPointerExceptions as well as IOExceptions
-            ex.printStackTrace();
         }
     }
 
@@ -316,27 +783,40 @@ public final class CachedRegion implements ICachedRegion {
         long oldestAcceptableAge = now - expiry * 1000L;
         for (int x = 0; x < 32; x++) {
             for (int z = 0; z < 32; z++) {
-                if (this.chunks[x][z] != null && this.chunks[x][z].cacheTimestamp < oldestAcceptableAge) {
-                    System.out.println("Removing chunk " + (x + 32 * this.x) + "," + (z + 32 * this.z) + " because it was cached " + (now - this.chunks[x][z].cacheTimestamp) / 1000L + " seconds ago, and max age is " + expiry);
+                boolean present = this.chunks[x][z] != null || hasPayload(x, z);
+                if (present && this.timestamps[x][z] < oldestAcceptableAge) {
+                    System.out.println("Removing chunk " + (x + 32 * this.x) + "," + (z + 32 * this.z) + " because it was cached " + (now - this.timestamps[x][z]) / 1000L + " seconds ago, and max age is " + expiry);
+                    if (this.chunks[x][z] != null) {
+                        decodedCount--;
+                    }
                     this.chunks[x][z] = null;
+                    setCompressed(x, z, null);
+                    this.spilled[x][z] = false;
+                    this.specials[x][z] = null;
+                    this.specialIndex = null;
+                    SectionVersions.columnChanged(x + 32 * this.x, z + 32 * this.z);
+                    this.dirty[x][z] = true;
+                    this.hasUnsavedChanges = true;
                 }
             }
         }
     }
 
     public synchronized final CachedChunk mostRecentlyModified() {
-        CachedChunk recent = null;
+        int recentX = -1;
+        int recentZ = -1;
         for (int x = 0; x < 32; x++) {
             for (int z = 0; z < 32; z++) {
-                if (this.chunks[x][z] == null) {
+                if (this.chunks[x][z] == null && !hasPayload(x, z)) {
                     continue;
                 }
-                if (recent == null || this.chunks[x][z].cacheTimestamp > recent.cacheTimestamp) {
-                    recent = this.chunks[x][z];
+                if (recentX == -1 || this.timestamps[x][z] > this.timestamps[recentX][recentZ]) {
+                    recentX = x;
+                    recentZ = z;
                 }
             }
         }
-        return recent;
+        return recentX == -1 ? null : getChunk(recentX, recentZ);
     }
 
     /**
@@ -355,7 +835,7 @@ public final class CachedRegion implements ICachedRegion {
         return this.z;
     }
 
-    private static Path getRegionFile(Path cacheDir, int regionX, int regionZ) {
+    static Path getRegionFile(Path cacheDir, int regionX, int regionZ) {
         return Paths.get(cacheDir.toString(), "r." + regionX + "." + regionZ + ".bcr");
     }
 }
@@ -22,22 +22,31 @@ import baritone.api.BaritoneAPI;
 import baritone.api.IBaritone;
 import baritone.api.cache.ICachedWorld;
 import baritone.api.cache.IWorldData;
+import baritone.api.pathing.calc.IPath;
+import baritone.api.pathing.goals.Goal;
 import baritone.api.utils.Helper;
-import com.google.common.cache.CacheBuilder;
+import baritone.api.utils.Pair;
+import baritone.pathing.movement.MovementHelper;
+import baritone.pathing.precompute.SectionVersions;
 import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
 import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
 import net.minecraft.core.BlockPos;
+import net.minecraft.core.Direction;
 import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.block.state.BlockState;
 import net.minecraft.world.level.chunk.LevelChunk;
 import net.minecraft.world.level.dimension.DimensionType;
 
 import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
 import java.util.List;
-import java.util.Map;
-import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Predicate;
 
 /**
  * @author Brady
@@ -51,9 +60,10 @@ public final class CachedWorld implements ICachedWorld, Helper {
     private static final int REGION_MAX = 30_000_000 / 512 + 1;
 
     /**
-     * A map of all of the cached regions.
+     * A map of all of the cached regions. This is never modified, only replaced by a modified copy while holding the
+     * lock, so it can be read without locking. Regions are added and removed rarely enough for that to be cheap.
      */
-    private Long2ObjectMap<CachedRegion> cachedRegions = new Long2ObjectOpenHashMap<>();
+    private volatile Long2ObjectMap<CachedRegion> cachedRegions = new Long2ObjectOpenHashMap<>();
 
     /**
      * The directory that the cached region files are saved to
@@ -61,21 +71,38 @@ public final class CachedWorld implements ICachedWorld, Helper {
     private final String directory;
 
     /**
-     * Queue of positions to pack. Refers to the toPackMap, in that every element of this queue will be a
-     * key in that map.
+     * Loads regions before they're needed, or null if this is a read only cache
      */
-    private final LinkedBlockingQueue<ChunkPos> toPackQueue = new LinkedBlockingQueue<>();
+    private final RegionPrefetcher prefetcher;
 
     /**
-     * All chunk positions pending packing. This map will be updated in-place if a new update to the chunk occurs
-     * while waiting in the queue for the packer thread to get to it.
+     * Regions that are being loaded from disk right now, so that nobody else loads them again at the same time
      */
-    private final Map<ChunkPos, LevelChunk> toPackMap = CacheBuilder.newBuilder().softValues().<ChunkPos, LevelChunk>build().asMap();
+    private final Long2ObjectMap<CompletableFuture<CachedRegion>> loading = new Long2ObjectOpenHashMap<>();
 
     private final DimensionType dimension;
 
+    /**
+     * Whether nothing is ever written to {@link #directory}, see {@link WorldData#openReadOnly}
+     */
+    private final boolean readOnly;
+
+    /**
+     * Told about every chunk the packer thread finishes, with its chunk coordinates. Null if nobody is listening
+     */
+    private volatile ChunkUpdateListener chunkUpdateListener;
+
     CachedWorld(Path directory, DimensionType dimension) {
-        if (!Files.exists(directory)) {
+        this(directory, dimension, false);
+    }
+
+    /**
+     * @param readOnly Whether to leave the directory exactly as it is. Without a client there's nothing to pack, and
+     *                 pruning needs to know where the player is, so a read only cache doesn't pack anything or start
+     *                 the periodic save either, and loads regions the first time they're asked for instead.
+     */
+    CachedWorld(Path directory, DimensionType dimension, boolean readOnly) {
+        if (!readOnly && !Files.exists(directory)) {
             try {
                 Files.createDirectories(directory);
             } catch (IOException ignored) {
@@ -83,8 +110,13 @@ public final class CachedWorld implements ICachedWorld, Helper {
         }
         this.directory = directory.toString();
         this.dimension = dimension;
+        this.readOnly = readOnly;
         System.out.println("Cached world directory: " + directory);
-        Baritone.getExecutor().execute(new PackerThread());
+        if (readOnly) {
+            this.prefetcher = null;
+            return;
+        }
+        this.prefetcher = new RegionPrefetcher(this);
         Baritone.getExecutor().execute(() -> {
             try {
                 Thread.sleep(30000);
@@ -103,8 +135,97 @@ public final class CachedWorld implements ICachedWorld, Helper {
 
     @Override
     public final void queueForPacking(LevelChunk chunk) {
-        if (toPackMap.put(chunk.getPos(), chunk) == null) {
-            toPackQueue.add(chunk.getPos());
+        if (!readOnly) {
+            ChunkPackerPool.INSTANCE.queue(this, chunk);
+        }
+    }
+
+    /**
+     * Queues some block changes to be applied to the cached chunk, along with any water next to them in the chunks
+     * around it, since whether that counts as flowing can look across the edge
+     *
+     * @param chunk   The chunk in the world, with the changes already made to it
+     * @param changes The blocks that changed
+     */
+    public final void applyBlockChanges(LevelChunk chunk, List<Pair<BlockPos, BlockState>> changes) {
+        if (readOnly) {
+            return;
+        }
+        ChunkPackerPool.INSTANCE.queueChanges(this, chunk, changes);
+        ChunkPos pos = chunk.getPos();
+        for (Pair<BlockPos, BlockState> change : changes) {
+            BlockPos changed = change.first();
+            for (Direction direction : Direction.Plane.HORIZONTAL) {
+                BlockPos neighbor = changed.relative(direction);
+                if (neighbor.getX() >> 4 == pos.x && neighbor.getZ() >> 4 == pos.z) {
+                    continue; // applying the change takes care of it
+                }
+                LevelChunk other = chunk.getLevel().getChunkSource().getChunk(neighbor.getX() >> 4, neighbor.getZ() >> 4, false);
+                if (other == null) {
+                    continue;
+                }
+                BlockState state = other.getBlockState(neighbor);
+                if (MovementHelper.isWater(state)) {
+                    // it didn't change, but what it's cached as might have
+                    ChunkPackerPool.INSTANCE.queueChanges(this, other, Collections.singletonList(new Pair<>(neighbor, state)));
+                }
+            }
+        }
+    }
+
+    /**
+     * Called from the packer with the block changes queued for a chunk. If it isn't cached yet, it's packed instead.
+     */
+    void applyChanges(LevelChunk chunk, List<Pair<BlockPos, BlockState>> changes) {
+        ChunkPos pos = chunk.getPos();
+        CachedRegion region = getRegion(pos.x >> 5, pos.z >> 5);
+        CachedChunk cached = region == null ? null : region.getChunk(pos.x & 31, pos.z & 31);
+        if (cached == null || cached.height != dimension.height()) {
+            updateCachedChunk(ChunkPacker.pack(chunk));
+            return;
+        }
+        CachedChunk updated;
+        try {
+            updated = ChunkPacker.applyChanges(cached, chunk, changes);
+        } catch (Exception ex) {
+            ex.printStackTrace();
+            updated = ChunkPacker.pack(chunk);
+        }
+        updateCachedChunk(updated);
+    }
+
+    /**
+     * Tells the packer what to pack first
+     *
+     * @param player Where the player is
+     * @param path   The path they're on, or null
+     */
+    public final void setPackingFocus(BlockPos player, IPath path) {
+        if (!readOnly) {
+            ChunkPackerPool.INSTANCE.setFocus(player, path);
+        }
+    }
+
+    /**
+     * Tells the prefetcher which regions are about to be needed
+     *
+     * @param player    Where the player is
+     * @param path      The path they're on, or null
+     * @param bestSoFar The best path so far of the search that's running, or null
+     * @param goal      The goal, or null
+     */
+    public final void setPrefetchFocus(BlockPos player, IPath path, IPath bestSoFar, Goal goal) {
+        if (prefetcher != null) {
+            prefetcher.setFocus(player, path, bestSoFar, goal);
+        }
+    }
+
+    /**
+     * Stops loading regions ahead of time, until {@link #setPrefetchFocus} is called again
+     */
+    final void stopPrefetching() {
+        if (prefetcher != null) {
+            prefetcher.stop();
         }
     }
 
@@ -152,13 +273,53 @@ public final class CachedWorld implements ICachedWorld, Helper {
         return res;
     }
 
-    private void updateCachedChunk(CachedChunk chunk) {
+    @Override
+    public final ArrayList<BlockPos> getNearestLocationsOf(String block, int maximum, int threshold, BlockPos center, int radius, Predicate<BlockPos> filter) {
+        NearestPositions search = new NearestPositions(center, maximum, radius, filter);
+        List<long[]> regions = new ArrayList<>();
+        for (int regionX = (center.getX() - radius) >> 9; regionX <= (center.getX() + radius) >> 9; regionX++) {
+            for (int regionZ = (center.getZ() - radius) >> 9; regionZ <= (center.getZ() + radius) >> 9; regionZ++) {
+                long distSq = search.distanceSqToArea(regionX << 9, regionZ << 9, (regionX << 9) + 511, (regionZ << 9) + 511);
+                if (distSq <= search.bound()) {
+                    regions.add(new long[]{distSq, regionX, regionZ});
+                }
+            }
+        }
+        regions.sort(Comparator.comparingLong(region -> region[0]));
+        for (long[] region : regions) {
+            if (region[0] > search.bound()) {
+                break; // everything in the rest of them is too far to beat what's been found already
+            }
+            if (search.size() >= threshold) {
+                break;
+            }
+            CachedRegion cached = getOrCreateRegion((int) region[1], (int) region[2]);
+            if (cached != null) {
+                cached.findNearest(block, search);
+            }
+        }
+        return search.takeSorted();
+    }
+
+    void updateCachedChunk(CachedChunk chunk) {
         CachedRegion region = getOrCreateRegion(chunk.x >> 5, chunk.z >> 5);
         region.updateCachedChunk(chunk.x & 31, chunk.z & 31, chunk);
+        SectionVersions.columnChanged(chunk.x, chunk.z);
+        ChunkUpdateListener listener = chunkUpdateListener;
+        if (listener != null) {
+            listener.onChunkUpdated(chunk.x, chunk.z);
+        }
+    }
+
+    void setChunkUpdateListener(ChunkUpdateListener listener) {
+        this.chunkUpdateListener = listener;
     }
 
     @Override
     public final void save() {
+        if (readOnly) {
+            return;
+        }
         if (!Baritone.settings().chunkCaching.value) {
             System.out.println("Not saving to disk; chunk caching is disabled.");
             allRegions().forEach(region -> {
@@ -175,8 +336,11 @@ public final class CachedWorld implements ICachedWorld, Helper {
                 region.save(this.directory);
             }
         });
+        // saving stores everything that was written, so this is a good time to catch up
+        OffHeapChunkStore.INSTANCE.spillOverBudget();
         long now = System.nanoTime() / 1000000L;
         System.out.println("World save took " + (now - start) + "ms");
+        logDebug("Chunk packer: " + ChunkPackerPool.INSTANCE);
         prune();
     }
 
@@ -187,6 +351,7 @@ public final class CachedWorld implements ICachedWorld, Helper {
         if (!Baritone.settings().pruneRegionsFromRAM.value) {
             return;
         }
+        Long2ObjectMap<CachedRegion> pruned = new Long2ObjectOpenHashMap<>(cachedRegions);
         BlockPos pruneCenter = guessPosition();
         for (CachedRegion region : allRegions()) {
             if (region == null) {
@@ -197,9 +362,12 @@ public final class CachedWorld implements ICachedWorld, Helper {
             double dist = Math.sqrt(distX * distX + distZ * distZ);
             if (dist > 1024) {
                 logDebug("Deleting cached region from ram");
-                cachedRegions.remove(getRegionID(region.getX(), region.getZ()));
+                pruned.remove(getRegionID(region.getX(), region.getZ()));
+                SectionVersions.regionChanged(region.getX(), region.getZ());
+                region.releaseCompressed();
             }
         }
+        cachedRegions = pruned;
     }
 
     /**
@@ -231,7 +399,7 @@ public final class CachedWorld implements ICachedWorld, Helper {
         return new BlockPos((mostRecentlyModified.x << 4) + 8, 0, (mostRecentlyModified.z << 4) + 8);
     }
 
-    private synchronized List<CachedRegion> allRegions() {
+    private List<CachedRegion> allRegions() {
         return new ArrayList<>(this.cachedRegions.values());
     }
 
@@ -248,8 +416,13 @@ public final class CachedWorld implements ICachedWorld, Helper {
     }
 
     @Override
-    public final synchronized CachedRegion getRegion(int regionX, int regionZ) {
-        return cachedRegions.get(getRegionID(regionX, regionZ));
+    public final CachedRegion getRegion(int regionX, int regionZ) {
+        CachedRegion region = cachedRegions.get(getRegionID(regionX, regionZ));
+        if (region == null && readOnly && isRegionInWorld(regionX, regionZ)) {
+            // there's no prefetcher to load it ahead of time, so it's loaded the first time anything looks at it
+            return getOrCreateRegion(regionX, regionZ);
+        }
+        return region;
     }
 
     /**
@@ -260,12 +433,72 @@ public final class CachedWorld implements ICachedWorld, Helper {
      * @param regionZ The region Z coordinate
      * @return The region located at the specified coordinates
      */
-    private synchronized CachedRegion getOrCreateRegion(int regionX, int regionZ) {
-        return cachedRegions.computeIfAbsent(getRegionID(regionX, regionZ), id -> {
-            CachedRegion newRegion = new CachedRegion(regionX, regionZ, dimension);
-            newRegion.load(this.directory);
-            return newRegion;
-        });
+    private CachedRegion getOrCreateRegion(int regionX, int regionZ) {
+        long id = getRegionID(regionX, regionZ);
+        CachedRegion region = cachedRegions.get(id);
+        if (region != null) {
+            return region;
+        }
+        CompletableFuture<CachedRegion> loaded;
+        synchronized (this) {
+            region = cachedRegions.get(id);
+            if (region != null) {
+                return region;
+            }
+            loaded = loading.get(id);
+            if (loaded == null) {
+                loaded = new CompletableFuture<>();
+                loading.put(id, loaded);
+                region = new CachedRegion(regionX, regionZ, dimension, readOnly);
+            }
+        }
+        if (region == null) {
+            return loaded.join(); // someone else is already loading it
+        }
+        try {
+            // without holding the lock, so that nothing else using the cache has to wait for the disk
+            region.load(this.directory);
+        } finally {
+            synchronized (this) {
+                Long2ObjectMap<CachedRegion> added = new Long2ObjectOpenHashMap<>(cachedRegions);
+                added.put(id, region);
+                cachedRegions = added;
+                loading.remove(id);
+            }
+            SectionVersions.regionChanged(regionX, regionZ);
+            loaded.complete(region);
+        }
+        OffHeapChunkStore.INSTANCE.spillOverBudget();
+        return region;
+    }
+
+    /**
+     * @return Whether a region is in the world and neither loaded nor being loaded
+     */
+    final boolean needsPrefetch(int regionX, int regionZ) {
+        long id = getRegionID(regionX, regionZ);
+        if (!isRegionInWorld(regionX, regionZ) || cachedRegions.containsKey(id)) {
+            return false;
+        }
+        synchronized (this) {
+            return !loading.containsKey(id);
+        }
+    }
+
+    /**
+     * Loads a region from disk, if it isn't already loaded and there's a file for it
+     *
+     * @return False if there's no file for it
+     */
+    final boolean prefetchRegion(int regionX, int regionZ) {
+        if (!needsPrefetch(regionX, regionZ)) {
+            return true;
+        }
+        if (!Files.exists(CachedRegion.getRegionFile(Paths.get(directory), regionX, regionZ))) {
+            return false;
+        }
+        getOrCreateRegion(regionX, regionZ);
+        return true;
     }
 
     public void tryLoadFromDisk(int regionX, int regionZ) {
@@ -299,27 +532,9 @@ public final class CachedWorld implements ICachedWorld, Helper {
         return regionX <= REGION_MAX && regionX >= -REGION_MAX && regionZ <= REGION_MAX && regionZ >= -REGION_MAX;
     }
 
-    private class PackerThread implements Runnable {
+    @FunctionalInterface
+    interface ChunkUpdateListener {
 
-        public void run() {
-            while (true) {
-                try {
-                    ChunkPos pos = toPackQueue.take();
-                    LevelChunk chunk = toPackMap.remove(pos);
-                    if (toPackQueue.size() > Baritone.settings().chunkPackerQueueMaxSize.value) {
-                        continue;
-                    }
-                    CachedChunk cached = ChunkPacker.pack(chunk);
-                    CachedWorld.this.updateCachedChunk(cached);
-                    //System.out.println("Processed chunk at " + chunk.x + "," + chunk.z);
-                } catch (InterruptedException e) {
-                    e.printStackTrace();
-                    break;
-                } catch (Throwable th) {
-                    // in the case of an exception, keep consuming from the queue so as not to leak memory
-                    th.printStackTrace();
-                }
-            }
-        }
+        void onChunkUpdated(int chunkX, int chunkZ);
     }
 }
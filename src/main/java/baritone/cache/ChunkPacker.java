@@ -18,9 +18,12 @@
 package baritone.cache;
 
 import baritone.api.utils.BlockUtils;
+import baritone.api.utils.Pair;
 import baritone.pathing.movement.MovementHelper;
+import baritone.utils.accessor.IPalettedContainer;
 import baritone.utils.pathing.PathingBlockType;
 import net.minecraft.core.BlockPos;
+import net.minecraft.util.BitStorage;
 import net.minecraft.world.level.block.AirBlock;
 import net.minecraft.world.level.block.Block;
 import net.minecraft.world.level.block.Blocks;
@@ -30,7 +33,9 @@ import net.minecraft.world.level.block.TallGrassBlock;
 import net.minecraft.world.level.block.state.BlockState;
 import net.minecraft.world.level.chunk.LevelChunk;
 import net.minecraft.world.level.chunk.LevelChunkSection;
+import net.minecraft.world.level.chunk.Palette;
 import net.minecraft.world.level.chunk.PalettedContainer;
+import net.minecraft.world.level.chunk.SingleValuePalette;
 import net.minecraft.world.level.dimension.BuiltinDimensionTypes;
 import net.minecraft.world.level.dimension.DimensionType;
 import net.minecraft.world.phys.Vec3;
@@ -45,6 +50,8 @@ import static baritone.utils.BlockStateInterface.getFromChunk;
  */
 public final class ChunkPacker {
 
+    private static final int[][] HORIZONTAL_OFFSETS = {{1, 0}, {-1, 0}, {0, 1}, {0, -1}};
+
     private ChunkPacker() {}
 
     public static CachedChunk pack(LevelChunk chunk) {
@@ -52,7 +59,9 @@ public final class ChunkPacker {
 
         Map<String, List<BlockPos>> specialBlocks = new HashMap<>();
         final int height = chunk.getLevel().dimensionType().height();
-        BitSet bitSet = new BitSet(CachedChunk.size(height));
+        PackedBlockTypes types = new PackedBlockTypes(height);
+        long[] section = new long[PackedBlockTypes.WORDS_PER_SECTION];
+        int[] ids = new int[4096];
         try {
             LevelChunkSection[] chunkInternalStorageArray = chunk.getSections();
             for (int y0 = 0; y0 < height / 16; y0++) {
@@ -63,32 +72,17 @@ public final class ChunkPacker {
                     // the first 4 extended blocks storages will be full
                     // and the remaining 12 will be null
 
-                    // since the index into the bitset is calculated from the x y and z
+                    // since the index into the packed data is calculated from the x y and z
                     // and doesn't function as an append, we can entirely skip the scanning
-                    // since a bitset is initialized to all zero, and air is saved as zeros
+                    // since it is initialized to all zero, and air is saved as zeros
                     continue;
                 }
-                PalettedContainer<BlockState> bsc = extendedblockstorage.getStates();
-                int yReal = y0 << 4;
-                // the mapping of BlockStateContainer.getIndex from xyz to index is y << 8 | z << 4 | x;
-                // for better cache locality, iterate in that order
-                for (int y1 = 0; y1 < 16; y1++) {
-                    int y = y1 | yReal;
-                    for (int z = 0; z < 16; z++) {
-                        for (int x = 0; x < 16; x++) {
-                            int index = CachedChunk.getPositionIndex(x, y, z);
-                            BlockState state = bsc.get(x, y1, z);
-                            boolean[] bits = getPathingBlockType(state, chunk, x, y, z).getBits();
-                            bitSet.set(index, bits[0]);
-                            bitSet.set(index + 1, bits[1]);
-                            Block block = state.getBlock();
-                            if (CachedChunk.BLOCKS_TO_KEEP_TRACK_OF.contains(block)) {
-                                String name = BlockUtils.blockToString(block);
-                                specialBlocks.computeIfAbsent(name, b -> new ArrayList<>()).add(new BlockPos(x, y+chunk.getMinBuildHeight(), z));
-                            }
-                        }
-                    }
+                if (extendedblockstorage.hasOnlyAir()) {
+                    continue;
                 }
+                Arrays.fill(section, 0L);
+                packSection(chunk, extendedblockstorage.getStates(), y0 << 4, section, ids, specialBlocks);
+                types.setSection(y0, section);
             }
         } catch (Exception e) {
             e.printStackTrace();
@@ -98,26 +92,166 @@ public final class ChunkPacker {
         BlockState[] blocks = new BlockState[256];
 
         // get top block in columns
-        // @formatter:off
+        int[] heights = new int[256];
+        types.highestNonAir(heights);
         for (int z = 0; z < 16; z++) {
-            https://www.ibm.com/developerworks/library/j-perry-writing-good-java-code/index.html
             for (int x = 0; x < 16; x++) {
-                for (int y = height - 1; y >= 0; y--) {
-                    int index = CachedChunk.getPositionIndex(x, y, z);
-                    if (bitSet.get(index) || bitSet.get(index + 1)) {
-                        blocks[z << 4 | x] = getFromChunk(chunk, x, y, z);
-                        continue https;
+                int y = heights[z << 4 | x];
+                blocks[z << 4 | x] = y == -1 ? Blocks.AIR.defaultBlockState() : getFromChunk(chunk, x, y, z);
+            }
+        }
+        return new CachedChunk(chunk.getPos().x, chunk.getPos().z, height, types, blocks, specialBlocks, System.currentTimeMillis());
+    }
+
+    /**
+     * Applies some block changes to a chunk that's already packed, instead of packing the whole thing again
+     *
+     * @param cached  The chunk as it's cached now. This isn't changed, since other threads might be reading it.
+     * @param chunk   The chunk in the world, with the changes already made to it
+     * @param changes The blocks that changed, with world coordinates
+     * @return The cached chunk with the changes applied
+     */
+    public static CachedChunk applyChanges(CachedChunk cached, LevelChunk chunk, List<Pair<BlockPos, BlockState>> changes) {
+        int minY = chunk.getMinBuildHeight();
+        PackedBlockTypes types = cached.copyTypes();
+        BlockState[] overview = cached.getOverview().clone();
+        Map<String, List<BlockPos>> specialBlocks = new HashMap<>();
+        cached.getRelativeBlocks().forEach((name, positions) -> specialBlocks.put(name, new ArrayList<>(positions)));
+        boolean[] changedColumns = new boolean[256];
+        for (Pair<BlockPos, BlockState> change : changes) {
+            BlockPos pos = change.first();
+            int x = pos.getX() & 15;
+            int y = pos.getY() - minY;
+            int z = pos.getZ() & 15;
+            if (pos.getX() >> 4 != cached.x || pos.getZ() >> 4 != cached.z || y < 0 || y >= cached.height) {
+                continue;
+            }
+            BlockState state = change.second();
+            types.set(x, y, z, getPathingBlockType(state, chunk, x, y, z));
+            // whether the water next to this counts as flowing could have changed too
+            for (int[] offset : HORIZONTAL_OFFSETS) {
+                int nx = x + offset[0];
+                int nz = z + offset[1];
+                if (nx < 0 || nx > 15 || nz < 0 || nz > 15) {
+                    continue;
+                }
+                BlockState neighbor = getFromChunk(chunk, nx, y, nz);
+                if (MovementHelper.isWater(neighbor)) {
+                    types.set(nx, y, nz, getPathingBlockType(neighbor, chunk, nx, y, nz));
+                }
+            }
+            BlockPos relative = new BlockPos(x, pos.getY(), z);
+            for (List<BlockPos> positions : specialBlocks.values()) {
+                positions.remove(relative);
+            }
+            Block block = state.getBlock();
+            if (CachedChunk.BLOCKS_TO_KEEP_TRACK_OF.contains(block)) {
+                specialBlocks.computeIfAbsent(BlockUtils.blockToString(block), b -> new ArrayList<>()).add(relative);
+            }
+            changedColumns[z << 4 | x] = true;
+        }
+        specialBlocks.values().removeIf(List::isEmpty);
+        for (int i = 0; i < 256; i++) {
+            if (changedColumns[i]) {
+                int y = types.highestNonAir(i & 15, i >> 4);
+                overview[i] = y == -1 ? Blocks.AIR.defaultBlockState() : getFromChunk(chunk, i & 15, y, i >> 4);
+            }
+        }
+        return new CachedChunk(cached.x, cached.z, cached.height, types, overview, specialBlocks, System.currentTimeMillis());
+    }
+
+    /**
+     * Packs one 16 high section. Each palette entry is only looked at the first time it comes up, so for most of the
+     * section all that's left is reading the palette ids. Only water needs to look at what's around each block.
+     *
+     * @param yReal   The y of the bottom of the section, relative to the bottom of the world
+     * @param section Where to put the packed section, all zeros to start with
+     * @param ids     Scratch space for the palette id of every block in the section
+     */
+    private static void packSection(LevelChunk chunk, PalettedContainer<BlockState> bsc, int yReal, long[] section, int[] ids, Map<String, List<BlockPos>> specialBlocks) {
+        Palette<BlockState> palette = ((IPalettedContainer<BlockState>) bsc).getPalette();
+        BitStorage storage = ((IPalettedContainer<BlockState>) bsc).getStorage();
+        if (storage == null) {
+            packSectionSlowly(chunk, bsc, yReal, section, specialBlocks);
+            return;
+        }
+        if (palette instanceof SingleValuePalette) {
+            BlockState state = palette.valueFor(0);
+            PathingBlockType type = getPathingBlockType(state);
+            if (type != null && !CachedChunk.BLOCKS_TO_KEEP_TRACK_OF.contains(state.getBlock())) {
+                // the whole section is the same, and it doesn't matter where in it each block is
+                PackedBlockTypes.fill(section, type);
+                return;
+            }
+        }
+        // the mapping of BlockStateContainer.getIndex from xyz to index is y << 8 | z << 4 | x;
+        int bits = storage.getBits();
+        if (bits == 0) {
+            Arrays.fill(ids, 0);
+        } else {
+            long[] raw = storage.getRaw();
+            long maxEntryValue = (1L << bits) - 1L;
+            for (int i = 0, idx = 0; i < raw.length && idx < ids.length; ++i) {
+                long l = raw[i];
+                for (int offset = 0; offset <= (64 - bits) && idx < ids.length; offset += bits, ++idx) {
+                    ids[idx] = (int) ((l >> offset) & maxEntryValue);
+                }
+            }
+        }
+        int paletteSize = palette.getSize();
+        BlockState[] states = new BlockState[paletteSize];
+        // null for water, since that depends on what's around it
+        PathingBlockType[] types = new PathingBlockType[paletteSize];
+        String[] specialNames = new String[paletteSize];
+        for (int idx = 0; idx < ids.length; idx++) {
+            int id = ids[idx];
+            BlockState state = states[id];
+            if (state == null) {
+                state = palette.valueFor(id);
+                states[id] = state;
+                types[id] = getPathingBlockType(state);
+                Block block = state.getBlock();
+                if (CachedChunk.BLOCKS_TO_KEEP_TRACK_OF.contains(block)) {
+                    specialNames[id] = BlockUtils.blockToString(block);
+                }
+            }
+            int x = idx & 15;
+            int z = (idx >> 4) & 15;
+            int y1 = idx >> 8;
+            PathingBlockType type = types[id];
+            if (type == null) {
+                type = getPathingBlockType(state, chunk, x, y1 | yReal, z);
+            }
+            PackedBlockTypes.set(section, x, y1, z, type);
+            if (specialNames[id] != null) {
+                specialBlocks.computeIfAbsent(specialNames[id], b -> new ArrayList<>()).add(new BlockPos(x, (y1 | yReal) + chunk.getMinBuildHeight(), z));
+            }
+        }
+    }
+
+    /**
+     * For containers we can't read the palette of, a block at a time
+     */
+    private static void packSectionSlowly(LevelChunk chunk, PalettedContainer<BlockState> bsc, int yReal, long[] section, Map<String, List<BlockPos>> specialBlocks) {
+        // the mapping of BlockStateContainer.getIndex from xyz to index is y << 8 | z << 4 | x;
+        // for better cache locality, iterate in that order
+        for (int y1 = 0; y1 < 16; y1++) {
+            int y = y1 | yReal;
+            for (int z = 0; z < 16; z++) {
+                for (int x = 0; x < 16; x++) {
+                    BlockState state = bsc.get(x, y1, z);
+                    PackedBlockTypes.set(section, x, y1, z, getPathingBlockType(state, chunk, x, y, z));
+                    Block block = state.getBlock();
+                    if (CachedChunk.BLOCKS_TO_KEEP_TRACK_OF.contains(block)) {
+                        String name = BlockUtils.blockToString(block);
+                        specialBlocks.computeIfAbsent(name, b -> new ArrayList<>()).add(new BlockPos(x, y+chunk.getMinBuildHeight(), z));
                     }
                 }
-                blocks[z << 4 | x] = Blocks.AIR.defaultBlockState();
             }
         }
-        // @formatter:on
-        return new CachedChunk(chunk.getPos().x, chunk.getPos().z, height, bitSet, blocks, specialBlocks, System.currentTimeMillis());
     }
 
     private static PathingBlockType getPathingBlockType(BlockState state, LevelChunk chunk, int x, int y, int z) {
-        Block block = state.getBlock();
         if (MovementHelper.isWater(state)) {
             // only water source blocks are plausibly usable, flowing water should be avoid
             // FLOWING_WATER is a waterfall, it doesn't really matter and caching it as AVOID just makes it look wrong
@@ -142,7 +276,17 @@ public final class ChunkPacker {
             }
             return PathingBlockType.WATER;
         }
+        return getPathingBlockType(state);
+    }
 
+    /**
+     * @return The type of this block wherever it is, or null if it's water, since that depends on what's around it
+     */
+    private static PathingBlockType getPathingBlockType(BlockState state) {
+        Block block = state.getBlock();
+        if (MovementHelper.isWater(state)) {
+            return null;
+        }
         if (MovementHelper.avoidWalkingInto(state) || MovementHelper.isBottomSlab(state)) {
             return PathingBlockType.AVOID;
         }
@@ -0,0 +1,378 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Baritone.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package baritone.cache;
+
+import baritone.Baritone;
+import baritone.api.pathing.calc.IPath;
+import baritone.api.utils.BetterBlockPos;
+import baritone.api.utils.Pair;
+import net.minecraft.core.BlockPos;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.chunk.LevelChunk;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Packs chunks on a few threads, nearest to the player and their path first. There's only one of these, shared by
+ * every world, so its threads are only ever started once and closing a world doesn't leave any behind.
+ * <p>
+ * Queueing a chunk that's already waiting just replaces it, so each chunk is only packed once no matter how many
+ * times it changed while it waited. Block changes are queued the same way, and all of the ones for a chunk are applied
+ * to it at once, unless the whole chunk is waiting to be packed anyway. Nothing for a chunk is picked up by another
+ * thread until whatever is being done to it already is finished, so everything happens to each chunk in the order it
+ * was queued, and an older version can never overwrite a newer one in the cache.
+ * <p>
+ * Waiting chunks are kept sorted by how far they are from the focus, which is only worked out again when the player
+ * moves into another chunk or gets a new path, so picking the next one is cheap.
+ * <p>
+ * When more than {@link baritone.api.Settings#chunkPackerQueueMaxSize} chunks are waiting, the farthest ones are
+ * dropped, since they're the least likely to matter. A dropped chunk that's still loaded is queued again whenever it
+ * changes or unloads. One that has already unloaded is lost, and the cache keeps whatever it had of it before, so
+ * those are counted separately in {@link #lost()}.
+ */
+final class ChunkPackerPool {
+
+    static final ChunkPackerPool INSTANCE = new ChunkPackerPool();
+
+    /**
+     * At most this many chunks of the path are used to decide what's near, so that queueing a chunk stays cheap
+     */
+    private static final int MAX_PATH_FOCUS = 32;
+
+    /**
+     * Chunks waiting to be packed, by where they go
+     */
+    private final Map<Target, Entry> pending = new HashMap<>();
+
+    /**
+     * The same chunks, nearest first
+     */
+    private final TreeSet<Entry> queue = new TreeSet<>(Comparator.comparingLong((Entry entry) -> entry.distance).thenComparingLong(entry -> entry.order));
+
+    /**
+     * Chunks that a thread is packing right now
+     */
+    private final Set<Target> inProgress = new HashSet<>();
+
+    /**
+     * The chunks to pack near to, the player's first
+     */
+    private int[] focusX = new int[0];
+    private int[] focusZ = new int[0];
+
+    /**
+     * The path {@link #focusX} was last made from, so it's only redone when the path changes
+     */
+    private IPath focusPath;
+
+    /**
+     * Counts up with every chunk queued, so that entries at the same distance are still different
+     */
+    private long order;
+
+    private boolean started;
+
+    private final AtomicLong packed = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong lost = new AtomicLong();
+    private final AtomicLong packNanos = new AtomicLong();
+
+    private ChunkPackerPool() {}
+
+    /**
+     * @param world Where to put the chunk once it's packed
+     * @param chunk The chunk
+     */
+    synchronized void queue(CachedWorld world, LevelChunk chunk) {
+        ChunkPos pos = chunk.getPos();
+        Target target = new Target(world, pos.x, pos.z);
+        Entry old = pending.remove(target);
+        if (old != null) {
+            queue.remove(old); // whether it was the whole chunk or some changes to it, packing it covers them
+        }
+        add(new Entry(target, chunk, null, distance(pos.x, pos.z), order++));
+    }
+
+    /**
+     * @param world   Where the chunk is cached
+     * @param chunk   The chunk in the world, with the changes already made to it
+     * @param changes The blocks that changed, with world coordinates
+     */
+    synchronized void queueChanges(CachedWorld world, LevelChunk chunk, List<Pair<BlockPos, BlockState>> changes) {
+        ChunkPos pos = chunk.getPos();
+        Target target = new Target(world, pos.x, pos.z);
+        Entry waiting = pending.get(target);
+        if (waiting != null) {
+            if (waiting.changes != null) {
+                waiting.changes.addAll(changes);
+            } // otherwise the whole chunk is packed later on, with these changes in it
+            return;
+        }
+        add(new Entry(target, chunk, new ArrayList<>(changes), distance(pos.x, pos.z), order++));
+    }
+
+    private void add(Entry entry) {
+        if (!started) {
+            started = true;
+            for (int i = Math.max(1, Baritone.settings().chunkPackerThreads.value); i > 0; i--) {
+                Baritone.getExecutor().execute(this::run);
+            }
+        }
+        pending.put(entry.target, entry);
+        queue.add(entry);
+        int max = Baritone.settings().chunkPackerQueueMaxSize.value;
+        while (queue.size() > max) {
+            Entry farthest = queue.pollLast();
+            pending.remove(farthest.target);
+            dropped.incrementAndGet();
+            if (!isLoaded(farthest.chunk)) {
+                lost.incrementAndGet();
+            }
+        }
+        notifyAll();
+    }
+
+    private static boolean isLoaded(LevelChunk chunk) {
+        ChunkPos pos = chunk.getPos();
+        return chunk.getLevel().getChunkSource().getChunk(pos.x, pos.z, false) == chunk;
+    }
+
+    /**
+     * @return How many chunks are waiting to be packed
+     */
+    synchronized int queueDepth() {
+        return pending.size();
+    }
+
+    /**
+     * @return How many chunks have been dropped because the queue was full, including {@link #lost()} ones
+     */
+    long dropped() {
+        return dropped.get();
+    }
+
+    /**
+     * @return How many of the {@link #dropped()} chunks had already unloaded, so won't be queued again
+     */
+    long lost() {
+        return lost.get();
+    }
+
+    /**
+     * @return How many chunks have been packed, or had changes applied
+     */
+    long packed() {
+        return packed.get();
+    }
+
+    /**
+     * @return How long it's taken to pack a chunk or apply changes to it, and put it in the cache, on average
+     */
+    double averagePackMillis() {
+        long count = packed.get();
+        return count == 0 ? 0 : packNanos.get() / 1e6 / count;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%d chunks waiting, %d packed in %.2fms each on average, %d dropped of which %d were lost",
+                queueDepth(), packed(), averagePackMillis(), dropped(), lost());
+    }
+
+    /**
+     * @param player Where the player is
+     * @param path   The path they're on, or null
+     */
+    void setFocus(BlockPos player, IPath path) {
+        int playerX = player.getX() >> 4;
+        int playerZ = player.getZ() >> 4;
+        int[] x;
+        int[] z;
+        synchronized (this) {
+            if (path == focusPath && focusX.length > 0) {
+                if (focusX[0] == playerX && focusZ[0] == playerZ) {
+                    return; // nothing changed, which is almost every tick
+                }
+                x = focusX.clone();
+                z = focusZ.clone();
+            } else {
+                x = null;
+                z = null;
+            }
+        }
+        if (x == null) {
+            // a new path, which could be long, so this is done without holding the lock
+            Set<Long> chunks = new LinkedHashSet<>();
+            if (path != null) {
+                List<BetterBlockPos> positions = path.positions();
+                for (BetterBlockPos pos : positions) {
+                    chunks.add(ChunkPos.asLong(pos.x >> 4, pos.z >> 4));
+                }
+            }
+            Long[] pathChunks = chunks.toArray(new Long[0]);
+            int stride = Math.max(1, (pathChunks.length + MAX_PATH_FOCUS - 1) / MAX_PATH_FOCUS);
+            int count = 1 + (pathChunks.length + stride - 1) / stride;
+            x = new int[count];
+            z = new int[count];
+            for (int i = 1; i < count; i++) {
+                long chunk = pathChunks[(i - 1) * stride];
+                x[i] = ChunkPos.getX(chunk);
+                z[i] = ChunkPos.getZ(chunk);
+            }
+        }
+        x[0] = playerX;
+        z[0] = playerZ;
+        synchronized (this) {
+            focusX = x;
+            focusZ = z;
+            focusPath = path;
+            queue.clear();
+            for (Entry entry : pending.values()) {
+                entry.distance = distance(entry.target.x, entry.target.z);
+                queue.add(entry);
+            }
+        }
+    }
+
+    private void run() {
+        while (true) {
+            Entry entry;
+            synchronized (this) {
+                try {
+                    while ((entry = nearest()) == null) {
+                        wait();
+                    }
+                } catch (InterruptedException e) {
+                    e.printStackTrace();
+                    return;
+                }
+                queue.remove(entry);
+                pending.remove(entry.target);
+                inProgress.add(entry.target);
+            }
+            try {
+                long start = System.nanoTime();
+                if (entry.changes == null) {
+                    entry.target.world.updateCachedChunk(ChunkPacker.pack(entry.chunk));
+                } else {
+                    entry.target.world.applyChanges(entry.chunk, entry.changes);
+                }
+                packNanos.addAndGet(System.nanoTime() - start);
+                packed.incrementAndGet();
+            } catch (Throwable th) {
+                // in the case of an exception, keep consuming from the queue so as not to leak memory
+                th.printStackTrace();
+            } finally {
+                synchronized (this) {
+                    inProgress.remove(entry.target);
+                    // someone else might have been waiting on this one
+                    notifyAll();
+                }
+            }
+        }
+    }
+
+    /**
+     * @return The nearest chunk that isn't already being packed, or null if there isn't one
+     */
+    private Entry nearest() {
+        for (Entry entry : queue) {
+            if (!inProgress.contains(entry.target)) {
+                return entry;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @return The squared distance in chunks to the nearest focus
+     */
+    private long distance(int chunkX, int chunkZ) {
+        long best = focusX.length == 0 ? 0 : Long.MAX_VALUE;
+        for (int i = 0; i < focusX.length; i++) {
+            long dx = chunkX - focusX[i];
+            long dz = chunkZ - focusZ[i];
+            best = Math.min(best, dx * dx + dz * dz);
+        }
+        return best;
+    }
+
+    /**
+     * A chunk in a world
+     */
+    private static final class Target {
+
+        private final CachedWorld world;
+        private final int x;
+        private final int z;
+
+        private Target(CachedWorld world, int x, int z) {
+            this.world = world;
+            this.x = x;
+            this.z = z;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Target)) {
+                return false;
+            }
+            Target other = (Target) o;
+            return world == other.world && x == other.x && z == other.z;
+        }
+
+        @Override
+        public int hashCode() {
+            return (System.identityHashCode(world) * 31 + x) * 31 + z;
+        }
+    }
+
+    private static final class Entry {
+
+        private final Target target;
+
+        /**
+         * Strong, since chunks that were queued because they unloaded aren't held by anything else, and would never
+         * be packed if they could be collected. The queue's maximum size is what limits how many are held.
+         */
+        private final LevelChunk chunk;
+
+        /**
+         * The blocks that changed, or null if the whole chunk is to be packed. Only used while holding the pool's lock
+         * until this is taken out of the queue.
+         */
+        private final List<Pair<BlockPos, BlockState>> changes;
+
+        private final long order;
+
+        /**
+         * From the focus when this was queued or the focus last changed, only changed while it's out of the queue
+         */
+        private long distance;
+
+        private Entry(Target target, LevelChunk chunk, List<Pair<BlockPos, BlockState>> changes, long distance, long order) {
+            this.target = target;
+            this.chunk = chunk;
+            this.changes = changes;
+            this.distance = distance;
+            this.order = order;
+        }
+    }
+}
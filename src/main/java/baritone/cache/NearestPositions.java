@@ -0,0 +1,156 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Baritone.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package baritone.cache;
+
+import net.minecraft.core.BlockPos;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.function.Predicate;
+
+/**
+ * The nearest positions to a center found so far that pass a filter, up to a maximum count and within a maximum
+ * distance.
+ * <p>
+ * Kept as a max heap on distance over packed positions, so that the farthest one is the one to replace, and so
+ * nothing is allocated per position that's looked at.
+ */
+final class NearestPositions {
+
+    private final int centerX;
+    private final int centerY;
+    private final int centerZ;
+    private final long maxDistanceSq;
+    private final Predicate<BlockPos> filter;
+
+    private final long[] positions;
+    private final long[] distancesSq;
+    private int size;
+
+    /**
+     * @param count  How many positions to keep
+     * @param radius How far from the center positions can be
+     * @param filter Which positions to keep, only checked for ones that are near enough to get in
+     */
+    NearestPositions(BlockPos center, int count, int radius, Predicate<BlockPos> filter) {
+        this.centerX = center.getX();
+        this.centerY = center.getY();
+        this.centerZ = center.getZ();
+        this.maxDistanceSq = (long) radius * radius;
+        this.filter = filter;
+        this.positions = new long[count];
+        this.distancesSq = new long[count];
+    }
+
+    /**
+     * @return How far something can be, squared, and still possibly get in, or -1 if nothing can
+     */
+    long bound() {
+        if (positions.length == 0) {
+            return -1;
+        }
+        return size == positions.length ? distancesSq[0] : maxDistanceSq;
+    }
+
+    /**
+     * @return How many positions have been found so far
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * @return The squared horizontal distance from the center to the nearest point in the area
+     */
+    long distanceSqToArea(int minX, int minZ, int maxX, int maxZ) {
+        long dx = Math.max(0, Math.max(minX - centerX, centerX - maxX));
+        long dz = Math.max(0, Math.max(minZ - centerZ, centerZ - maxZ));
+        return dx * dx + dz * dz;
+    }
+
+    /**
+     * @param pos {@link BlockPos#asLong()} of the position
+     */
+    void offer(long pos) {
+        long dx = BlockPos.getX(pos) - centerX;
+        long dy = BlockPos.getY(pos) - centerY;
+        long dz = BlockPos.getZ(pos) - centerZ;
+        long distSq = dx * dx + dy * dy + dz * dz;
+        if (distSq > bound() || !filter.test(BlockPos.of(pos))) {
+            return;
+        }
+        if (size < positions.length) {
+            // add at the bottom and sift up
+            int i = size++;
+            while (i > 0) {
+                int parent = (i - 1) >> 1;
+                if (distancesSq[parent] >= distSq) {
+                    break;
+                }
+                positions[i] = positions[parent];
+                distancesSq[i] = distancesSq[parent];
+                i = parent;
+            }
+            positions[i] = pos;
+            distancesSq[i] = distSq;
+            return;
+        }
+        // replace the farthest
+        siftDown(pos, distSq);
+    }
+
+    /**
+     * Puts this at the top of the heap, in place of whatever was there, and moves it down to where it belongs
+     */
+    private void siftDown(long pos, long distSq) {
+        int i = 0;
+        while (true) {
+            int child = 2 * i + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && distancesSq[child + 1] > distancesSq[child]) {
+                child++;
+            }
+            if (distancesSq[child] <= distSq) {
+                break;
+            }
+            positions[i] = positions[child];
+            distancesSq[i] = distancesSq[child];
+            i = child;
+        }
+        positions[i] = pos;
+        distancesSq[i] = distSq;
+    }
+
+    /**
+     * Empties this, so it can only be called once
+     *
+     * @return The positions, nearest first
+     */
+    ArrayList<BlockPos> takeSorted() {
+        BlockPos[] sorted = new BlockPos[size];
+        // taking the farthest off the top each time fills it in from the back
+        while (size > 0) {
+            sorted[size - 1] = BlockPos.of(positions[0]);
+            size--;
+            siftDown(positions[size], distancesSq[size]);
+        }
+        return new ArrayList<>(Arrays.asList(sorted));
+    }
+}
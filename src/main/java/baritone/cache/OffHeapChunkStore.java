@@ -0,0 +1,159 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Baritone.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package baritone.cache;
+
+import baritone.Baritone;
+
+import java.lang.ref.WeakReference;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+/**
+ * Holds the compressed chunks of every loaded region, either on the heap or, with
+ * {@link baritone.api.Settings#cachedChunksOffHeap}, in direct buffers outside of it.
+ * <p>
+ * Off heap, there's a budget shared by every region. Once that's used up, the oldest payloads are spilled: the region
+ * forgets them, and reads them back out of its region file if they're needed again. Only payloads that are exactly
+ * what's in the region file are ever stored here, so nothing is lost by that.
+ */
+final class OffHeapChunkStore {
+
+    static final OffHeapChunkStore INSTANCE = new OffHeapChunkStore();
+
+    /**
+     * Everything stored off heap, oldest first. Payloads that have been released stay in here with no buffer until
+     * there are enough of them to be worth clearing out.
+     */
+    private final ArrayDeque<Entry> entries = new ArrayDeque<>();
+
+    /**
+     * The entry of each buffer that's still counted, by identity since buffers compare by their contents
+     */
+    private final Map<ByteBuffer, Entry> byBuffer = new IdentityHashMap<>();
+
+    /**
+     * How many of {@link #entries} have been released
+     */
+    private int released;
+
+    /**
+     * The total size of every buffer in {@link #byBuffer}
+     */
+    private long used;
+
+    private OffHeapChunkStore() {}
+
+    /**
+     * @param region The region the chunk is in, to tell if it needs to be spilled
+     * @param data   The compressed chunk, exactly as it is in the region file
+     * @return The buffer to keep the chunk in. This can go over the budget until {@link #spillOverBudget()} is next
+     * called.
+     */
+    ByteBuffer store(CachedRegion region, int chunkX, int chunkZ, byte[] data) {
+        if (!Baritone.settings().cachedChunksOffHeap.value) {
+            return ByteBuffer.wrap(data);
+        }
+        ByteBuffer buffer = ByteBuffer.allocateDirect(data.length);
+        buffer.put(data).flip();
+        Entry entry = new Entry(region, chunkX, chunkZ, buffer);
+        synchronized (this) {
+            entries.add(entry);
+            byBuffer.put(buffer, entry);
+            used += buffer.capacity();
+        }
+        return buffer;
+    }
+
+    /**
+     * Stops counting a payload that its region has replaced or dropped. Nothing happens if it was on the heap, or has
+     * already been spilled.
+     */
+    synchronized void release(ByteBuffer buffer) {
+        Entry entry = byBuffer.remove(buffer);
+        if (entry == null) {
+            return;
+        }
+        entry.buffer = null;
+        used -= buffer.capacity();
+        if (++released > entries.size() / 2) {
+            entries.removeIf(e -> e.buffer == null);
+            released = 0;
+        }
+    }
+
+    /**
+     * @return How many bytes are off heap, not counting ones that have been released and are waiting to be freed
+     */
+    synchronized long used() {
+        return used;
+    }
+
+    /**
+     * Spills the oldest payloads until everything fits in the budget again. This takes the lock of each region it
+     * spills from, so it mustn't be called while holding the lock of any region.
+     */
+    void spillOverBudget() {
+        long budget = Baritone.settings().cachedChunksOffHeapBudgetMB.value * 1024L * 1024L;
+        while (true) {
+            Entry entry;
+            ByteBuffer buffer;
+            synchronized (this) {
+                if (used <= budget || (entry = entries.poll()) == null) {
+                    return;
+                }
+                buffer = entry.buffer;
+                if (buffer == null) {
+                    released--;
+                    continue;
+                }
+                byBuffer.remove(buffer);
+                entry.buffer = null;
+                used -= buffer.capacity();
+            }
+            // once the region lets go of it too, it's freed whenever the buffer is garbage collected
+            CachedRegion region = entry.region.get();
+            if (region != null) {
+                region.spill(entry.chunkX, entry.chunkZ, buffer);
+            }
+        }
+    }
+
+    private static final class Entry {
+
+        /**
+         * Weak, so that a region that's no longer used isn't kept around just because this hasn't been spilled yet
+         */
+        private final WeakReference<CachedRegion> region;
+        private final int chunkX;
+        private final int chunkZ;
+
+        /**
+         * The payload, or null once it's been released or spilled
+         */
+        private ByteBuffer buffer;
+
+        private Entry(CachedRegion region, int chunkX, int chunkZ, ByteBuffer buffer) {
+            this.region = new WeakReference<>(region);
+            this.chunkX = chunkX;
+            this.chunkZ = chunkZ;
+            this.buffer = buffer;
+        }
+    }
+}
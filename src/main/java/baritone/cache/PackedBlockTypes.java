@@ -0,0 +1,226 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Baritone.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package baritone.cache;
+
+import baritone.utils.pathing.PathingBlockType;
+
+import java.util.Arrays;
+
+/**
+ * The {@link PathingBlockType} of every block in a chunk, 2 bits each, packed into longs.
+ * <p>
+ * The bit layout is the same as the {@link java.util.BitSet} this replaced: the type of a block is at bit
+ * {@link CachedChunk#getPositionIndex(int, int, int)}, with {@code bits[0]} of the type there and {@code bits[1]}
+ * right after it. That makes each y level 8 longs, each holding two rows of 16 blocks, and each 16 high section 128
+ * longs. It also means {@link #toByteArray()} is exactly what {@link java.util.BitSet#toByteArray()} used to give.
+ */
+public final class PackedBlockTypes {
+
+    public static final int WORDS_PER_LEVEL = 8;
+
+    public static final int WORDS_PER_SECTION = 16 * WORDS_PER_LEVEL;
+
+    /**
+     * Each 2 bit value, as it's stored, to its type. These aren't the same as the type's own bits because the first
+     * of those is the lower bit here.
+     */
+    private static final PathingBlockType[] TYPES = {
+            PathingBlockType.AIR,
+            PathingBlockType.AVOID,
+            PathingBlockType.WATER,
+            PathingBlockType.SOLID
+    };
+
+    /**
+     * Every other bit, so the low bit of each block
+     */
+    private static final long LOW_BITS = 0x5555555555555555L;
+
+    public final int height;
+
+    private final long[] words;
+
+    public PackedBlockTypes(int height) {
+        this(height, new long[height * WORDS_PER_LEVEL]);
+    }
+
+    private PackedBlockTypes(int height, long[] words) {
+        this.height = height;
+        this.words = words;
+    }
+
+    public PackedBlockTypes copy() {
+        return new PackedBlockTypes(height, words.clone());
+    }
+
+    /**
+     * @param height The height of the world
+     * @param bytes  The data, as given by {@link #toByteArray()}
+     * @throws IllegalArgumentException if there's more data than fits in a chunk of this height
+     */
+    public static PackedBlockTypes fromByteArray(int height, byte[] bytes) {
+        long[] words = new long[height * WORDS_PER_LEVEL];
+        if (bytes.length > words.length * 8) {
+            throw new IllegalArgumentException("Packed data of invalid length provided");
+        }
+        for (int i = 0; i < bytes.length; i++) {
+            words[i >> 3] |= (bytes[i] & 0xffL) << ((i & 7) << 3);
+        }
+        return new PackedBlockTypes(height, words);
+    }
+
+    /**
+     * @return The data as little endian bytes, without any trailing zero bytes
+     */
+    public byte[] toByteArray() {
+        int length = words.length * 8;
+        while (length > 0 && byteAt(length - 1) == 0) {
+            length--;
+        }
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = byteAt(i);
+        }
+        return bytes;
+    }
+
+    private byte byteAt(int i) {
+        return (byte) (words[i >> 3] >>> ((i & 7) << 3));
+    }
+
+    /**
+     * @param index The bit index of the block, from {@link CachedChunk#getPositionIndex(int, int, int)}
+     */
+    public PathingBlockType get(int index) {
+        return TYPES[(int) (words[index >>> 6] >>> (index & 63)) & 3];
+    }
+
+    public PathingBlockType get(int x, int y, int z) {
+        return get(CachedChunk.getPositionIndex(x, y, z));
+    }
+
+    public void set(int x, int y, int z, PathingBlockType type) {
+        int index = CachedChunk.getPositionIndex(x, y, z);
+        long mask = 3L << (index & 63);
+        words[index >>> 6] = (words[index >>> 6] & ~mask) | ((long) bits(type) << (index & 63));
+    }
+
+    /**
+     * Sets a block in a section that's being built up to pass to {@link #setSection(int, long[])}
+     *
+     * @param section {@link #WORDS_PER_SECTION} longs
+     * @param y       The y position, relative to the bottom of the section
+     */
+    public static void set(long[] section, int x, int y, int z, PathingBlockType type) {
+        int index = CachedChunk.getPositionIndex(x, y, z);
+        section[index >>> 6] |= (long) bits(type) << (index & 63);
+    }
+
+    /**
+     * Sets every block in a section that's being built up to the same type
+     *
+     * @param section {@link #WORDS_PER_SECTION} longs
+     */
+    public static void fill(long[] section, PathingBlockType type) {
+        Arrays.fill(section, bits(type) * LOW_BITS);
+    }
+
+    /**
+     * Replaces all of a 16 high section at once
+     *
+     * @param sectionY The section, counting from the bottom of the world
+     * @param section  {@link #WORDS_PER_SECTION} longs, in the same layout as the whole chunk
+     */
+    public void setSection(int sectionY, long[] section) {
+        System.arraycopy(section, 0, words, sectionY * WORDS_PER_SECTION, WORDS_PER_SECTION);
+    }
+
+    /**
+     * Sets a 16 high section to all air
+     */
+    public void clearSection(int sectionY) {
+        Arrays.fill(words, sectionY * WORDS_PER_SECTION, (sectionY + 1) * WORDS_PER_SECTION, 0L);
+    }
+
+    /**
+     * @return Whether everything in a 16 high section is air
+     */
+    public boolean isSectionEmpty(int sectionY) {
+        for (int i = sectionY * WORDS_PER_SECTION; i < (sectionY + 1) * WORDS_PER_SECTION; i++) {
+            if (words[i] != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return The y of the highest block in the column that isn't air, relative to the bottom of the world, or -1 if
+     * it's all air
+     */
+    public int highestNonAir(int x, int z) {
+        int shift = ((z & 1) << 5) | (x << 1);
+        for (int i = (height - 1) * WORDS_PER_LEVEL + (z >> 1); i >= 0; i -= WORDS_PER_LEVEL) {
+            if ((words[i] >>> shift & 3) != 0) {
+                return i / WORDS_PER_LEVEL;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * {@link #highestNonAir(int, int)} for every column at once, going down a level at a time and stopping as soon as
+     * every column has been found
+     *
+     * @param heights Where to put the result, indexed by {@code z << 4 | x}
+     */
+    public void highestNonAir(int[] heights) {
+        Arrays.fill(heights, -1);
+        // the low bit of each column that hasn't been found yet, per word of a level
+        long[] remaining = new long[WORDS_PER_LEVEL];
+        Arrays.fill(remaining, LOW_BITS);
+        int left = WORDS_PER_LEVEL;
+        for (int y = height - 1; y >= 0 && left > 0; y--) {
+            for (int w = 0; w < WORDS_PER_LEVEL; w++) {
+                long word = words[y * WORDS_PER_LEVEL + w];
+                long found = (word | word >>> 1) & remaining[w];
+                if (found == 0) {
+                    continue;
+                }
+                remaining[w] &= ~found;
+                if (remaining[w] == 0) {
+                    left--;
+                }
+                while (found != 0) {
+                    int bit = Long.numberOfTrailingZeros(found);
+                    found &= found - 1;
+                    // bit is (z & 1) << 5 | x << 1, and w is z >> 1
+                    heights[(w << 1 | bit >> 5) << 4 | (bit & 31) >> 1] = y;
+                }
+            }
+        }
+    }
+
+    /**
+     * @return The 2 bits this type is stored as
+     */
+    private static int bits(PathingBlockType type) {
+        boolean[] bits = type.getBits();
+        return (bits[0] ? 1 : 0) | (bits[1] ? 2 : 0);
+    }
+}
@@ -0,0 +1,368 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Baritone.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package baritone.cache;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * A cached region on disk: a header, then an index with a fixed size entry for each of the 1024 chunks, then each
+ * chunk's data compressed on its own. Any one chunk can be read without touching the rest of the file.
+ * <p>
+ * A chunk that changed is never written over its old data, only into a gap that the index on disk doesn't point to or
+ * at the end of the file. Its old slot only becomes a gap once the index has been written without it, so whatever
+ * state the index on disk is in, everything it points to is intact.
+ * <p>
+ * Nothing is mapped, reads go through the channel just like writes, so once this is closed the file can be replaced
+ * right away, even on Windows.
+ */
+final class RegionFile implements AutoCloseable {
+
+    /**
+     * Magic value to detect region files in this format. Files in the old format are gzipped, so they start with
+     * {@code 1f 8b} instead.
+     */
+    static final int REGION_FILE_MAGIC = 0x42435232;
+
+    private static final int VERSION = 1;
+
+    /**
+     * Magic, version, dimension height, and an unused int
+     */
+    private static final int HEADER_SIZE = 16;
+
+    /**
+     * Offset, length, capacity and timestamp
+     */
+    private static final int ENTRY_SIZE = 24;
+
+    private static final int DATA_START = HEADER_SIZE + 1024 * ENTRY_SIZE;
+
+    /**
+     * Slots are rounded up to this, so that the gaps they leave behind are easier to fill
+     */
+    private static final int SLOT_ALIGNMENT = 512;
+
+    /**
+     * Compact once this much of the file is old slots that nothing points to anymore
+     */
+    private static final long MAX_WASTED_BYTES = 1 << 20;
+
+    private final Path file;
+    private final FileChannel channel;
+
+    private final long[] offsets = new long[1024];
+    private final int[] lengths = new int[1024];
+    private final int[] capacities = new int[1024];
+    private final long[] timestamps = new long[1024];
+
+    /**
+     * Where the next appended slot goes
+     */
+    private long end;
+
+    /**
+     * Gaps between slots that the index on disk doesn't point to, as {offset, size}, for new slots to go in
+     */
+    private final List<long[]> free = new ArrayList<>();
+
+    /**
+     * Slots that the index on disk still points to, but won't once it's next flushed
+     */
+    private final List<long[]> freedOnFlush = new ArrayList<>();
+
+    private boolean indexChanged;
+
+    private RegionFile(Path file, FileChannel channel) {
+        this.file = file;
+        this.channel = channel;
+    }
+
+    /**
+     * @param file   The file, which is created if it doesn't exist
+     * @param height The height of the dimension, which has to match what the file was made with
+     * @param write  Whether to open it for writing too
+     * @return The opened file
+     * @throws IOException If the file isn't a valid region file
+     */
+    static RegionFile open(Path file, int height, boolean write) throws IOException {
+        boolean exists = Files.exists(file) && Files.size(file) > 0;
+        if (!exists && !write) {
+            throw new IOException("No region file " + file);
+        }
+        FileChannel channel = write
+                ? FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.CREATE)
+                : FileChannel.open(file, StandardOpenOption.READ);
+        RegionFile region = new RegionFile(file, channel);
+        try {
+            if (exists) {
+                region.readIndex(height);
+            } else {
+                region.end = DATA_START;
+                region.writeHeader(height);
+                region.indexChanged = true;
+                region.flush();
+            }
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+        return region;
+    }
+
+    /**
+     * @return Whether this file is in the old gzipped format
+     */
+    static boolean isLegacy(Path file) throws IOException {
+        try (InputStream in = Files.newInputStream(file)) {
+            return in.read() == 0x1f && in.read() == 0x8b;
+        }
+    }
+
+    private void readIndex(int height) throws IOException {
+        if (channel.size() < DATA_START) {
+            throw new IOException("Truncated region file");
+        }
+        ByteBuffer header = ByteBuffer.allocate(DATA_START);
+        while (header.hasRemaining()) {
+            if (channel.read(header, header.position()) < 0) {
+                throw new IOException("Truncated region file");
+            }
+        }
+        header.flip();
+        int magic = header.getInt();
+        if (magic != REGION_FILE_MAGIC) {
+            throw new IOException("Bad magic value " + magic);
+        }
+        int version = header.getInt();
+        if (version != VERSION) {
+            throw new IOException("Unknown region file version " + version);
+        }
+        int fileHeight = header.getInt();
+        if (fileHeight != height) {
+            throw new IOException("Region file is for a dimension of height " + fileHeight + ", not " + height);
+        }
+        header.getInt();
+        long size = channel.size();
+        end = DATA_START;
+        for (int i = 0; i < 1024; i++) {
+            offsets[i] = header.getLong();
+            lengths[i] = header.getInt();
+            capacities[i] = header.getInt();
+            timestamps[i] = header.getLong();
+            if (offsets[i] != 0) {
+                if (offsets[i] < DATA_START || lengths[i] < 0 || lengths[i] > capacities[i] || offsets[i] + lengths[i] > size) {
+                    throw new IOException("Malformed index entry for chunk " + i);
+                }
+                end = Math.max(end, offsets[i] + capacities[i]);
+            }
+        }
+        findGaps();
+    }
+
+    private void findGaps() {
+        List<long[]> slots = new ArrayList<>();
+        for (int i = 0; i < 1024; i++) {
+            if (offsets[i] != 0) {
+                slots.add(new long[]{offsets[i], capacities[i]});
+            }
+        }
+        slots.sort(Comparator.comparingLong(slot -> slot[0]));
+        long position = DATA_START;
+        for (long[] slot : slots) {
+            if (slot[0] > position) {
+                free.add(new long[]{position, slot[0] - position});
+            }
+            position = Math.max(position, slot[0] + slot[1]);
+        }
+    }
+
+    private void writeHeader(int height) throws IOException {
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        header.putInt(REGION_FILE_MAGIC);
+        header.putInt(VERSION);
+        header.putInt(height);
+        header.putInt(0);
+        header.flip();
+        writeFully(header, 0);
+    }
+
+    /**
+     * @param index The chunk index, {@code x * 32 + z} relative to the region
+     */
+    boolean isPresent(int index) {
+        return offsets[index] != 0;
+    }
+
+    long timestamp(int index) {
+        return timestamps[index];
+    }
+
+    /**
+     * @return The compressed data of the chunk, or null if it isn't present
+     */
+    ByteBuffer read(int index) throws IOException {
+        if (offsets[index] == 0) {
+            return null;
+        }
+        ByteBuffer data = ByteBuffer.allocate(lengths[index]);
+        while (data.hasRemaining()) {
+            if (channel.read(data, offsets[index] + data.position()) < 0) {
+                throw new IOException("Truncated region file");
+            }
+        }
+        data.flip();
+        return data;
+    }
+
+    /**
+     * Writes the compressed data of a chunk to a new slot. It isn't saved until the next {@link #flush()}, and until
+     * then the old data is still there.
+     */
+    void write(int index, byte[] data, int length, long timestamp) throws IOException {
+        int capacity = (length + SLOT_ALIGNMENT - 1) / SLOT_ALIGNMENT * SLOT_ALIGNMENT;
+        long offset = allocate(capacity);
+        writeFully(ByteBuffer.wrap(data, 0, length), offset);
+        release(index);
+        offsets[index] = offset;
+        lengths[index] = length;
+        capacities[index] = capacity;
+        timestamps[index] = timestamp;
+        indexChanged = true;
+    }
+
+    /**
+     * @return Where a new slot of this size can go, the first gap it fits in or else the end of the file
+     */
+    private long allocate(int capacity) {
+        for (int i = 0; i < free.size(); i++) {
+            long[] gap = free.get(i);
+            if (gap[1] >= capacity) {
+                long offset = gap[0];
+                gap[0] += capacity;
+                gap[1] -= capacity;
+                if (gap[1] == 0) {
+                    free.remove(i);
+                }
+                return offset;
+            }
+        }
+        long offset = end;
+        end += capacity;
+        return offset;
+    }
+
+    /**
+     * Lets the slot of a chunk be reused once the index no longer points to it
+     */
+    private void release(int index) {
+        if (offsets[index] != 0) {
+            freedOnFlush.add(new long[]{offsets[index], capacities[index]});
+        }
+    }
+
+    void remove(int index) {
+        if (offsets[index] != 0) {
+            release(index);
+            offsets[index] = 0;
+            lengths[index] = 0;
+            capacities[index] = 0;
+            timestamps[index] = 0;
+            indexChanged = true;
+        }
+    }
+
+    private void writeFully(ByteBuffer buffer, long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            position += channel.write(buffer, position);
+        }
+    }
+
+    /**
+     * Writes the index, if anything changed. The chunks it points to are forced to disk first, so the index on disk
+     * never points to anything that isn't there yet.
+     */
+    void flush() throws IOException {
+        if (!indexChanged) {
+            return;
+        }
+        channel.force(false);
+        ByteBuffer index = ByteBuffer.allocate(1024 * ENTRY_SIZE);
+        for (int i = 0; i < 1024; i++) {
+            index.putLong(offsets[i]);
+            index.putInt(lengths[i]);
+            index.putInt(capacities[i]);
+            index.putLong(timestamps[i]);
+        }
+        index.flip();
+        writeFully(index, HEADER_SIZE);
+        indexChanged = false;
+        free.addAll(freedOnFlush);
+        freedOnFlush.clear();
+    }
+
+    /**
+     * @return Whether enough of the file is old slots that nothing points to anymore that it should be rewritten
+     */
+    boolean needsCompaction() {
+        long used = DATA_START;
+        for (int i = 0; i < 1024; i++) {
+            used += capacities[i];
+        }
+        return end - used > MAX_WASTED_BYTES;
+    }
+
+    /**
+     * Writes every chunk to a new file, one after the other with no gaps
+     */
+    void copyTo(Path target, int height) throws IOException {
+        Files.deleteIfExists(target);
+        try (RegionFile copy = open(target, height, true)) {
+            for (int i = 0; i < 1024; i++) {
+                ByteBuffer data = read(i);
+                if (data != null) {
+                    byte[] bytes = new byte[data.remaining()];
+                    data.get(bytes);
+                    copy.write(i, bytes, bytes.length, timestamps[i]);
+                }
+            }
+            copy.flush();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    /**
+     * Where to write a new file before moving it over the old one, so that the old one stays intact if anything goes
+     * wrong
+     */
+    static Path tempFileFor(Path file) {
+        return file.resolveSibling(file.getFileName() + ".tmp");
+    }
+}
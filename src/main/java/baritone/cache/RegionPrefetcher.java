@@ -0,0 +1,187 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Baritone.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package baritone.cache;
+
+import baritone.Baritone;
+import baritone.api.pathing.calc.IPath;
+import baritone.api.pathing.goals.Goal;
+import baritone.api.utils.BetterBlockPos;
+import it.unimi.dsi.fastutil.longs.LongLinkedOpenHashSet;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import net.minecraft.core.BlockPos;
+import net.minecraft.world.level.ChunkPos;
+
+import java.util.List;
+
+/**
+ * Loads the regions that are about to be needed in the background, so that they're already in memory by the time a
+ * path search or the player gets to them. This only takes up a thread while there's something to load.
+ * <p>
+ * In order, that's the region the player is in, the ones their path goes through, the ones the best path so far of
+ * the search that's running goes through, and then the next few in whichever direction the goal's heuristic goes
+ * down the most.
+ */
+final class RegionPrefetcher {
+
+    /**
+     * Only every this many positions of a path are looked at. Regions are much wider than this, so none are missed.
+     */
+    private static final int PATH_STRIDE = 8;
+
+    /**
+     * How many regions towards the goal to load
+     */
+    private static final int GOAL_REGIONS = 2;
+
+    private final CachedWorld world;
+
+    /**
+     * The regions to load, most wanted first, as {@link ChunkPos#asLong(int, int)} of their region coordinates
+     */
+    private LongLinkedOpenHashSet wanted = new LongLinkedOpenHashSet();
+
+    /**
+     * Regions that turned out not to have a file to load. Forgotten whenever the player moves to another region, since
+     * one could have been saved since.
+     */
+    private final LongOpenHashSet missing = new LongOpenHashSet();
+
+    /**
+     * The goal and the player's region that {@link #goalDirX} was worked out for
+     */
+    private Goal lastGoal;
+    private long lastPlayerRegion;
+
+    /**
+     * Which way the goal is, in regions, or 0 and 0 if none of the ways around are closer to it
+     */
+    private int goalDirX;
+    private int goalDirZ;
+
+    /**
+     * Whether there's a task on the executor working through {@link #wanted}
+     */
+    private boolean running;
+
+    RegionPrefetcher(CachedWorld world) {
+        this.world = world;
+    }
+
+    /**
+     * @param player    Where the player is
+     * @param path      The path they're on, or null
+     * @param bestSoFar The best path so far of the search that's running, or null
+     * @param goal      The goal, or null
+     */
+    synchronized void setFocus(BlockPos player, IPath path, IPath bestSoFar, Goal goal) {
+        LongLinkedOpenHashSet regions = new LongLinkedOpenHashSet();
+        if (!Baritone.settings().prefetchCachedRegions.value) {
+            wanted = regions;
+            return;
+        }
+        int regionX = player.getX() >> 9;
+        int regionZ = player.getZ() >> 9;
+        regions.add(ChunkPos.asLong(regionX, regionZ));
+        addPath(regions, path);
+        addPath(regions, bestSoFar);
+        long playerRegion = ChunkPos.asLong(regionX, regionZ);
+        if (playerRegion != lastPlayerRegion) {
+            missing.clear();
+        }
+        if (goal != null) {
+            if (goal != lastGoal || playerRegion != lastPlayerRegion) {
+                updateGoalDirection(player, goal);
+                lastGoal = goal;
+            }
+            if (goalDirX != 0 || goalDirZ != 0) {
+                for (int i = 1; i <= GOAL_REGIONS; i++) {
+                    regions.add(ChunkPos.asLong(regionX + goalDirX * i, regionZ + goalDirZ * i));
+                }
+            }
+        }
+        lastPlayerRegion = playerRegion;
+        regions.removeIf(region -> missing.contains(region) || !world.needsPrefetch(ChunkPos.getX(region), ChunkPos.getZ(region)));
+        wanted = regions;
+        if (!running && !wanted.isEmpty()) {
+            running = true;
+            Baritone.getExecutor().execute(this::run);
+        }
+    }
+
+    /**
+     * Stops loading regions once the current one is done, until {@link #setFocus} is called again
+     */
+    synchronized void stop() {
+        wanted = new LongLinkedOpenHashSet();
+    }
+
+    private static void addPath(LongLinkedOpenHashSet regions, IPath path) {
+        List<BetterBlockPos> positions = path == null ? null : path.positions();
+        if (positions == null || positions.isEmpty()) {
+            return;
+        }
+        for (int i = 0; i < positions.size(); i += PATH_STRIDE) {
+            BetterBlockPos pos = positions.get(i);
+            regions.add(ChunkPos.asLong(pos.x >> 9, pos.z >> 9));
+        }
+        BetterBlockPos end = positions.get(positions.size() - 1);
+        regions.add(ChunkPos.asLong(end.x >> 9, end.z >> 9));
+    }
+
+    private void updateGoalDirection(BlockPos player, Goal goal) {
+        double best = goal.heuristic(player);
+        goalDirX = 0;
+        goalDirZ = 0;
+        for (int dx = -1; dx <= 1; dx++) {
+            for (int dz = -1; dz <= 1; dz++) {
+                if (dx == 0 && dz == 0) {
+                    continue;
+                }
+                double heuristic = goal.heuristic(player.getX() + dx * 512, player.getY(), player.getZ() + dz * 512);
+                if (heuristic < best) {
+                    best = heuristic;
+                    goalDirX = dx;
+                    goalDirZ = dz;
+                }
+            }
+        }
+    }
+
+    private void run() {
+        while (true) {
+            long region;
+            synchronized (this) {
+                if (wanted.isEmpty()) {
+                    running = false;
+                    return;
+                }
+                region = wanted.removeFirstLong();
+            }
+            try {
+                if (!world.prefetchRegion(ChunkPos.getX(region), ChunkPos.getZ(region))) {
+                    synchronized (this) {
+                        missing.add(region);
+                    }
+                }
+            } catch (Throwable th) {
+                // one bad region shouldn't stop the rest from being loaded
+                th.printStackTrace();
+            }
+        }
+    }
+}
@@ -0,0 +1,163 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Baritone.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package baritone.cache;
+
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import net.minecraft.core.BlockPos;
+
+import java.util.*;
+
+/**
+ * Where every special block in a region is, by block.
+ * <p>
+ * Each block gets one array of packed positions, sorted by which chunk they're in, and where each chunk's positions
+ * start in it. The chunks are a coarse grid: a nearest first search only looks inside chunks that could possibly
+ * have something closer than what it's already found.
+ * <p>
+ * Immutable, the region makes a new one when it's needed after something changes.
+ */
+final class SpecialBlockIndex {
+
+    static final SpecialBlockIndex EMPTY = new SpecialBlockIndex(0, 0, Collections.emptyMap());
+
+    /**
+     * The region's first chunk
+     */
+    private final int chunkX;
+    private final int chunkZ;
+
+    private final Map<String, Column> columns;
+
+    private SpecialBlockIndex(int chunkX, int chunkZ, Map<String, Column> columns) {
+        this.chunkX = chunkX;
+        this.chunkZ = chunkZ;
+        this.columns = columns;
+    }
+
+    /**
+     * @return Every position of this block, in no particular order
+     */
+    ArrayList<BlockPos> getAll(String block) {
+        Column column = columns.get(block);
+        if (column == null) {
+            return new ArrayList<>();
+        }
+        ArrayList<BlockPos> res = new ArrayList<>(column.positions.length);
+        for (long pos : column.positions) {
+            res.add(BlockPos.of(pos));
+        }
+        return res;
+    }
+
+    /**
+     * Offers every position of this block that could be one of the nearest to the search
+     */
+    void findNearest(String block, NearestPositions search) {
+        Column column = columns.get(block);
+        if (column == null) {
+            return;
+        }
+        for (int i = 0; i < 1024; i++) {
+            int start = column.chunkStart[i];
+            int end = column.chunkStart[i + 1];
+            if (start == end) {
+                continue;
+            }
+            int minX = (chunkX + (i >> 5)) << 4;
+            int minZ = (chunkZ + (i & 31)) << 4;
+            if (search.distanceSqToArea(minX, minZ, minX + 15, minZ + 15) > search.bound()) {
+                continue;
+            }
+            for (int j = start; j < end; j++) {
+                search.offer(column.positions[j]);
+            }
+        }
+    }
+
+    private static final class Column {
+
+        /**
+         * {@link BlockPos#asLong()} of each position
+         */
+        private final long[] positions;
+
+        /**
+         * Where each chunk's positions start in {@link #positions}, by {@code x * 32 + z} within the region. The last
+         * entry is the end of the last chunk.
+         */
+        private final int[] chunkStart;
+
+        private Column(long[] positions, int[] chunkStart) {
+            this.positions = positions;
+            this.chunkStart = chunkStart;
+        }
+    }
+
+    /**
+     * Collects positions a chunk at a time, in chunk order
+     */
+    static final class Builder {
+
+        private final int chunkX;
+        private final int chunkZ;
+        private final Map<String, LongArrayList> positions = new HashMap<>();
+        private final Map<String, int[]> chunkStarts = new HashMap<>();
+
+        /**
+         * @param regionX The region x coordinate
+         * @param regionZ The region z coordinate
+         */
+        Builder(int regionX, int regionZ) {
+            this.chunkX = regionX << 5;
+            this.chunkZ = regionZ << 5;
+        }
+
+        /**
+         * Chunks have to be added in order of {@code x * 32 + z} within the region
+         *
+         * @param locations The special blocks in the chunk, relative to it horizontally, as in {@link CachedChunk}
+         */
+        void addChunk(int x, int z, Map<String, List<BlockPos>> locations) {
+            int index = x * 32 + z;
+            for (Map.Entry<String, List<BlockPos>> entry : locations.entrySet()) {
+                LongArrayList list = positions.computeIfAbsent(entry.getKey(), k -> new LongArrayList());
+                int[] starts = chunkStarts.computeIfAbsent(entry.getKey(), k -> new int[1025]);
+                starts[index] = list.size();
+                for (BlockPos pos : entry.getValue()) {
+                    list.add(BlockPos.asLong(pos.getX() + ((chunkX + x) << 4), pos.getY(), pos.getZ() + ((chunkZ + z) << 4)));
+                }
+                starts[index + 1] = list.size();
+            }
+        }
+
+        SpecialBlockIndex build() {
+            Map<String, Column> columns = new HashMap<>();
+            for (Map.Entry<String, LongArrayList> entry : positions.entrySet()) {
+                int[] starts = chunkStarts.get(entry.getKey());
+                // chunks without any of this block were never set, they start and end where the one before ended
+                for (int i = 1; i <= 1024; i++) {
+                    if (starts[i] < starts[i - 1]) {
+                        starts[i] = starts[i - 1];
+                    }
+                }
+                columns.put(entry.getKey(), new Column(entry.getValue().toLongArray(), starts));
+            }
+            return new SpecialBlockIndex(chunkX, chunkZ, columns);
+        }
+    }
+}
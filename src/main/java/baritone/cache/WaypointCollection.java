@@ -43,9 +43,12 @@ public class WaypointCollection implements IWaypointCollection {
     private final Path directory;
     private final Map<IWaypoint.Tag, Set<IWaypoint>> waypoints;
 
-    WaypointCollection(Path directory) {
+    /**
+     * @param readOnly Whether to leave the directory alone if it doesn't exist yet
+     */
+    WaypointCollection(Path directory, boolean readOnly) {
         this.directory = directory;
-        if (!Files.exists(directory)) {
+        if (!readOnly && !Files.exists(directory)) {
             try {
                 Files.createDirectories(directory);
             } catch (IOException ignored) {}
@@ -21,6 +21,7 @@ import baritone.Baritone;
 import baritone.api.cache.ICachedWorld;
 import baritone.api.cache.IWaypointCollection;
 import baritone.api.cache.IWorldData;
+import baritone.pathing.coarse.LandmarkHeuristics;
 import net.minecraft.world.level.dimension.DimensionType;
 
 import java.nio.file.Path;
@@ -34,18 +35,38 @@ public class WorldData implements IWorldData {
 
     public final CachedWorld cache;
     private final WaypointCollection waypoints;
+    public final LandmarkHeuristics landmarks;
     //public final MapData map;
     public final Path directory;
     public final DimensionType dimension;
 
     WorldData(Path directory, DimensionType dimension) {
+        this(directory, dimension, false);
+    }
+
+    private WorldData(Path directory, DimensionType dimension, boolean readOnly) {
         this.directory = directory;
-        this.cache = new CachedWorld(directory.resolve("cache"), dimension);
-        this.waypoints = new WaypointCollection(directory.resolve("waypoints"));
+        this.cache = new CachedWorld(directory.resolve("cache"), dimension, readOnly);
+        this.waypoints = new WaypointCollection(directory.resolve("waypoints"), readOnly);
+        this.landmarks = new LandmarkHeuristics(directory.resolve("landmarks"), cache, waypoints);
+        this.cache.setChunkUpdateListener(landmarks::onChunkUpdated);
         this.dimension = dimension;
     }
 
+    /**
+     * Opens the data for a world without a client, for pathing through the cache on its own. Nothing gets packed,
+     * converted or saved, no files or directories are created, and each region is loaded the first time it's asked for.
+     *
+     * @param directory The world's directory, the one with the {@code cache} and {@code waypoints} folders in it
+     * @param dimension The dimension the world is in
+     * @return The world data
+     */
+    public static WorldData openReadOnly(Path directory, DimensionType dimension) {
+        return new WorldData(directory, dimension, true);
+    }
+
     public void onClose() {
+        cache.stopPrefetching();
         Baritone.getExecutor().execute(() -> {
             System.out.println("Started saving the world in a new thread");
             cache.save();
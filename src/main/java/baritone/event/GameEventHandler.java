@@ -22,11 +22,16 @@ import baritone.api.event.events.*;
 import baritone.api.event.events.type.EventState;
 import baritone.api.event.listener.IEventBus;
 import baritone.api.event.listener.IGameEventListener;
+import baritone.api.pathing.calc.IPath;
+import baritone.api.pathing.calc.IPathFinder;
+import baritone.api.utils.BetterBlockPos;
 import baritone.api.utils.Helper;
 import baritone.api.utils.Pair;
-import baritone.cache.CachedChunk;
+import baritone.cache.WorldData;
 import baritone.cache.WorldProvider;
+import baritone.pathing.precompute.SectionVersions;
 import baritone.utils.BlockStateInterface;
+import net.minecraft.core.BlockPos;
 import net.minecraft.world.level.ChunkPos;
 import net.minecraft.world.level.Level;
 import net.minecraft.world.level.block.state.BlockState;
@@ -58,6 +63,13 @@ public final class GameEventHandler implements IEventBus, Helper {
                 ex.printStackTrace();
                 baritone.bsi = null;
             }
+            WorldData worldData = baritone.getWorldProvider().getCurrentWorld();
+            if (worldData != null) {
+                BetterBlockPos feet = baritone.getPlayerContext().playerFeet();
+                IPath path = baritone.getPathingBehavior().getPath().orElse(null);
+                worldData.cache.setPackingFocus(feet, path);
+                worldData.cache.setPrefetchFocus(feet, path, baritone.getPathingBehavior().getInProgress().flatMap(IPathFinder::bestPathSoFar).orElse(null), baritone.getPathingBehavior().getGoal());
+            }
         } else {
             baritone.bsi = null;
         }
@@ -90,6 +102,7 @@ public final class GameEventHandler implements IEventBus, Helper {
         ChunkEvent.Type type = event.getType();
 
         Level world = baritone.getPlayerContext().world();
+        SectionVersions.columnChanged(event.getX(), event.getZ());
 
         // Whenever the server sends us to another dimension, chunks are unloaded
         // technically after the new world has been loaded, so we perform a check
@@ -111,17 +124,17 @@ public final class GameEventHandler implements IEventBus, Helper {
 
     @Override
     public void onBlockChange(BlockChangeEvent event) {
+        for (Pair<BlockPos, BlockState> change : event.getBlocks()) {
+            BlockPos pos = change.first();
+            SectionVersions.changed(pos.getX(), pos.getY(), pos.getZ());
+        }
         if (Baritone.settings().repackOnAnyBlockChange.value) {
-            final boolean keepingTrackOf = event.getBlocks().stream()
-                    .map(Pair::second).map(BlockState::getBlock)
-                    .anyMatch(CachedChunk.BLOCKS_TO_KEEP_TRACK_OF::contains);
-
-            if (keepingTrackOf) {
-                baritone.getWorldProvider().ifWorldLoaded(worldData -> {
-                    final Level world = baritone.getPlayerContext().world();
-                    ChunkPos pos = event.getChunkPos();
-                    worldData.getCachedWorld().queueForPacking(world.getChunk(pos.x, pos.z));
-                });
+            WorldData worldData = baritone.getWorldProvider().getCurrentWorld();
+            if (worldData != null) {
+                final Level world = baritone.getPlayerContext().world();
+                ChunkPos pos = event.getChunkPos();
+                // the whole chunk still gets repacked when it unloads
+                worldData.cache.applyBlockChanges(world.getChunk(pos.x, pos.z), event.getBlocks());
             }
         }
 
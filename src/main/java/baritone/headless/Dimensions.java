@@ -0,0 +1,75 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Baritone.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package baritone.headless;
+
+import net.minecraft.tags.BlockTags;
+import net.minecraft.util.valueproviders.ConstantInt;
+import net.minecraft.util.valueproviders.UniformInt;
+import net.minecraft.world.level.dimension.BuiltinDimensionTypes;
+import net.minecraft.world.level.dimension.DimensionType;
+
+import java.util.OptionalLong;
+
+/**
+ * Dimension types like the vanilla ones, since without a client or server there's no registry to get them from. Only
+ * the heights and the ultrawarm flag matter for pathing.
+ */
+public final class Dimensions {
+
+    public static final DimensionType OVERWORLD = new DimensionType(
+            OptionalLong.empty(), true, false, false, true, 1.0, true, false,
+            -64, 384, 384,
+            BlockTags.INFINIBURN_OVERWORLD, BuiltinDimensionTypes.OVERWORLD_EFFECTS, 0.0F,
+            new DimensionType.MonsterSettings(false, true, UniformInt.of(0, 7), 0)
+    );
+
+    public static final DimensionType NETHER = new DimensionType(
+            OptionalLong.of(18000L), false, true, true, false, 8.0, false, true,
+            0, 256, 128,
+            BlockTags.INFINIBURN_NETHER, BuiltinDimensionTypes.NETHER_EFFECTS, 0.1F,
+            new DimensionType.MonsterSettings(true, false, ConstantInt.of(11), 15)
+    );
+
+    public static final DimensionType END = new DimensionType(
+            OptionalLong.of(6000L), false, false, false, false, 1.0, false, false,
+            0, 256, 256,
+            BlockTags.INFINIBURN_END, BuiltinDimensionTypes.END_EFFECTS, 0.0F,
+            new DimensionType.MonsterSettings(false, true, UniformInt.of(0, 7), 0)
+    );
+
+    private Dimensions() {}
+
+    /**
+     * @param name overworld, nether or end
+     * @return The dimension, or null if there's none by that name
+     */
+    public static DimensionType byName(String name) {
+        switch (name.toLowerCase()) {
+            case "overworld":
+                return OVERWORLD;
+            case "nether":
+            case "the_nether":
+                return NETHER;
+            case "end":
+            case "the_end":
+                return END;
+            default:
+                return null;
+        }
+    }
+}
@@ -0,0 +1,113 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Baritone.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package baritone.headless;
+
+import baritone.api.pathing.calc.IPath;
+import baritone.api.pathing.goals.Goal;
+import baritone.api.pathing.goals.GoalBlock;
+import baritone.api.utils.BetterBlockPos;
+import baritone.api.utils.PathCalculationResult;
+import baritone.cache.WorldData;
+import baritone.pathing.calc.AStarPathFinder;
+import baritone.pathing.movement.CalculationContext;
+import baritone.pathing.movement.CapabilityProfile;
+import baritone.utils.BlockStateInterface;
+import baritone.utils.pathing.BetterWorldBorder;
+import baritone.utils.pathing.Favoring;
+import net.minecraft.SharedConstants;
+import net.minecraft.core.BlockPos;
+import net.minecraft.server.Bootstrap;
+import net.minecraft.world.level.border.WorldBorder;
+import net.minecraft.world.level.dimension.DimensionType;
+
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Pathfinding over a world's cache without a Minecraft client, for precomputing routes, checking path quality, or
+ * answering path requests from another process.
+ * <p>
+ * The cache is opened read only, and each region is loaded the first time a search reaches it. Searches don't share
+ * anything but the cache, so any number of them can run at once, each with its own {@link CapabilityProfile}.
+ * <p>
+ * The block and item registries have to be filled before any of this is used, see {@link #main(String[])}.
+ */
+public final class HeadlessPathfinder {
+
+    private final WorldData worldData;
+    private final DimensionType dimension;
+    private final BetterWorldBorder worldBorder;
+
+    private HeadlessPathfinder(WorldData worldData, DimensionType dimension) {
+        this.worldData = worldData;
+        this.dimension = dimension;
+        this.worldBorder = new BetterWorldBorder(new WorldBorder());
+    }
+
+    /**
+     * @param directory The world's directory, the one with the {@code cache} folder in it
+     * @param dimension The dimension the cache is from
+     * @return A pathfinder over everything in the cache
+     */
+    public static HeadlessPathfinder open(Path directory, DimensionType dimension) {
+        return new HeadlessPathfinder(WorldData.openReadOnly(directory, dimension), dimension);
+    }
+
+    /**
+     * @param start          Where the player is standing
+     * @param goal           Where to go
+     * @param profile        What the player can do
+     * @param primaryTimeout How long to keep looking for a better path once there is one, in milliseconds
+     * @param failureTimeout How long to look before giving up, in milliseconds
+     * @return The result, where a segment means the search ran out of time or cache before reaching the goal
+     */
+    public PathCalculationResult findPath(BlockPos start, Goal goal, CapabilityProfile profile, long primaryTimeout, long failureTimeout) {
+        CalculationContext context = new CalculationContext(new BlockStateInterface(worldData, dimension, worldBorder), worldData, dimension, profile);
+        AStarPathFinder finder = new AStarPathFinder(start.getX(), start.getY(), start.getZ(), goal, new Favoring(null, context), context);
+        return finder.calculate(primaryTimeout, failureTimeout);
+    }
+
+    /**
+     * Finds one path with the capabilities from the settings file, and prints it one position per line
+     */
+    public static void main(String[] args) {
+        if (args.length < 7 || args.length > 8) {
+            System.out.println("Usage: <world directory> <x> <y> <z> <goal x> <goal y> <goal z> [overworld|nether|end]");
+            return;
+        }
+        DimensionType dimension = Dimensions.byName(args.length == 8 ? args[7] : "overworld");
+        if (dimension == null) {
+            System.out.println("Unknown dimension " + args[7]);
+            return;
+        }
+        SharedConstants.tryDetectVersion();
+        Bootstrap.bootStrap();
+        HeadlessPathfinder pathfinder = open(Paths.get(args[0]), dimension);
+        BlockPos start = new BlockPos(Integer.parseInt(args[1]), Integer.parseInt(args[2]), Integer.parseInt(args[3]));
+        Goal goal = new GoalBlock(Integer.parseInt(args[4]), Integer.parseInt(args[5]), Integer.parseInt(args[6]));
+        PathCalculationResult result = pathfinder.findPath(start, goal, CapabilityProfile.fromSettings().build(), 4000, 30000);
+        System.out.println(result.getType());
+        if (result.getPath().isPresent()) {
+            IPath path = result.getPath().get();
+            System.out.println(path.length() + " positions, " + path.getNumNodesConsidered() + " nodes considered");
+            for (BetterBlockPos pos : path.positions()) {
+                System.out.println(pos.x + " " + pos.y + " " + pos.z);
+            }
+        }
+    }
+}
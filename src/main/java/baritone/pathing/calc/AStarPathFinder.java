@@ -22,13 +22,15 @@ import baritone.api.pathing.calc.IPath;
 import baritone.api.pathing.goals.Goal;
 import baritone.api.pathing.movement.ActionCosts;
 import baritone.api.utils.BetterBlockPos;
-import baritone.pathing.calc.openset.BinaryHeapOpenSet;
+import baritone.pathing.calc.openset.IOpenSet;
+import baritone.pathing.calc.openset.PooledBinaryHeapOpenSet;
 import baritone.pathing.movement.CalculationContext;
 import baritone.pathing.movement.Moves;
 import baritone.utils.pathing.BetterWorldBorder;
 import baritone.utils.pathing.Favoring;
 import baritone.utils.pathing.MutableMoveResult;
 
+import java.util.Arrays;
 import java.util.Optional;
 
 /**
@@ -42,27 +44,27 @@ public final class AStarPathFinder extends AbstractNodeCostSearch {
     private final CalculationContext calcContext;
 
     public AStarPathFinder(int startX, int startY, int startZ, Goal goal, Favoring favoring, CalculationContext context) {
-        super(startX, startY, startZ, goal, context);
+        this(startX, startY, startZ, goal, favoring, context, null);
+    }
+
+    public AStarPathFinder(int startX, int startY, int startZ, Goal goal, Favoring favoring, CalculationContext context, PathfinderArena arena) {
+        super(startX, startY, startZ, goal, context, arena);
         this.favoring = favoring;
         this.calcContext = context;
     }
 
     @Override
     protected Optional<IPath> calculate0(long primaryTimeout, long failureTimeout) {
-        int minY = calcContext.world.dimensionType().minY();
-        int height = calcContext.world.dimensionType().height();
-        startNode = getNodeAtPosition(startX, startY, startZ, BetterBlockPos.longHash(startX, startY, startZ));
-        startNode.cost = 0;
-        startNode.combinedCost = startNode.estimatedCostToGoal;
-        BinaryHeapOpenSet openSet = new BinaryHeapOpenSet();
-        openSet.insert(startNode);
+        return search(pool != null ? new PooledNodes(pool) : new ObjectNodes(), primaryTimeout, failureTimeout);
+    }
+
+    private Optional<IPath> search(Nodes nodes, long primaryTimeout, long failureTimeout) {
+        int minY = calcContext.minY;
+        int height = calcContext.height;
         double[] bestHeuristicSoFar = new double[COEFFICIENTS.length];//keep track of the best node by the metric of (estimatedCostToGoal + cost / COEFFICIENTS[i])
-        for (int i = 0; i < bestHeuristicSoFar.length; i++) {
-            bestHeuristicSoFar[i] = startNode.estimatedCostToGoal;
-            bestSoFar[i] = startNode;
-        }
+        Arrays.fill(bestHeuristicSoFar, nodes.start());
         MutableMoveResult res = new MutableMoveResult();
-        BetterWorldBorder worldBorder = new BetterWorldBorder(calcContext.world.getWorldBorder());
+        BetterWorldBorder worldBorder = calcContext.worldBorder;
         long startTime = System.currentTimeMillis();
         boolean slowPath = Baritone.settings().slowPath.value;
         if (slowPath) {
@@ -79,7 +81,7 @@ public final class AStarPathFinder extends AbstractNodeCostSearch {
         int pathingMaxChunkBorderFetch = Baritone.settings().pathingMaxChunkBorderFetch.value; // grab all settings beforehand so that changing settings during pathing doesn't cause a crash or unpredictable behavior
         double minimumImprovement = Baritone.settings().minimumImprovementRepropagation.value ? MIN_IMPROVEMENT : 0;
         Moves[] allMoves = Moves.values();
-        while (!openSet.isEmpty() && numEmptyChunk < pathingMaxChunkBorderFetch && !cancelRequested) {
+        while (!nodes.isEmpty() && numEmptyChunk < pathingMaxChunkBorderFetch && !cancelRequested) {
             if ((numNodes & (timeCheckInterval - 1)) == 0) { // only call this once every 64 nodes (about half a millisecond)
                 long now = System.currentTimeMillis(); // since nanoTime is slow on windows (takes many microseconds)
                 if (now - failureTimeoutTime >= 0 || (!failing && now - primaryTimeoutTime >= 0)) {
@@ -91,17 +93,21 @@ public final class AStarPathFinder extends AbstractNodeCostSearch {
                     Thread.sleep(Baritone.settings().slowPathTimeDelayMS.value);
                 } catch (InterruptedException ignored) {}
             }
-            PathNode currentNode = openSet.removeLowest();
-            mostRecentConsidered = currentNode;
+            nodes.removeLowest();
             numNodes++;
-            if (goal.isInGoal(currentNode.x, currentNode.y, currentNode.z)) {
+            int currentX = nodes.x();
+            int currentY = nodes.y();
+            int currentZ = nodes.z();
+            if (goal.isInGoal(currentX, currentY, currentZ)) {
                 logDebug("Took " + (System.currentTimeMillis() - startTime) + "ms, " + numMovementsConsidered + " movements considered");
-                return Optional.of(new Path(startNode, currentNode, numNodes, goal, calcContext));
+                return Optional.of(nodes.pathToCurrent(numNodes));
             }
+            double currentCost = nodes.cost();
+            calcContext.focusOn(currentX, currentY, currentZ);
             for (Moves moves : allMoves) {
-                int newX = currentNode.x + moves.xOffset;
-                int newZ = currentNode.z + moves.zOffset;
-                if ((newX >> 4 != currentNode.x >> 4 || newZ >> 4 != currentNode.z >> 4) && !calcContext.isLoaded(newX, newZ)) {
+                int newX = currentX + moves.xOffset;
+                int newZ = currentZ + moves.zOffset;
+                if ((newX >> 4 != currentX >> 4 || newZ >> 4 != currentZ >> 4) && !calcContext.isLoaded(newX, newZ)) {
                     // only need to check if the destination is a loaded chunk if it's in a different chunk than the start of the movement
                     if (!moves.dynamicXZ) { // only increment the counter if the movement would have gone out of bounds guaranteed
                         numEmptyChunk++;
@@ -111,11 +117,11 @@ public final class AStarPathFinder extends AbstractNodeCostSearch {
                 if (!moves.dynamicXZ && !worldBorder.entirelyContains(newX, newZ)) {
                     continue;
                 }
-                if (currentNode.y + moves.yOffset > height || currentNode.y + moves.yOffset < minY) {
+                if (currentY + moves.yOffset > height || currentY + moves.yOffset < minY) {
                     continue;
                 }
                 res.reset();
-                moves.apply(calcContext, currentNode.x, currentNode.y, currentNode.z, res);
+                calcContext.apply(moves, currentX, currentY, currentZ, res);
                 numMovementsConsidered++;
                 double actionCost = res.cost;
                 if (actionCost >= ActionCosts.COST_INF) {
@@ -131,44 +137,40 @@ public final class AStarPathFinder extends AbstractNodeCostSearch {
                 if (!moves.dynamicXZ && (res.x != newX || res.z != newZ)) {
                     throw new IllegalStateException(moves + " " + res.x + " " + newX + " " + res.z + " " + newZ);
                 }
-                if (!moves.dynamicY && res.y != currentNode.y + moves.yOffset) {
-                    throw new IllegalStateException(moves + " " + res.y + " " + (currentNode.y + moves.yOffset));
+                if (!moves.dynamicY && res.y != currentY + moves.yOffset) {
+                    throw new IllegalStateException(moves + " " + res.y + " " + (currentY + moves.yOffset));
                 }
                 long hashCode = BetterBlockPos.longHash(res.x, res.y, res.z);
                 if (isFavoring) {
                     // see issue #18
-                    actionCost *= favoring.calculate(hashCode);
+                    actionCost *= favoring.calculate(res.x, res.z, hashCode);
                 }
-                PathNode neighbor = getNodeAtPosition(res.x, res.y, res.z, hashCode);
-                double tentativeCost = currentNode.cost + actionCost;
-                if (neighbor.cost - tentativeCost > minimumImprovement) {
-                    neighbor.previous = currentNode;
-                    neighbor.cost = tentativeCost;
-                    neighbor.combinedCost = tentativeCost + neighbor.estimatedCostToGoal;
-                    if (neighbor.isOpen()) {
-                        openSet.update(neighbor);
-                    } else {
-                        openSet.insert(neighbor);//dont double count, dont insert into open set if it's already there
-                    }
+                double tentativeCost = currentCost + actionCost;
+                if (nodes.relax(res.x, res.y, res.z, hashCode, tentativeCost, minimumImprovement)) {
                     for (int i = 0; i < COEFFICIENTS.length; i++) {
-                        double heuristic = neighbor.estimatedCostToGoal + neighbor.cost / COEFFICIENTS[i];
+                        double heuristic = nodes.neighborEstimatedCostToGoal() + tentativeCost / COEFFICIENTS[i];
                         if (bestHeuristicSoFar[i] - heuristic > minimumImprovement) {
                             bestHeuristicSoFar[i] = heuristic;
-                            bestSoFar[i] = neighbor;
-                            if (failing && getDistFromStartSq(neighbor) > MIN_DIST_PATH * MIN_DIST_PATH) {
+                            nodes.neighborIsBestSoFar(i);
+                            if (failing && nodes.neighborDistFromStartSq() > MIN_DIST_PATH * MIN_DIST_PATH) {
                                 failing = false;
                             }
                         }
                     }
                 }
             }
+            calcContext.clearFocus();
         }
         if (cancelRequested) {
             return Optional.empty();
         }
+        return logStatsAndGetBest(numNodes, numMovementsConsidered, nodes.openSetSize(), startTime);
+    }
+
+    private Optional<IPath> logStatsAndGetBest(int numNodes, int numMovementsConsidered, int openSetSize, long startTime) {
         System.out.println(numMovementsConsidered + " movements considered");
-        System.out.println("Open set size: " + openSet.size());
-        System.out.println("PathNode map size: " + mapSize());
+        System.out.println("Open set size: " + openSetSize);
+        System.out.println((pool == null ? "PathNode map size: " : "PathNodePool size: ") + mapSize());
         System.out.println((int) (numNodes * 1.0 / ((System.currentTimeMillis() - startTime) / 1000F)) + " nodes per second");
         Optional<IPath> result = bestSoFar(true, numNodes);
         if (result.isPresent()) {
@@ -176,4 +178,240 @@ public final class AStarPathFinder extends AbstractNodeCostSearch {
         }
         return result;
     }
+
+    /**
+     * What {@link #search} needs from wherever the nodes are kept, so that the same loop runs over {@link PathNode}
+     * objects and over the int handles of a {@link PathNodePool}. Each one keeps track of the node being expanded
+     * and the neighbor last passed to {@link #relax}.
+     */
+    private interface Nodes {
+
+        /**
+         * Puts the start node in the open set, and makes it the best so far for every coefficient
+         *
+         * @return The estimated cost from the start to the goal
+         */
+        double start();
+
+        boolean isEmpty();
+
+        int openSetSize();
+
+        /**
+         * Takes the lowest node out of the open set, and makes it the one being expanded
+         */
+        void removeLowest();
+
+        int x();
+
+        int y();
+
+        int z();
+
+        double cost();
+
+        /**
+         * @return A path from the start to the node being expanded
+         */
+        IPath pathToCurrent(int numNodes);
+
+        /**
+         * Makes the node at this position the neighbor, and gets to it from the node being expanded if that's cheaper
+         * by more than minimumImprovement
+         *
+         * @return Whether it was cheaper
+         */
+        boolean relax(int x, int y, int z, long hashCode, double tentativeCost, double minimumImprovement);
+
+        double neighborEstimatedCostToGoal();
+
+        double neighborDistFromStartSq();
+
+        void neighborIsBestSoFar(int coefficient);
+    }
+
+    private final class ObjectNodes implements Nodes {
+
+        private final IOpenSet openSet = createOpenSet();
+        private PathNode current;
+        private PathNode neighbor;
+
+        @Override
+        public double start() {
+            startNode = getNodeAtPosition(startX, startY, startZ, BetterBlockPos.longHash(startX, startY, startZ));
+            startNode.cost = 0;
+            startNode.combinedCost = startNode.estimatedCostToGoal;
+            openSet.insert(startNode);
+            Arrays.fill(bestSoFar, startNode);
+            return startNode.estimatedCostToGoal;
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return openSet.isEmpty();
+        }
+
+        @Override
+        public int openSetSize() {
+            return openSet.size();
+        }
+
+        @Override
+        public void removeLowest() {
+            current = openSet.removeLowest();
+            mostRecentConsidered = current;
+        }
+
+        @Override
+        public int x() {
+            return current.x;
+        }
+
+        @Override
+        public int y() {
+            return current.y;
+        }
+
+        @Override
+        public int z() {
+            return current.z;
+        }
+
+        @Override
+        public double cost() {
+            return current.cost;
+        }
+
+        @Override
+        public IPath pathToCurrent(int numNodes) {
+            return new Path(startNode, current, numNodes, goal, calcContext);
+        }
+
+        @Override
+        public boolean relax(int x, int y, int z, long hashCode, double tentativeCost, double minimumImprovement) {
+            neighbor = getNodeAtPosition(x, y, z, hashCode);
+            if (neighbor.cost - tentativeCost > minimumImprovement) {
+                neighbor.previous = current;
+                neighbor.cost = tentativeCost;
+                neighbor.combinedCost = tentativeCost + neighbor.estimatedCostToGoal;
+                if (neighbor.isOpen()) {
+                    openSet.update(neighbor);
+                } else {
+                    openSet.insert(neighbor);//dont double count, dont insert into open set if it's already there
+                }
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        public double neighborEstimatedCostToGoal() {
+            return neighbor.estimatedCostToGoal;
+        }
+
+        @Override
+        public double neighborDistFromStartSq() {
+            return getDistFromStartSq(neighbor);
+        }
+
+        @Override
+        public void neighborIsBestSoFar(int coefficient) {
+            bestSoFar[coefficient] = neighbor;
+        }
+    }
+
+    private final class PooledNodes implements Nodes {
+
+        private final PathNodePool pool;
+        private final PooledBinaryHeapOpenSet openSet = createPooledOpenSet();
+        private int current;
+        private int neighbor;
+
+        private PooledNodes(PathNodePool pool) {
+            this.pool = pool;
+        }
+
+        @Override
+        public double start() {
+            startIndex = getNodeIndexAtPosition(startX, startY, startZ, BetterBlockPos.longHash(startX, startY, startZ));
+            pool.setCost(startIndex, 0);
+            pool.setCombinedCost(startIndex, pool.estimatedCostToGoal(startIndex));
+            openSet.insert(startIndex);
+            Arrays.fill(bestSoFarIndex, startIndex);
+            return pool.estimatedCostToGoal(startIndex);
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return openSet.isEmpty();
+        }
+
+        @Override
+        public int openSetSize() {
+            return openSet.size();
+        }
+
+        @Override
+        public void removeLowest() {
+            current = openSet.removeLowest();
+            mostRecentConsideredIndex = current;
+        }
+
+        @Override
+        public int x() {
+            return pool.x(current);
+        }
+
+        @Override
+        public int y() {
+            return pool.y(current);
+        }
+
+        @Override
+        public int z() {
+            return pool.z(current);
+        }
+
+        @Override
+        public double cost() {
+            return pool.cost(current);
+        }
+
+        @Override
+        public IPath pathToCurrent(int numNodes) {
+            return new Path(pool, startIndex, current, numNodes, goal, calcContext);
+        }
+
+        @Override
+        public boolean relax(int x, int y, int z, long hashCode, double tentativeCost, double minimumImprovement) {
+            neighbor = pool.getNodeAtPosition(x, y, z, hashCode);
+            if (pool.cost(neighbor) - tentativeCost > minimumImprovement) {
+                pool.setPrevious(neighbor, current);
+                pool.setCost(neighbor, tentativeCost);
+                pool.setCombinedCost(neighbor, tentativeCost + pool.estimatedCostToGoal(neighbor));
+                if (pool.isOpen(neighbor)) {
+                    openSet.update(neighbor);
+                } else {
+                    openSet.insert(neighbor);//dont double count, dont insert into open set if it's already there
+                }
+                return true;
+            }
+            return false;
+        }
+
+        @Override
+        public double neighborEstimatedCostToGoal() {
+            return pool.estimatedCostToGoal(neighbor);
+        }
+
+        @Override
+        public double neighborDistFromStartSq() {
+            return getDistFromStartSq(neighbor);
+        }
+
+        @Override
+        public void neighborIsBestSoFar(int coefficient) {
+            bestSoFarIndex[coefficient] = neighbor;
+        }
+    }
 }
@@ -24,9 +24,15 @@ import baritone.api.pathing.goals.Goal;
 import baritone.api.utils.BetterBlockPos;
 import baritone.api.utils.Helper;
 import baritone.api.utils.PathCalculationResult;
+import baritone.pathing.calc.openset.BinaryHeapOpenSet;
+import baritone.pathing.calc.openset.BucketOpenSet;
+import baritone.pathing.calc.openset.DAryHeapOpenSet;
+import baritone.pathing.calc.openset.IOpenSet;
+import baritone.pathing.calc.openset.PooledBinaryHeapOpenSet;
 import baritone.pathing.movement.CalculationContext;
 import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
 
+import java.util.Arrays;
 import java.util.Optional;
 
 /**
@@ -42,6 +48,11 @@ public abstract class AbstractNodeCostSearch implements IPathFinder, Helper {
 
     protected final Goal goal;
 
+    /**
+     * What the cost from each node to the goal is estimated with, the goal itself unless {@link #setHeuristic} says otherwise
+     */
+    protected Goal heuristic;
+
     private final CalculationContext context;
 
     /**
@@ -49,12 +60,42 @@ public abstract class AbstractNodeCostSearch implements IPathFinder, Helper {
      */
     private final Long2ObjectOpenHashMap<PathNode> map;
 
+    private final boolean useNodePool;
+
+    /**
+     * Used instead of {@link #map} and the {@link PathNode} fields below when {@link baritone.api.Settings#pathingNodePool} is on,
+     * null otherwise. Only set once {@link #calculate} starts, since it might be borrowed from {@link #arena}.
+     */
+    protected volatile PathNodePool pool;
+
+    /**
+     * Where to borrow {@link #pool} from, may be null
+     */
+    private final PathfinderArena arena;
+
+    /**
+     * Whether {@link #pool} was borrowed from {@link #arena}, rather than our own
+     */
+    private boolean poolBorrowed;
+
+    /**
+     * Set once {@link #pool} has been given back to the {@link #arena}, after which it belongs to the next search.
+     * Only changed while holding the pool's lock, so that nothing can be reading it at that moment.
+     */
+    private boolean poolReleased;
+
     protected PathNode startNode;
 
     protected PathNode mostRecentConsidered;
 
     protected final PathNode[] bestSoFar = new PathNode[COEFFICIENTS.length];
 
+    protected int startIndex = -1;
+
+    protected int mostRecentConsideredIndex = -1;
+
+    protected final int[] bestSoFarIndex = new int[COEFFICIENTS.length];
+
     private volatile boolean isFinished;
 
     protected boolean cancelRequested;
@@ -82,12 +123,32 @@ public abstract class AbstractNodeCostSearch implements IPathFinder, Helper {
     protected static final double MIN_IMPROVEMENT = 0.01;
 
     AbstractNodeCostSearch(int startX, int startY, int startZ, Goal goal, CalculationContext context) {
+        this(startX, startY, startZ, goal, context, null);
+    }
+
+    AbstractNodeCostSearch(int startX, int startY, int startZ, Goal goal, CalculationContext context, PathfinderArena arena) {
+        this(startX, startY, startZ, goal, context, arena, Baritone.settings().pathingNodePool.value);
+    }
+
+    AbstractNodeCostSearch(int startX, int startY, int startZ, Goal goal, CalculationContext context, PathfinderArena arena, boolean useNodePool) {
         this.startX = startX;
         this.startY = startY;
         this.startZ = startZ;
         this.goal = goal;
+        this.heuristic = goal;
         this.context = context;
-        this.map = new Long2ObjectOpenHashMap<>(Baritone.settings().pathingMapDefaultSize.value, Baritone.settings().pathingMapLoadFactor.value);
+        this.useNodePool = useNodePool;
+        this.arena = useNodePool ? arena : null;
+        this.map = useNodePool ? null : new Long2ObjectOpenHashMap<>(Baritone.settings().pathingMapDefaultSize.value, Baritone.settings().pathingMapLoadFactor.value);
+        Arrays.fill(bestSoFarIndex, -1);
+    }
+
+    /**
+     * Estimates the cost to the goal with something better informed than the goal, which has to agree with it about
+     * which positions are in it. Has to be called before {@link #calculate}, and doesn't change {@link #getGoal()}.
+     */
+    public void setHeuristic(Goal heuristic) {
+        this.heuristic = heuristic;
     }
 
     public void cancel() {
@@ -100,6 +161,12 @@ public abstract class AbstractNodeCostSearch implements IPathFinder, Helper {
             throw new IllegalStateException("Path finder cannot be reused!");
         }
         cancelRequested = false;
+        if (useNodePool) {
+            // borrowed here rather than when this is made, so that a finder that never runs never holds on to it
+            PathNodePool borrowed = arena == null ? null : arena.acquire(heuristic);
+            poolBorrowed = borrowed != null;
+            pool = borrowed != null ? borrowed : new PathNodePool(heuristic, Baritone.settings().pathingMapDefaultSize.value, Baritone.settings().pathingMapLoadFactor.value);
+        }
         try {
             IPath path = calculate0(primaryTimeout, failureTimeout).map(IPath::postProcess).orElse(null);
             if (cancelRequested) {
@@ -133,11 +200,39 @@ public abstract class AbstractNodeCostSearch implements IPathFinder, Helper {
         } finally {
             // this is run regardless of what exception may or may not be raised by calculate0
             isFinished = true;
+            if (poolBorrowed) {
+                synchronized (pool) {
+                    poolReleased = true;
+                }
+                arena.release();
+            }
         }
     }
 
     protected abstract Optional<IPath> calculate0(long primaryTimeout, long failureTimeout);
 
+    /**
+     * @return A new open set of whichever kind {@link baritone.api.Settings#pathingOpenSet} says
+     */
+    protected IOpenSet createOpenSet() {
+        switch (Baritone.settings().pathingOpenSet.value.toLowerCase()) {
+            case "quaternary":
+                return new DAryHeapOpenSet();
+            case "bucket":
+                return new BucketOpenSet();
+            default:
+                return new BinaryHeapOpenSet();
+        }
+    }
+
+    /**
+     * @return The open set to use with {@link #pool}, the one kept by the arena if the pool was borrowed from one. Always
+     * a binary heap, {@link baritone.api.Settings#pathingOpenSet} only picks between the ones for node objects.
+     */
+    protected PooledBinaryHeapOpenSet createPooledOpenSet() {
+        return poolBorrowed ? arena.openSet() : new PooledBinaryHeapOpenSet(pool);
+    }
+
     /**
      * Determines the distance squared from the specified node to the start
      * node. Intended for use in distance comparison, rather than anything that
@@ -153,6 +248,19 @@ public abstract class AbstractNodeCostSearch implements IPathFinder, Helper {
         return xDiff * xDiff + yDiff * yDiff + zDiff * zDiff;
     }
 
+    /**
+     * Same as {@link #getDistFromStartSq(PathNode)}, but for a node in the {@link #pool}
+     *
+     * @param node A node handle
+     * @return The distance, squared
+     */
+    protected double getDistFromStartSq(int node) {
+        int xDiff = pool.x(node) - startX;
+        int yDiff = pool.y(node) - startY;
+        int zDiff = pool.z(node) - startZ;
+        return xDiff * xDiff + yDiff * yDiff + zDiff * zDiff;
+    }
+
     /**
      * Attempts to search the block position hashCode long to {@link PathNode} map
      * for the node mapped to the specified pos. If no node is found,
@@ -169,32 +277,75 @@ public abstract class AbstractNodeCostSearch implements IPathFinder, Helper {
     protected PathNode getNodeAtPosition(int x, int y, int z, long hashCode) {
         PathNode node = map.get(hashCode);
         if (node == null) {
-            node = new PathNode(x, y, z, goal);
+            node = new PathNode(x, y, z, heuristic);
             map.put(hashCode, node);
         }
         return node;
     }
 
+    /**
+     * Same as {@link #getNodeAtPosition(int, int, int, long)}, but returns a handle into the {@link #pool}
+     */
+    protected int getNodeIndexAtPosition(int x, int y, int z, long hashCode) {
+        return pool.getNodeAtPosition(x, y, z, hashCode);
+    }
+
     @Override
     public Optional<IPath> pathToMostRecentNodeConsidered() {
+        if (useNodePool) {
+            int node = mostRecentConsideredIndex;
+            return node == -1 ? Optional.empty() : pooledPath(node, 0);
+        }
         return Optional.ofNullable(mostRecentConsidered).map(node -> new Path(startNode, node, 0, goal, context));
     }
 
+    private Optional<IPath> pooledPath(int end, int numNodes) {
+        PathNodePool pool = this.pool;
+        if (pool == null) {
+            return Optional.empty();
+        }
+        // held while the path is copied out, so the pool can't be given to the next search and reset halfway through
+        synchronized (pool) {
+            if (poolReleased) {
+                // the next search is using the pool now, nothing in it is ours anymore
+                return Optional.empty();
+            }
+            try {
+                return Optional.of(new Path(pool, startIndex, end, numNodes, goal, context));
+            } catch (RuntimeException ex) {
+                // this can be called from the render thread while the search thread is growing the pool arrays underneath us
+                // in that case we might see a stale array, and it isn't worth synchronizing the whole search just to avoid skipping a frame
+                if (isFinished) {
+                    throw ex;
+                }
+                return Optional.empty();
+            }
+        }
+    }
+
     @Override
     public Optional<IPath> bestPathSoFar() {
         return bestSoFar(false, 0);
     }
 
     protected Optional<IPath> bestSoFar(boolean logInfo, int numNodes) {
-        if (startNode == null) {
+        if (!useNodePool ? startNode == null : startIndex == -1) {
             return Optional.empty();
         }
         double bestDist = 0;
         for (int i = 0; i < COEFFICIENTS.length; i++) {
-            if (bestSoFar[i] == null) {
-                continue;
+            double dist;
+            if (!useNodePool) {
+                if (bestSoFar[i] == null) {
+                    continue;
+                }
+                dist = getDistFromStartSq(bestSoFar[i]);
+            } else {
+                if (bestSoFarIndex[i] == -1) {
+                    continue;
+                }
+                dist = getDistFromStartSq(bestSoFarIndex[i]);
             }
-            double dist = getDistFromStartSq(bestSoFar[i]);
             if (dist > bestDist) {
                 bestDist = dist;
             }
@@ -208,6 +359,9 @@ public abstract class AbstractNodeCostSearch implements IPathFinder, Helper {
                     System.out.println("Path goes for " + Math.sqrt(dist) + " blocks");
                     logDebug("A* cost coefficient " + COEFFICIENTS[i]);
                 }
+                if (useNodePool) {
+                    return pooledPath(bestSoFarIndex[i], numNodes);
+                }
                 return Optional.of(new Path(startNode, bestSoFar[i], numNodes, goal, context));
             }
         }
@@ -236,6 +390,6 @@ public abstract class AbstractNodeCostSearch implements IPathFinder, Helper {
     }
 
     protected int mapSize() {
-        return map.size();
+        return useNodePool ? pool.size() : map.size();
     }
 }
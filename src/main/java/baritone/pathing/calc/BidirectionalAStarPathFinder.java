@@ -0,0 +1,412 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Baritone.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package baritone.pathing.calc;
+
+import baritone.Baritone;
+import baritone.api.pathing.calc.IPath;
+import baritone.api.pathing.goals.Goal;
+import baritone.api.pathing.goals.GoalBlock;
+import baritone.api.pathing.goals.GoalGetToBlock;
+import baritone.api.pathing.goals.GoalTwoBlocks;
+import baritone.api.pathing.movement.ActionCosts;
+import baritone.api.utils.BetterBlockPos;
+import baritone.api.utils.interfaces.IGoalRenderPos;
+import baritone.pathing.calc.openset.IOpenSet;
+import baritone.pathing.movement.CalculationContext;
+import baritone.pathing.movement.MovementHelper;
+import baritone.pathing.movement.Moves;
+import baritone.utils.pathing.BetterWorldBorder;
+import baritone.utils.pathing.Favoring;
+import baritone.utils.pathing.MutableMoveResult;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import net.minecraft.core.BlockPos;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * A* from both ends at once, for goals that are a handful of concrete positions.
+ * <p>
+ * The forward half is exactly {@link AStarPathFinder}. The backward half starts at every position in the goal and
+ * walks towards the start. There are no reverse movements, so to find the ways into a node it tries every position
+ * that could possibly reach it with each of the {@link Moves}, and keeps the ones whose forward calculation actually
+ * lands there. That means every cost is still a real forward cost, it just might miss some very long falls.
+ * <p>
+ * Whenever a node is reached from both sides, that's a candidate path. The search stops when the cheapest node left
+ * on either side can't beat the best candidate, and the two halves are spliced together at the meeting point.
+ * If the backward half runs dry, the forward half just carries on alone.
+ */
+public final class BidirectionalAStarPathFinder extends AbstractNodeCostSearch {
+
+    private final Favoring favoring;
+    private final CalculationContext calcContext;
+
+    /**
+     * Backward nodes, where {@link PathNode#cost} is the cost to the goal and {@link PathNode#previous} is the next
+     * node towards the goal
+     */
+    private final Long2ObjectOpenHashMap<PathNode> backwardMap;
+    private final Long2ObjectOpenHashMap<PathNode> forwardMap;
+
+    /**
+     * The backward half aims for the start instead
+     */
+    private final Goal startGoal;
+
+    private final MutableMoveResult res = new MutableMoveResult();
+    private final IOpenSet backwardOpenSet = createOpenSet();
+
+    /**
+     * The cost of the best path found through a meeting point so far
+     */
+    private double bestMeetingCost = ActionCosts.COST_INF;
+    private PathNode meetingForward;
+    private PathNode meetingBackward;
+
+    private boolean isFavoring;
+    private int numMovementsConsidered;
+    private int numEmptyChunk;
+    private int maxFallHeight;
+    private int minY;
+    private int height;
+    private double minimumImprovement;
+
+    public BidirectionalAStarPathFinder(int startX, int startY, int startZ, Goal goal, Favoring favoring, CalculationContext context) {
+        super(startX, startY, startZ, goal, context, null, false);
+        this.favoring = favoring;
+        this.calcContext = context;
+        this.startGoal = new GoalBlock(startX, startY, startZ);
+        this.forwardMap = new Long2ObjectOpenHashMap<>(Baritone.settings().pathingMapDefaultSize.value, Baritone.settings().pathingMapLoadFactor.value);
+        this.backwardMap = new Long2ObjectOpenHashMap<>(Baritone.settings().pathingMapDefaultSize.value, Baritone.settings().pathingMapLoadFactor.value);
+    }
+
+    /**
+     * @param goal A goal
+     * @return Whether the goal is small and concrete enough to search backwards from
+     */
+    public static boolean supports(Goal goal) {
+        return goal instanceof GoalBlock || goal instanceof GoalTwoBlocks || goal instanceof GoalGetToBlock;
+    }
+
+    @Override
+    protected Optional<IPath> calculate0(long primaryTimeout, long failureTimeout) {
+        minY = calcContext.minY;
+        height = calcContext.height;
+        startNode = getForwardNode(startX, startY, startZ, BetterBlockPos.longHash(startX, startY, startZ));
+        startNode.cost = 0;
+        startNode.combinedCost = startNode.estimatedCostToGoal;
+        IOpenSet openSet = createOpenSet();
+        openSet.insert(startNode);
+        double[] bestHeuristicSoFar = new double[COEFFICIENTS.length];//keep track of the best node by the metric of (estimatedCostToGoal + cost / COEFFICIENTS[i])
+        for (int i = 0; i < bestHeuristicSoFar.length; i++) {
+            bestHeuristicSoFar[i] = startNode.estimatedCostToGoal;
+            bestSoFar[i] = startNode;
+        }
+        seedBackward();
+        BetterWorldBorder worldBorder = calcContext.worldBorder;
+        long startTime = System.currentTimeMillis();
+        long primaryTimeoutTime = startTime + primaryTimeout;
+        long failureTimeoutTime = startTime + failureTimeout;
+        boolean failing = true;
+        int numNodes = 0;
+        isFavoring = !favoring.isEmpty();
+        maxFallHeight = Math.max(calcContext.maxFallHeightNoWater, calcContext.hasWaterBucket ? calcContext.maxFallHeightBucket : 0);
+        int timeCheckInterval = 1 << 6;
+        int pathingMaxChunkBorderFetch = Baritone.settings().pathingMaxChunkBorderFetch.value; // grab all settings beforehand so that changing settings during pathing doesn't cause a crash or unpredictable behavior
+        minimumImprovement = Baritone.settings().minimumImprovementRepropagation.value ? MIN_IMPROVEMENT : 0;
+        Moves[] allMoves = Moves.values();
+        while (!openSet.isEmpty() && numEmptyChunk < pathingMaxChunkBorderFetch && !cancelRequested) {
+            if ((numNodes & (timeCheckInterval - 1)) == 0) { // only call this once every 64 nodes (about half a millisecond)
+                long now = System.currentTimeMillis(); // since nanoTime is slow on windows (takes many microseconds)
+                if (now - failureTimeoutTime >= 0 || (!failing && now - primaryTimeoutTime >= 0)) {
+                    break;
+                }
+            }
+            numNodes++;
+            // expand whichever side has the smaller frontier
+            if (!backwardOpenSet.isEmpty() && backwardOpenSet.size() < openSet.size()) {
+                PathNode currentNode = backwardOpenSet.removeLowest();
+                if (currentNode.combinedCost >= bestMeetingCost) {
+                    break;
+                }
+                expandBackward(currentNode, allMoves);
+                continue;
+            }
+            PathNode currentNode = openSet.removeLowest();
+            mostRecentConsidered = currentNode;
+            if (goal.isInGoal(currentNode.x, currentNode.y, currentNode.z)) {
+                logDebug("Took " + (System.currentTimeMillis() - startTime) + "ms, " + numMovementsConsidered + " movements considered");
+                return Optional.of(new Path(startNode, currentNode, numNodes, goal, calcContext));
+            }
+            if (currentNode.combinedCost >= bestMeetingCost) {
+                break;
+            }
+            calcContext.focusOn(currentNode.x, currentNode.y, currentNode.z);
+            for (Moves moves : allMoves) {
+                int newX = currentNode.x + moves.xOffset;
+                int newZ = currentNode.z + moves.zOffset;
+                if ((newX >> 4 != currentNode.x >> 4 || newZ >> 4 != currentNode.z >> 4) && !calcContext.isLoaded(newX, newZ)) {
+                    // only need to check if the destination is a loaded chunk if it's in a different chunk than the start of the movement
+                    if (!moves.dynamicXZ) { // only increment the counter if the movement would have gone out of bounds guaranteed
+                        numEmptyChunk++;
+                    }
+                    continue;
+                }
+                if (!moves.dynamicXZ && !worldBorder.entirelyContains(newX, newZ)) {
+                    continue;
+                }
+                if (currentNode.y + moves.yOffset > height || currentNode.y + moves.yOffset < minY) {
+                    continue;
+                }
+                res.reset();
+                calcContext.apply(moves, currentNode.x, currentNode.y, currentNode.z, res);
+                numMovementsConsidered++;
+                double actionCost = res.cost;
+                if (actionCost >= ActionCosts.COST_INF) {
+                    continue;
+                }
+                if (actionCost <= 0 || Double.isNaN(actionCost)) {
+                    throw new IllegalStateException(moves + " calculated implausible cost " + actionCost);
+                }
+                // check destination after verifying it's not COST_INF -- some movements return a static IMPOSSIBLE object with COST_INF and destination being 0,0,0 to avoid allocating a new result for every failed calculation
+                if (moves.dynamicXZ && !worldBorder.entirelyContains(res.x, res.z)) { // see issue #218
+                    continue;
+                }
+                if (!moves.dynamicXZ && (res.x != newX || res.z != newZ)) {
+                    throw new IllegalStateException(moves + " " + res.x + " " + newX + " " + res.z + " " + newZ);
+                }
+                if (!moves.dynamicY && res.y != currentNode.y + moves.yOffset) {
+                    throw new IllegalStateException(moves + " " + res.y + " " + (currentNode.y + moves.yOffset));
+                }
+                long hashCode = BetterBlockPos.longHash(res.x, res.y, res.z);
+                if (isFavoring) {
+                    // see issue #18
+                    actionCost *= favoring.calculate(res.x, res.z, hashCode);
+                }
+                PathNode neighbor = getForwardNode(res.x, res.y, res.z, hashCode);
+                double tentativeCost = currentNode.cost + actionCost;
+                if (neighbor.cost - tentativeCost > minimumImprovement) {
+                    neighbor.previous = currentNode;
+                    neighbor.cost = tentativeCost;
+                    neighbor.combinedCost = tentativeCost + neighbor.estimatedCostToGoal;
+                    if (neighbor.isOpen()) {
+                        openSet.update(neighbor);
+                    } else {
+                        openSet.insert(neighbor);//dont double count, dont insert into open set if it's already there
+                    }
+                    checkMeeting(neighbor, backwardMap.get(hashCode));
+                    for (int i = 0; i < COEFFICIENTS.length; i++) {
+                        double heuristic = neighbor.estimatedCostToGoal + neighbor.cost / COEFFICIENTS[i];
+                        if (bestHeuristicSoFar[i] - heuristic > minimumImprovement) {
+                            bestHeuristicSoFar[i] = heuristic;
+                            bestSoFar[i] = neighbor;
+                            if (failing && getDistFromStartSq(neighbor) > MIN_DIST_PATH * MIN_DIST_PATH) {
+                                failing = false;
+                            }
+                        }
+                    }
+                }
+            }
+            calcContext.clearFocus();
+        }
+        if (cancelRequested) {
+            return Optional.empty();
+        }
+        System.out.println(numMovementsConsidered + " movements considered");
+        System.out.println("Open set size: " + openSet.size() + " forward, " + backwardOpenSet.size() + " backward");
+        System.out.println("PathNode map size: " + mapSize());
+        System.out.println((int) (numNodes * 1.0 / ((System.currentTimeMillis() - startTime) / 1000F)) + " nodes per second");
+        if (meetingForward != null) {
+            logDebug("Took " + (System.currentTimeMillis() - startTime) + "ms, " + numMovementsConsidered + " movements considered, met in the middle");
+            return Optional.of(splice(numNodes));
+        }
+        Optional<IPath> result = bestSoFar(true, numNodes);
+        if (result.isPresent()) {
+            logDebug("Took " + (System.currentTimeMillis() - startTime) + "ms, " + numMovementsConsidered + " movements considered");
+        }
+        return result;
+    }
+
+    private void seedBackward() {
+        BlockPos pos = ((IGoalRenderPos) goal).getGoalPos();
+        // every supported goal fits in this box around its position
+        for (int dx = -1; dx <= 1; dx++) {
+            for (int dy = -2; dy <= 1; dy++) {
+                for (int dz = -1; dz <= 1; dz++) {
+                    int x = pos.getX() + dx;
+                    int y = pos.getY() + dy;
+                    int z = pos.getZ() + dz;
+                    if (!goal.isInGoal(x, y, z)) {
+                        continue;
+                    }
+                    PathNode node = getBackwardNode(x, y, z, BetterBlockPos.longHash(x, y, z));
+                    node.cost = 0;
+                    node.combinedCost = node.estimatedCostToGoal;
+                    backwardOpenSet.insert(node);
+                }
+            }
+        }
+    }
+
+    private void expandBackward(PathNode node, Moves[] allMoves) {
+        for (Moves moves : allMoves) {
+            if (moves.dynamicXZ) {
+                // parkour, from two to four blocks back, either level or one below for a parkour ascend
+                int dirX = Integer.signum(moves.xOffset);
+                int dirZ = Integer.signum(moves.zOffset);
+                for (int dist = 2; dist <= 4; dist++) {
+                    int srcX = node.x - dirX * dist;
+                    int srcZ = node.z - dirZ * dist;
+                    if (!isLoaded(node, srcX, srcZ)) {
+                        // the forward half doesn't count these either, since they might not have gone that far
+                        continue;
+                    }
+                    tryPredecessor(moves, node, srcX, node.y, srcZ);
+                    tryPredecessor(moves, node, srcX, node.y - 1, srcZ);
+                }
+                continue;
+            }
+            int srcX = node.x - moves.xOffset;
+            int srcZ = node.z - moves.zOffset;
+            if (!isLoaded(node, srcX, srcZ)) {
+                numEmptyChunk++; // once per movement, the same as the forward half
+                continue;
+            }
+            if (moves.dynamicY) {
+                // diagonals can go up or down one, descends can keep going as falls
+                tryPredecessor(moves, node, srcX, node.y - 1, srcZ);
+                tryPredecessor(moves, node, srcX, node.y, srcZ);
+                for (int up = 1; up <= maxFallHeight; up++) {
+                    // falling in from higher up needs a clear column above us
+                    if (!MovementHelper.canWalkThrough(calcContext, node.x, node.y + up + 1, node.z)) {
+                        break;
+                    }
+                    tryPredecessor(moves, node, srcX, node.y + up, srcZ);
+                }
+            } else {
+                tryPredecessor(moves, node, srcX, node.y - moves.yOffset, srcZ);
+            }
+        }
+    }
+
+    /**
+     * @return Whether a movement from this column into the node could have been worked out
+     */
+    private boolean isLoaded(PathNode dest, int x, int z) {
+        // only need to check if it's a different chunk than the node itself
+        return (x >> 4 == dest.x >> 4 && z >> 4 == dest.z >> 4) || calcContext.isLoaded(x, z);
+    }
+
+    private void tryPredecessor(Moves moves, PathNode dest, int x, int y, int z) {
+        if (y > height || y < minY) {
+            return;
+        }
+        if (!calcContext.worldBorder.entirelyContains(x, z)) {
+            return;
+        }
+        res.reset();
+        calcContext.focusOn(x, y, z);
+        calcContext.apply(moves, x, y, z, res);
+        calcContext.clearFocus();
+        numMovementsConsidered++;
+        double actionCost = res.cost;
+        if (actionCost >= ActionCosts.COST_INF || res.x != dest.x || res.y != dest.y || res.z != dest.z) {
+            return;
+        }
+        if (actionCost <= 0 || Double.isNaN(actionCost)) {
+            throw new IllegalStateException(moves + " calculated implausible cost " + actionCost);
+        }
+        if (isFavoring) {
+            // the forward search favors by destination, so do the same here
+            actionCost *= favoring.calculate(dest.x, dest.z, BetterBlockPos.longHash(dest.x, dest.y, dest.z));
+        }
+        long hashCode = BetterBlockPos.longHash(x, y, z);
+        PathNode neighbor = getBackwardNode(x, y, z, hashCode);
+        double tentativeCost = dest.cost + actionCost;
+        if (neighbor.cost - tentativeCost > minimumImprovement) {
+            neighbor.previous = dest;
+            neighbor.cost = tentativeCost;
+            neighbor.combinedCost = tentativeCost + neighbor.estimatedCostToGoal;
+            if (neighbor.isOpen()) {
+                backwardOpenSet.update(neighbor);
+            } else {
+                backwardOpenSet.insert(neighbor);
+            }
+            checkMeeting(forwardMap.get(hashCode), neighbor);
+        }
+    }
+
+    private void checkMeeting(PathNode forward, PathNode backward) {
+        if (forward == null || backward == null || forward.cost >= ActionCosts.COST_INF || backward.cost >= ActionCosts.COST_INF) {
+            return;
+        }
+        double cost = forward.cost + backward.cost;
+        if (cost < bestMeetingCost) {
+            bestMeetingCost = cost;
+            meetingForward = forward;
+            meetingBackward = backward;
+        }
+    }
+
+    private Path splice(int numNodes) {
+        List<BetterBlockPos> positions = new ArrayList<>();
+        List<Double> costs = new ArrayList<>();
+        for (PathNode node = meetingForward; node != null; node = node.previous) {
+            positions.add(new BetterBlockPos(node.x, node.y, node.z));
+            costs.add(node.cost);
+        }
+        Collections.reverse(positions);
+        Collections.reverse(costs);
+        double total = meetingForward.cost + meetingBackward.cost;
+        // the meeting node itself is already in there from the forward half
+        for (PathNode node = meetingBackward.previous; node != null; node = node.previous) {
+            positions.add(new BetterBlockPos(node.x, node.y, node.z));
+            costs.add(total - node.cost);
+        }
+        double[] costArray = new double[costs.size()];
+        for (int i = 0; i < costArray.length; i++) {
+            costArray[i] = costs.get(i);
+        }
+        return new Path(positions, costArray, numNodes, goal, calcContext);
+    }
+
+    private PathNode getForwardNode(int x, int y, int z, long hashCode) {
+        PathNode node = forwardMap.get(hashCode);
+        if (node == null) {
+            node = new PathNode(x, y, z, heuristic);
+            forwardMap.put(hashCode, node);
+        }
+        return node;
+    }
+
+    private PathNode getBackwardNode(int x, int y, int z, long hashCode) {
+        PathNode node = backwardMap.get(hashCode);
+        if (node == null) {
+            node = new PathNode(x, y, z, startGoal);
+            backwardMap.put(hashCode, node);
+        }
+        return node;
+    }
+
+    @Override
+    protected int mapSize() {
+        return forwardMap.size() + backwardMap.size();
+    }
+}
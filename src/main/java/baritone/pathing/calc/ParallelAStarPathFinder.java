@@ -0,0 +1,463 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Baritone.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package baritone.pathing.calc;
+
+import baritone.Baritone;
+import baritone.api.pathing.calc.IPath;
+import baritone.api.pathing.goals.Goal;
+import baritone.api.pathing.movement.ActionCosts;
+import baritone.api.utils.BetterBlockPos;
+import baritone.pathing.calc.openset.IOpenSet;
+import baritone.pathing.movement.CalculationContext;
+import baritone.pathing.movement.Moves;
+import baritone.utils.pathing.BetterWorldBorder;
+import baritone.utils.pathing.Favoring;
+import baritone.utils.pathing.MutableMoveResult;
+import it.unimi.dsi.fastutil.HashCommon;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Hash distributed A*, the same search as {@link AStarPathFinder} but spread over several threads.
+ * <p>
+ * Every position is owned by exactly one worker, decided by its hash. Each worker has its own node map, open set
+ * and {@link CalculationContext}, and only ever touches the nodes it owns. When a worker expands a node and finds a
+ * neighbor owned by someone else, it sends the neighbor's tentative cost to the owner's inbox instead.
+ * <p>
+ * The search ends as soon as any worker takes a node in the goal out of its open set, just like {@link AStarPathFinder}
+ * does. Waiting for a provably cheaper one could run all the way to the timeout, since the heuristic isn't consistent.
+ * If several workers get there at the same moment, the cheapest of theirs is kept. Otherwise the search is over once
+ * nobody has anything left to expand and no messages are in flight.
+ * <p>
+ * Workers with nothing to expand block on their inbox. Whatever ends the search wakes all of them up.
+ */
+public final class ParallelAStarPathFinder extends AbstractNodeCostSearch {
+
+    /**
+     * Sent to every worker's inbox when the search ends, so that the idle ones stop waiting
+     */
+    private static final Message WAKE = new Message(0, 0, 0, 0, 0, null);
+
+    private final Favoring favoring;
+    private final CalculationContext calcContext;
+    private final Worker[] workers;
+
+    /**
+     * The number of workers with nodes left to expand, plus the number of messages that have been sent but not yet
+     * processed. Once this hits zero, nothing can ever make it go back up, and the search is complete.
+     */
+    private final AtomicLong work = new AtomicLong();
+
+    private final AtomicInteger numEmptyChunk = new AtomicInteger();
+
+    private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+    private volatile boolean stop;
+
+    private volatile boolean failing;
+
+    private final Object incumbentLock = new Object();
+
+    private PathNode incumbent;
+
+    private volatile double incumbentCost;
+
+    /**
+     * The best of every worker's best so far, guarded by {@link #bestSoFar}
+     */
+    private final double[] bestHeuristicSoFar = new double[COEFFICIENTS.length];
+
+    private boolean isFavoring;
+    private int pathingMaxChunkBorderFetch;
+    private double minimumImprovement;
+    private long primaryTimeoutTime;
+    private long failureTimeoutTime;
+
+    public ParallelAStarPathFinder(int startX, int startY, int startZ, Goal goal, Favoring favoring, CalculationContext context, int threads) {
+        super(startX, startY, startZ, goal, context, null, false);
+        this.favoring = favoring;
+        this.calcContext = context;
+        this.workers = new Worker[Math.max(1, threads)];
+    }
+
+    @Override
+    protected Optional<IPath> calculate0(long primaryTimeout, long failureTimeout) {
+        for (int i = 0; i < workers.length; i++) {
+            // the first worker runs on this thread and can just use the context we were given
+            workers[i] = new Worker(i, i == 0 ? calcContext : new CalculationContext(calcContext));
+        }
+        long startHash = BetterBlockPos.longHash(startX, startY, startZ);
+        Worker startOwner = workers[ownerOf(startHash)];
+        startNode = startOwner.getNodeAtPosition(startX, startY, startZ, startHash);
+        startNode.cost = 0;
+        startNode.combinedCost = startNode.estimatedCostToGoal;
+        startOwner.openSet.insert(startNode);
+        startOwner.active = true;
+        work.set(1);
+        for (int i = 0; i < COEFFICIENTS.length; i++) {
+            bestHeuristicSoFar[i] = startNode.estimatedCostToGoal;
+            bestSoFar[i] = startNode;
+        }
+        for (Worker worker : workers) {
+            System.arraycopy(bestHeuristicSoFar, 0, worker.bestHeuristicSoFar, 0, COEFFICIENTS.length);
+        }
+        incumbentCost = ActionCosts.COST_INF;
+        failing = true;
+        long startTime = System.currentTimeMillis();
+        primaryTimeoutTime = startTime + primaryTimeout;
+        failureTimeoutTime = startTime + failureTimeout;
+        isFavoring = !favoring.isEmpty();
+        pathingMaxChunkBorderFetch = Baritone.settings().pathingMaxChunkBorderFetch.value; // grab all settings beforehand so that changing settings during pathing doesn't cause a crash or unpredictable behavior
+        minimumImprovement = Baritone.settings().minimumImprovementRepropagation.value ? MIN_IMPROVEMENT : 0;
+
+        CountDownLatch latch = new CountDownLatch(workers.length - 1);
+        for (int i = 1; i < workers.length; i++) {
+            Worker worker = workers[i];
+            Baritone.getExecutor().execute(() -> {
+                try {
+                    worker.run();
+                } finally {
+                    latch.countDown();
+                }
+            });
+        }
+        workers[0].run();
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            stopAll();
+            Thread.currentThread().interrupt();
+        }
+        if (failure.get() != null) {
+            throw new IllegalStateException("Pathing worker failed", failure.get());
+        }
+        if (cancelRequested) {
+            return Optional.empty();
+        }
+        int numNodes = 0;
+        int numMovementsConsidered = 0;
+        for (Worker worker : workers) {
+            numNodes += worker.numNodes;
+            numMovementsConsidered += worker.numMovementsConsidered;
+        }
+        System.out.println(numMovementsConsidered + " movements considered over " + workers.length + " threads");
+        System.out.println("PathNode map size: " + mapSize());
+        System.out.println((int) (numNodes * 1.0 / ((System.currentTimeMillis() - startTime) / 1000F)) + " nodes per second");
+        if (incumbent != null) {
+            logDebug("Took " + (System.currentTimeMillis() - startTime) + "ms, " + numMovementsConsidered + " movements considered");
+            return Optional.of(new Path(startNode, incumbent, numNodes, goal, calcContext));
+        }
+        Optional<IPath> result = bestSoFar(true, numNodes);
+        if (result.isPresent()) {
+            logDebug("Took " + (System.currentTimeMillis() - startTime) + "ms, " + numMovementsConsidered + " movements considered");
+        }
+        return result;
+    }
+
+    private int ownerOf(long hashCode) {
+        return (int) ((HashCommon.mix(hashCode) >>> 1) % workers.length);
+    }
+
+    /**
+     * Ends the search, and wakes up every worker that's waiting for a message so that it notices
+     */
+    private void stopAll() {
+        stop = true;
+        for (Worker worker : workers) {
+            worker.inbox.offer(WAKE);
+        }
+    }
+
+    private void offerIncumbent(PathNode node) {
+        synchronized (incumbentLock) {
+            if (node.cost < incumbentCost) {
+                incumbent = node;
+                incumbentCost = node.cost;
+            }
+        }
+    }
+
+    @Override
+    public Optional<IPath> pathToMostRecentNodeConsidered() {
+        PathNode node = mostRecentConsidered;
+        if (node == null || !isFinished() && !reachesStart(node)) {
+            return Optional.empty();
+        }
+        return super.pathToMostRecentNodeConsidered();
+    }
+
+    @Override
+    public Optional<IPath> bestPathSoFar() {
+        if (!isFinished()) {
+            for (PathNode node : bestSoFar) {
+                if (node != null && !reachesStart(node)) {
+                    return Optional.empty();
+                }
+            }
+        }
+        return super.bestPathSoFar();
+    }
+
+    /**
+     * While the search is running, other threads can only see a possibly inconsistent snapshot of the previous nodes.
+     * This makes sure following them can't loop forever before we hand them to {@link Path}.
+     */
+    private boolean reachesStart(PathNode node) {
+        int limit = mapSize() + 1;
+        for (int i = 0; node != null; i++) {
+            if (i > limit) {
+                return false;
+            }
+            node = node.previous;
+        }
+        return true;
+    }
+
+    @Override
+    protected int mapSize() {
+        int size = 0;
+        for (Worker worker : workers) {
+            if (worker != null) {
+                size += worker.map.size();
+            }
+        }
+        return size;
+    }
+
+    /**
+     * A tentative cost for a node, sent to the worker that owns it
+     */
+    private static final class Message {
+
+        private final int x;
+        private final int y;
+        private final int z;
+        private final long hashCode;
+        private final double cost;
+        private final PathNode previous;
+
+        private Message(int x, int y, int z, long hashCode, double cost, PathNode previous) {
+            this.x = x;
+            this.y = y;
+            this.z = z;
+            this.hashCode = hashCode;
+            this.cost = cost;
+            this.previous = previous;
+        }
+    }
+
+    private final class Worker implements Runnable {
+
+        private final int id;
+        private final CalculationContext calcContext;
+        private final Long2ObjectOpenHashMap<PathNode> map;
+        private final IOpenSet openSet = createOpenSet();
+        private final LinkedBlockingQueue<Message> inbox = new LinkedBlockingQueue<>();
+        private final MutableMoveResult res = new MutableMoveResult();
+        private final double[] bestHeuristicSoFar = new double[COEFFICIENTS.length];
+
+        /**
+         * Whether this worker is counted in {@link #work}
+         */
+        private boolean active;
+
+        private int numNodes;
+        private int numMovementsConsidered;
+
+        private Worker(int id, CalculationContext calcContext) {
+            this.id = id;
+            this.calcContext = calcContext;
+            this.map = new Long2ObjectOpenHashMap<>(Baritone.settings().pathingMapDefaultSize.value, Baritone.settings().pathingMapLoadFactor.value);
+        }
+
+        private PathNode getNodeAtPosition(int x, int y, int z, long hashCode) {
+            PathNode node = map.get(hashCode);
+            if (node == null) {
+                node = new PathNode(x, y, z, heuristic);
+                map.put(hashCode, node);
+            }
+            return node;
+        }
+
+        @Override
+        public void run() {
+            try {
+                search();
+            } catch (Throwable t) {
+                failure.compareAndSet(null, t);
+                stopAll();
+            }
+        }
+
+        private void search() {
+            int minY = calcContext.minY;
+            int height = calcContext.height;
+            BetterWorldBorder worldBorder = calcContext.worldBorder;
+            Moves[] allMoves = Moves.values();
+            int timeCheckInterval = 1 << 6;
+            while (!stop) {
+                Message message;
+                while ((message = inbox.poll()) != null) {
+                    receive(message);
+                }
+                if (openSet.isEmpty()) {
+                    if (active) {
+                        active = false;
+                        if (work.decrementAndGet() == 0) {
+                            stopAll();
+                            return;
+                        }
+                    }
+                    if (stop) {
+                        return; // the wake up might have been in the messages that were just handled
+                    }
+                    try {
+                        // only ever waits while some other worker is busy, and that one wakes us if it ends the search
+                        receive(inbox.take());
+                    } catch (InterruptedException e) {
+                        stopAll();
+                        Thread.currentThread().interrupt();
+                    }
+                    continue;
+                }
+                if ((numNodes & (timeCheckInterval - 1)) == 0) { // only call this once every 64 nodes (about half a millisecond)
+                    long now = System.currentTimeMillis(); // since nanoTime is slow on windows (takes many microseconds)
+                    if (now - failureTimeoutTime >= 0 || (!failing && now - primaryTimeoutTime >= 0) || cancelRequested || numEmptyChunk.get() >= pathingMaxChunkBorderFetch) {
+                        stopAll();
+                        return;
+                    }
+                }
+                PathNode currentNode = openSet.removeLowest();
+                numNodes++;
+                if (id == 0) {
+                    mostRecentConsidered = currentNode;
+                }
+                if (goal.isInGoal(currentNode.x, currentNode.y, currentNode.z)) {
+                    offerIncumbent(currentNode);
+                    stopAll();
+                    return;
+                }
+                calcContext.focusOn(currentNode.x, currentNode.y, currentNode.z);
+                for (Moves moves : allMoves) {
+                    int newX = currentNode.x + moves.xOffset;
+                    int newZ = currentNode.z + moves.zOffset;
+                    if ((newX >> 4 != currentNode.x >> 4 || newZ >> 4 != currentNode.z >> 4) && !calcContext.isLoaded(newX, newZ)) {
+                        // only need to check if the destination is a loaded chunk if it's in a different chunk than the start of the movement
+                        if (!moves.dynamicXZ) { // only increment the counter if the movement would have gone out of bounds guaranteed
+                            numEmptyChunk.incrementAndGet();
+                        }
+                        continue;
+                    }
+                    if (!moves.dynamicXZ && !worldBorder.entirelyContains(newX, newZ)) {
+                        continue;
+                    }
+                    if (currentNode.y + moves.yOffset > height || currentNode.y + moves.yOffset < minY) {
+                        continue;
+                    }
+                    res.reset();
+                    calcContext.apply(moves, currentNode.x, currentNode.y, currentNode.z, res);
+                    numMovementsConsidered++;
+                    double actionCost = res.cost;
+                    if (actionCost >= ActionCosts.COST_INF) {
+                        continue;
+                    }
+                    if (actionCost <= 0 || Double.isNaN(actionCost)) {
+                        throw new IllegalStateException(moves + " calculated implausible cost " + actionCost);
+                    }
+                    // check destination after verifying it's not COST_INF -- some movements return a static IMPOSSIBLE object with COST_INF and destination being 0,0,0 to avoid allocating a new result for every failed calculation
+                    if (moves.dynamicXZ && !worldBorder.entirelyContains(res.x, res.z)) { // see issue #218
+                        continue;
+                    }
+                    if (!moves.dynamicXZ && (res.x != newX || res.z != newZ)) {
+                        throw new IllegalStateException(moves + " " + res.x + " " + newX + " " + res.z + " " + newZ);
+                    }
+                    if (!moves.dynamicY && res.y != currentNode.y + moves.yOffset) {
+                        throw new IllegalStateException(moves + " " + res.y + " " + (currentNode.y + moves.yOffset));
+                    }
+                    long hashCode = BetterBlockPos.longHash(res.x, res.y, res.z);
+                    if (isFavoring) {
+                        // see issue #18
+                        actionCost *= favoring.calculate(res.x, res.z, hashCode);
+                    }
+                    double tentativeCost = currentNode.cost + actionCost;
+                    int owner = ownerOf(hashCode);
+                    if (owner == id) {
+                        relax(res.x, res.y, res.z, hashCode, tentativeCost, currentNode);
+                    } else {
+                        work.incrementAndGet(); // before sending, so the receiver can't uncount it first
+                        workers[owner].inbox.add(new Message(res.x, res.y, res.z, hashCode, tentativeCost, currentNode));
+                    }
+                }
+                calcContext.clearFocus();
+            }
+        }
+
+        private void receive(Message message) {
+            if (message == WAKE) {
+                return; // only here so that the loop checks whether it should stop
+            }
+            relax(message.x, message.y, message.z, message.hashCode, message.cost, message.previous);
+            if (!active && !openSet.isEmpty()) {
+                active = true;
+                work.incrementAndGet(); // count ourselves before uncounting the message, so work can't touch zero in between
+            }
+            if (work.decrementAndGet() == 0) {
+                stopAll();
+            }
+        }
+
+        private void relax(int x, int y, int z, long hashCode, double tentativeCost, PathNode previous) {
+            PathNode neighbor = getNodeAtPosition(x, y, z, hashCode);
+            if (neighbor.cost - tentativeCost > minimumImprovement) {
+                neighbor.previous = previous;
+                neighbor.cost = tentativeCost;
+                neighbor.combinedCost = tentativeCost + neighbor.estimatedCostToGoal;
+                if (neighbor.isOpen()) {
+                    openSet.update(neighbor);
+                } else {
+                    openSet.insert(neighbor);//dont double count, dont insert into open set if it's already there
+                }
+                for (int i = 0; i < COEFFICIENTS.length; i++) {
+                    double heuristic = neighbor.estimatedCostToGoal + neighbor.cost / COEFFICIENTS[i];
+                    if (bestHeuristicSoFar[i] - heuristic > minimumImprovement) {
+                        bestHeuristicSoFar[i] = heuristic;
+                        offerBestSoFar(i, neighbor, heuristic);
+                    }
+                }
+            }
+        }
+
+        private void offerBestSoFar(int i, PathNode node, double heuristic) {
+            synchronized (bestSoFar) {
+                if (ParallelAStarPathFinder.this.bestHeuristicSoFar[i] - heuristic > minimumImprovement) {
+                    ParallelAStarPathFinder.this.bestHeuristicSoFar[i] = heuristic;
+                    bestSoFar[i] = node;
+                    if (failing && getDistFromStartSq(node) > MIN_DIST_PATH * MIN_DIST_PATH) {
+                        failing = false;
+                    }
+                }
+            }
+        }
+    }
+}
@@ -29,6 +29,7 @@ import baritone.pathing.path.CutoffPath;
 import baritone.utils.pathing.PathBase;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
@@ -58,7 +59,10 @@ class Path extends PathBase {
 
     private final List<Movement> movements;
 
-    private final List<PathNode> nodes;
+    /**
+     * The cost of getting from the start to each position in {@link #path}
+     */
+    private final double[] costs;
 
     private final Goal goal;
 
@@ -89,7 +93,59 @@ class Path extends PathBase {
         // inserting into a LinkedList<E> keeps track of length, then when we addall (which calls .toArray) it's able
         // to performantly do that conversion since it knows the length.
         this.path = new ArrayList<>(tempPath);
-        this.nodes = new ArrayList<>(tempNodes);
+        this.costs = new double[tempNodes.size()];
+        int i = 0;
+        for (PathNode node : tempNodes) {
+            costs[i++] = node.cost;
+        }
+    }
+
+    /**
+     * For searches that don't end up with a single chain of previous nodes, such as one spliced together from two halves
+     *
+     * @param positions Every position on the path, in order
+     * @param costs     The cost of getting from the start to each of those positions
+     */
+    Path(List<BetterBlockPos> positions, double[] costs, int numNodes, Goal goal, CalculationContext context) {
+        if (positions.isEmpty() || positions.size() != costs.length) {
+            throw new IllegalArgumentException(positions.size() + " positions but " + costs.length + " costs");
+        }
+        this.path = new ArrayList<>(positions);
+        this.costs = costs;
+        this.start = path.get(0);
+        this.end = path.get(path.size() - 1);
+        this.numNodes = numNodes;
+        this.movements = new ArrayList<>();
+        this.goal = goal;
+        this.context = context;
+    }
+
+    Path(PathNodePool pool, int start, int end, int numNodes, Goal goal, CalculationContext context) {
+        // here we can just count the length first, no linked list needed
+        int length = 0;
+        for (int node = end; node != -1; node = pool.previous(node)) {
+            if (++length > pool.size()) {
+                throw new IllegalStateException("Cycle in previous nodes");
+            }
+        }
+        BetterBlockPos[] positions = new BetterBlockPos[length];
+        this.costs = new double[length];
+        int node = end;
+        for (int i = length - 1; i >= 0; i--) {
+            positions[i] = new BetterBlockPos(pool.x(node), pool.y(node), pool.z(node));
+            costs[i] = pool.cost(node);
+            node = pool.previous(node);
+        }
+        if (positions[0].x != pool.x(start) || positions[0].y != pool.y(start) || positions[0].z != pool.z(start)) {
+            throw new IllegalStateException("Path does not begin at the start node");
+        }
+        this.path = new ArrayList<>(Arrays.asList(positions));
+        this.start = positions[0];
+        this.end = positions[length - 1];
+        this.numNodes = numNodes;
+        this.movements = new ArrayList<>();
+        this.goal = goal;
+        this.context = context;
     }
 
     @Override
@@ -102,7 +158,7 @@ class Path extends PathBase {
             throw new IllegalStateException();
         }
         for (int i = 0; i < path.size() - 1; i++) {
-            double cost = nodes.get(i + 1).cost - nodes.get(i).cost;
+            double cost = costs[i + 1] - costs[i];
             Movement move = runBackwards(path.get(i), path.get(i + 1), cost);
             if (move == null) {
                 return true;
@@ -0,0 +1,222 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Baritone.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package baritone.pathing.calc;
+
+import baritone.api.pathing.goals.Goal;
+import baritone.api.pathing.movement.ActionCosts;
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+
+import java.util.Arrays;
+
+/**
+ * The same data as {@link PathNode}, but stored as parallel primitive arrays instead of one object per position.
+ * <p>
+ * Nodes are referred to by int handles, which are indices into these arrays. A long search touches millions of
+ * positions, and allocating a {@link PathNode} for every single one of them is what causes the GC pauses.
+ * Here, the only allocations are the occasional array doublings.
+ */
+public final class PathNodePool {
+
+    /**
+     * The initial capacity of the arrays (2^10)
+     */
+    private static final int INITIAL_CAPACITY = 1024;
+
+    /**
+     * Maps {@link baritone.api.utils.BetterBlockPos#longHash(int, int, int)} to node handle
+     */
+    private final Long2IntOpenHashMap map;
+
+    private Goal goal;
+
+    private int[] x;
+    private int[] y;
+    private int[] z;
+
+    /**
+     * Cached, should always be equal to goal.heuristic(pos)
+     */
+    private double[] estimatedCostToGoal;
+
+    /**
+     * Total cost of getting from start to here
+     */
+    private double[] cost;
+
+    /**
+     * Should always be equal to estimatedCostToGoal + cost
+     */
+    private double[] combinedCost;
+
+    /**
+     * The handle of the previous node, plus one. Stored offset by one so that zero (the default value of a fresh
+     * array slot) means "no previous node", that way a reader on another thread can never be sent around in a loop.
+     */
+    private int[] previous;
+
+    /**
+     * Where is this node in the array flattenization of the binary heap? -1 if not in the open set.
+     */
+    private int[] heapPosition;
+
+    private int size;
+
+    public PathNodePool(Goal goal, int expectedSize, float loadFactor) {
+        this.goal = goal;
+        this.map = new Long2IntOpenHashMap(expectedSize, loadFactor);
+        this.map.defaultReturnValue(-1);
+        int capacity = Math.max(expectedSize, INITIAL_CAPACITY);
+        this.x = new int[capacity];
+        this.y = new int[capacity];
+        this.z = new int[capacity];
+        this.estimatedCostToGoal = new double[capacity];
+        this.cost = new double[capacity];
+        this.combinedCost = new double[capacity];
+        this.previous = new int[capacity];
+        this.heapPosition = new int[capacity];
+    }
+
+    /**
+     * Returns the handle of the node at the specified position, creating it if it doesn't exist yet.
+     *
+     * @param x        The x position of the node
+     * @param y        The y position of the node
+     * @param z        The z position of the node
+     * @param hashCode The hash code of the node, provided by {@link baritone.api.utils.BetterBlockPos#longHash(int, int, int)}
+     * @return The handle of the node
+     */
+    public int getNodeAtPosition(int x, int y, int z, long hashCode) {
+        int node = map.get(hashCode);
+        if (node == -1 || node >= size || this.x[node] != x || this.y[node] != y || this.z[node] != z) {
+            // either never seen, or left over from a search before the last reset
+            node = create(x, y, z);
+            map.put(hashCode, node);
+        }
+        return node;
+    }
+
+    /**
+     * Empties this pool so that it can be used for another search, without giving back any of the memory.
+     * <p>
+     * This doesn't touch the arrays at all, and only clears the map once it has collected too many stale entries.
+     * Stale entries are harmless in the meantime, since {@link #getNodeAtPosition} checks that the handle it finds
+     * was created since the last reset, and still holds the position it was looked up with.
+     *
+     * @param goal The goal of the next search
+     */
+    public void reset(Goal goal) {
+        this.goal = goal;
+        this.size = 0;
+        if (map.size() > x.length << 1) {
+            map.clear();
+        }
+    }
+
+    private int create(int x, int y, int z) {
+        double heuristic = goal.heuristic(x, y, z);
+        if (Double.isNaN(heuristic)) {
+            throw new IllegalStateException(goal + " calculated implausible heuristic");
+        }
+        if (size == this.x.length) {
+            grow();
+        }
+        int node = size;
+        this.x[node] = x;
+        this.y[node] = y;
+        this.z[node] = z;
+        this.estimatedCostToGoal[node] = heuristic;
+        this.cost[node] = ActionCosts.COST_INF;
+        this.combinedCost[node] = 0;
+        this.previous[node] = 0;
+        this.heapPosition[node] = -1;
+        size++;
+        return node;
+    }
+
+    private void grow() {
+        int capacity = x.length << 1;
+        x = Arrays.copyOf(x, capacity);
+        y = Arrays.copyOf(y, capacity);
+        z = Arrays.copyOf(z, capacity);
+        estimatedCostToGoal = Arrays.copyOf(estimatedCostToGoal, capacity);
+        cost = Arrays.copyOf(cost, capacity);
+        combinedCost = Arrays.copyOf(combinedCost, capacity);
+        previous = Arrays.copyOf(previous, capacity);
+        heapPosition = Arrays.copyOf(heapPosition, capacity);
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int x(int node) {
+        return x[node];
+    }
+
+    public int y(int node) {
+        return y[node];
+    }
+
+    public int z(int node) {
+        return z[node];
+    }
+
+    public double estimatedCostToGoal(int node) {
+        return estimatedCostToGoal[node];
+    }
+
+    public double cost(int node) {
+        return cost[node];
+    }
+
+    public void setCost(int node, double cost) {
+        this.cost[node] = cost;
+    }
+
+    public double combinedCost(int node) {
+        return combinedCost[node];
+    }
+
+    public void setCombinedCost(int node, double combinedCost) {
+        this.combinedCost[node] = combinedCost;
+    }
+
+    /**
+     * @param node The node
+     * @return The handle of the node that contributed to its cost, or -1 if there is none
+     */
+    public int previous(int node) {
+        return previous[node] - 1;
+    }
+
+    public void setPrevious(int node, int previous) {
+        this.previous[node] = previous + 1;
+    }
+
+    public int heapPosition(int node) {
+        return heapPosition[node];
+    }
+
+    public void setHeapPosition(int node, int heapPosition) {
+        this.heapPosition[node] = heapPosition;
+    }
+
+    public boolean isOpen(int node) {
+        return heapPosition[node] != -1;
+    }
+}
@@ -0,0 +1,273 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Baritone.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package baritone.pathing.calc;
+
+import baritone.Baritone;
+import baritone.api.pathing.calc.IPath;
+import baritone.api.pathing.goals.Goal;
+import baritone.api.pathing.goals.GoalBlock;
+import baritone.api.pathing.movement.ActionCosts;
+import baritone.api.pathing.movement.IMovement;
+import baritone.api.utils.BetterBlockPos;
+import baritone.pathing.calc.openset.IOpenSet;
+import baritone.pathing.movement.CalculationContext;
+import baritone.pathing.movement.Movement;
+import baritone.pathing.movement.Moves;
+import baritone.utils.pathing.BetterWorldBorder;
+import baritone.utils.pathing.MutableMoveResult;
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import net.minecraft.core.BlockPos;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Patches a path that something in the world has broken, instead of searching the whole thing again.
+ * <p>
+ * The old path after the break is kept, with its movements recosted against the world as it is now. This is a small
+ * A* from where we are back onto any of the first few positions of that tail, where landing on a position counts as
+ * having paid for the rest of the tail too. So it finds the cheapest way around the break that rejoins the old path,
+ * and the result is the detour followed by everything after where it rejoined.
+ * <p>
+ * It only gets a few thousand nodes. If the break can't be gotten around nearby, it fails and a normal search runs.
+ */
+public final class PathRepairFinder extends AbstractNodeCostSearch {
+
+    /**
+     * How many positions past the break we're willing to rejoin at
+     */
+    private static final int REJOIN_WINDOW = 64;
+
+    private final CalculationContext calcContext;
+
+    /**
+     * The old path from just after the break to its end
+     */
+    private final List<BetterBlockPos> tail;
+
+    /**
+     * The current cost from each position in {@link #tail} to its end
+     */
+    private final double[] remaining;
+
+    /**
+     * Position hash to index in {@link #tail}, for the positions we can rejoin at
+     */
+    private final Long2IntOpenHashMap rejoinAt;
+
+    private PathRepairFinder(int startX, int startY, int startZ, Goal goal, RejoinGoal rejoinGoal, List<BetterBlockPos> tail, double[] remaining, Long2IntOpenHashMap rejoinAt, CalculationContext context) {
+        super(startX, startY, startZ, goal, context, null, false);
+        setHeuristic(rejoinGoal);
+        this.calcContext = context;
+        this.tail = tail;
+        this.remaining = remaining;
+        this.rejoinAt = rejoinAt;
+    }
+
+    /**
+     * @param start          Where the detour should start
+     * @param goal           The goal of the path being repaired
+     * @param broken         The path
+     * @param brokenMovement The index of the first movement in it that has become impossible
+     * @param context        The context to recost the path and search with
+     * @return A finder, or null if everything after the break is broken too and there's nothing to rejoin
+     */
+    public static PathRepairFinder create(BlockPos start, Goal goal, IPath broken, int brokenMovement, CalculationContext context) {
+        List<BetterBlockPos> positions = broken.positions();
+        List<IMovement> movements = broken.movements();
+        int first = brokenMovement + 1;
+        if (first >= positions.size()) {
+            return null;
+        }
+        List<BetterBlockPos> tail = new ArrayList<>(positions.subList(first, positions.size()));
+        double[] remaining = new double[tail.size()];
+        for (int i = tail.size() - 2; i >= 0; i--) {
+            // the movement from tail[i] to tail[i + 1]
+            double cost = ((Movement) movements.get(first + i)).calculateCost(context);
+            remaining[i] = cost >= ActionCosts.COST_INF || remaining[i + 1] >= ActionCosts.COST_INF ? ActionCosts.COST_INF : remaining[i + 1] + cost;
+        }
+        Long2IntOpenHashMap rejoinAt = new Long2IntOpenHashMap();
+        rejoinAt.defaultReturnValue(-1);
+        List<Integer> targets = new ArrayList<>();
+        for (int i = 0; i < tail.size() && i < REJOIN_WINDOW; i++) {
+            if (remaining[i] < ActionCosts.COST_INF) {
+                BetterBlockPos pos = tail.get(i);
+                // if the path goes through the same position twice, the later one is cheaper to finish from
+                rejoinAt.put(BetterBlockPos.longHash(pos.x, pos.y, pos.z), i);
+                targets.add(i);
+            }
+        }
+        if (targets.isEmpty()) {
+            return null;
+        }
+        int[][] rejoinPositions = new int[targets.size()][];
+        double[] rejoinCosts = new double[targets.size()];
+        for (int i = 0; i < targets.size(); i++) {
+            BetterBlockPos pos = tail.get(targets.get(i));
+            rejoinPositions[i] = new int[]{pos.x, pos.y, pos.z};
+            rejoinCosts[i] = remaining[targets.get(i)];
+        }
+        RejoinGoal rejoinGoal = new RejoinGoal(goal, rejoinPositions, rejoinCosts);
+        return new PathRepairFinder(start.getX(), start.getY(), start.getZ(), goal, rejoinGoal, tail, remaining, rejoinAt, context);
+    }
+
+    @Override
+    protected Optional<IPath> calculate0(long primaryTimeout, long failureTimeout) {
+        int minY = calcContext.minY;
+        int height = calcContext.height;
+        startNode = getNodeAtPosition(startX, startY, startZ, BetterBlockPos.longHash(startX, startY, startZ));
+        startNode.cost = 0;
+        startNode.combinedCost = startNode.estimatedCostToGoal;
+        IOpenSet openSet = createOpenSet();
+        openSet.insert(startNode);
+        MutableMoveResult res = new MutableMoveResult();
+        BetterWorldBorder worldBorder = calcContext.worldBorder;
+        long startTime = System.currentTimeMillis();
+        long failureTimeoutTime = startTime + failureTimeout;
+        int numNodes = 0;
+        int maxNodes = Baritone.settings().incrementalReplanningMaxNodes.value;
+        int timeCheckInterval = 1 << 6;
+        double minimumImprovement = Baritone.settings().minimumImprovementRepropagation.value ? MIN_IMPROVEMENT : 0;
+        Moves[] allMoves = Moves.values();
+        while (!openSet.isEmpty() && numNodes < maxNodes && !cancelRequested) {
+            if ((numNodes & (timeCheckInterval - 1)) == 0 && System.currentTimeMillis() - failureTimeoutTime >= 0) {
+                break;
+            }
+            PathNode currentNode = openSet.removeLowest();
+            mostRecentConsidered = currentNode;
+            numNodes++;
+            int rejoin = rejoinAt.get(BetterBlockPos.longHash(currentNode.x, currentNode.y, currentNode.z));
+            if (rejoin != -1 || goal.isInGoal(currentNode.x, currentNode.y, currentNode.z)) {
+                logDebug("Repaired path in " + (System.currentTimeMillis() - startTime) + "ms, " + numNodes + " nodes considered");
+                return Optional.of(splice(currentNode, rejoin, numNodes));
+            }
+            for (Moves moves : allMoves) {
+                int newX = currentNode.x + moves.xOffset;
+                int newZ = currentNode.z + moves.zOffset;
+                if ((newX >> 4 != currentNode.x >> 4 || newZ >> 4 != currentNode.z >> 4) && !calcContext.isLoaded(newX, newZ)) {
+                    continue;
+                }
+                if (!moves.dynamicXZ && !worldBorder.entirelyContains(newX, newZ)) {
+                    continue;
+                }
+                if (currentNode.y + moves.yOffset > height || currentNode.y + moves.yOffset < minY) {
+                    continue;
+                }
+                res.reset();
+                moves.apply(calcContext, currentNode.x, currentNode.y, currentNode.z, res);
+                double actionCost = res.cost;
+                if (actionCost >= ActionCosts.COST_INF) {
+                    continue;
+                }
+                if (actionCost <= 0 || Double.isNaN(actionCost)) {
+                    throw new IllegalStateException(moves + " calculated implausible cost " + actionCost);
+                }
+                if (moves.dynamicXZ && !worldBorder.entirelyContains(res.x, res.z)) {
+                    continue;
+                }
+                PathNode neighbor = getNodeAtPosition(res.x, res.y, res.z, BetterBlockPos.longHash(res.x, res.y, res.z));
+                double tentativeCost = currentNode.cost + actionCost;
+                if (neighbor.cost - tentativeCost > minimumImprovement) {
+                    neighbor.previous = currentNode;
+                    neighbor.cost = tentativeCost;
+                    neighbor.combinedCost = tentativeCost + neighbor.estimatedCostToGoal;
+                    if (neighbor.isOpen()) {
+                        openSet.update(neighbor);
+                    } else {
+                        openSet.insert(neighbor);
+                    }
+                }
+            }
+        }
+        // no partial paths, if we can't get back onto the old path then a full search will do better than us
+        logDebug("Unable to repair path, " + numNodes + " nodes considered");
+        return Optional.empty();
+    }
+
+    /**
+     * @param end    The last node of the detour
+     * @param rejoin Where in {@link #tail} that is, or -1 if the detour got to the goal without rejoining
+     */
+    private Path splice(PathNode end, int rejoin, int numNodes) {
+        List<PathNode> detour = new ArrayList<>();
+        for (PathNode node = end; node != null; node = node.previous) {
+            detour.add(node);
+        }
+        Collections.reverse(detour);
+        int rest = rejoin == -1 ? 0 : tail.size() - rejoin - 1;
+        List<BetterBlockPos> positions = new ArrayList<>(detour.size() + rest);
+        double[] costs = new double[detour.size() + rest];
+        for (int i = 0; i < detour.size(); i++) {
+            PathNode node = detour.get(i);
+            positions.add(new BetterBlockPos(node.x, node.y, node.z));
+            costs[i] = node.cost;
+        }
+        for (int i = 1; i <= rest; i++) {
+            positions.add(tail.get(rejoin + i));
+            costs[detour.size() - 1 + i] = end.cost + remaining[rejoin] - remaining[rejoin + i];
+        }
+        return new Path(positions, costs, numNodes, goal, calcContext);
+    }
+
+    /**
+     * The heuristic for the search: still the goal we're repairing a path to, but the estimate is the cheapest one
+     * through any of the positions we can rejoin at
+     */
+    private static final class RejoinGoal implements Goal {
+
+        private final Goal goal;
+        private final int[][] positions;
+        private final double[] remaining;
+
+        private RejoinGoal(Goal goal, int[][] positions, double[] remaining) {
+            this.goal = goal;
+            this.positions = positions;
+            this.remaining = remaining;
+        }
+
+        @Override
+        public boolean isInGoal(int x, int y, int z) {
+            return goal.isInGoal(x, y, z);
+        }
+
+        @Override
+        public double heuristic(int x, int y, int z) {
+            double best = Double.POSITIVE_INFINITY;
+            for (int i = 0; i < positions.length; i++) {
+                int[] pos = positions[i];
+                double estimate = GoalBlock.calculate(x - pos[0], y - pos[1], z - pos[2]) + remaining[i];
+                if (estimate < best) {
+                    best = estimate;
+                }
+            }
+            return best;
+        }
+
+        @Override
+        public double heuristic() {
+            return goal.heuristic();
+        }
+
+        @Override
+        public String toString() {
+            return goal.toString();
+        }
+    }
+}
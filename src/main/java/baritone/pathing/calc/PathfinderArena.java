@@ -0,0 +1,71 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Baritone.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package baritone.pathing.calc;
+
+import baritone.Baritone;
+import baritone.api.pathing.goals.Goal;
+import baritone.pathing.calc.openset.PooledBinaryHeapOpenSet;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Holds on to a {@link PathNodePool} and its open set between searches, so that each path segment doesn't have to
+ * start from an empty map and grow it all over again.
+ * <p>
+ * There's one of these per {@link baritone.behavior.PathingBehavior}. Only one search can use it at a time, if a
+ * cancelled search is still winding down when the next one starts, the next one just allocates its own pool.
+ */
+public final class PathfinderArena {
+
+    private final AtomicBoolean inUse = new AtomicBoolean();
+
+    private PathNodePool pool;
+
+    private PooledBinaryHeapOpenSet openSet;
+
+    /**
+     * Tries to take the pool for a new search
+     *
+     * @param goal The goal of the new search
+     * @return The pool, emptied and ready for the new search, or null if another search is still using it
+     */
+    PathNodePool acquire(Goal goal) {
+        if (!inUse.compareAndSet(false, true)) {
+            return null;
+        }
+        if (pool == null) {
+            pool = new PathNodePool(goal, Baritone.settings().pathingMapDefaultSize.value, Baritone.settings().pathingMapLoadFactor.value);
+            openSet = new PooledBinaryHeapOpenSet(pool);
+        } else {
+            pool.reset(goal);
+            openSet.clear();
+        }
+        return pool;
+    }
+
+    /**
+     * @return The open set that goes with the pool returned by {@link #acquire(Goal)}
+     */
+    PooledBinaryHeapOpenSet openSet() {
+        return openSet;
+    }
+
+    void release() {
+        inUse.set(false);
+    }
+}
@@ -0,0 +1,208 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Baritone.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package baritone.pathing.calc.openset;
+
+import baritone.pathing.calc.PathNode;
+
+import java.util.Arrays;
+
+/**
+ * A bucket queue implementation of an open set, keyed on {@link PathNode#combinedCost} rounded down to an eighth of
+ * a tick.
+ * <p>
+ * Insert and update just append to a bucket, and removeLowest scans the lowest bucket that has anything in it for
+ * the exact minimum, so nodes still come out in the same order as from a heap. The costs of nodes that are open at
+ * the same time are all fairly close to each other, so not many buckets are needed and each one stays small.
+ * <p>
+ * Nodes aren't taken out of their old bucket when their cost decreases, the old entry is just skipped once it comes
+ * up, since it's no longer the bucket that the node's cost says it should be in. {@link PathNode#heapPosition} is
+ * only used to mark a node as open.
+ */
+public final class BucketOpenSet implements IOpenSet {
+
+    private static final int BUCKETS_PER_TICK = 8;
+
+    private static final int INITIAL_BUCKETS = 1024;
+
+    /**
+     * Past this, costs that are way off are lumped into the first or last bucket instead of growing any further
+     */
+    private static final int MAX_BUCKETS = 1 << 16;
+
+    private static final int INITIAL_BUCKET_CAPACITY = 16;
+
+    private PathNode[][] buckets = new PathNode[INITIAL_BUCKETS][];
+
+    private int[] counts = new int[INITIAL_BUCKETS];
+
+    /**
+     * The key of {@code buckets[0]}
+     */
+    private long offset;
+
+    private boolean hasOffset;
+
+    /**
+     * No bucket before this one has an open node in it
+     */
+    private int lowest = INITIAL_BUCKETS;
+
+    /**
+     * The number of open nodes, not counting stale entries
+     */
+    private int size;
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void insert(PathNode value) {
+        value.heapPosition = 0;
+        size++;
+        add(value);
+    }
+
+    @Override
+    public void update(PathNode val) {
+        // the entry in the old bucket goes stale by itself
+        add(val);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public PathNode removeLowest() {
+        if (size == 0) {
+            throw new IllegalStateException();
+        }
+        while (true) {
+            PathNode[] bucket = buckets[lowest];
+            int count = counts[lowest];
+            int best = -1;
+            double bestCost = Double.POSITIVE_INFINITY;
+            for (int i = 0; i < count; ) {
+                PathNode node = bucket[i];
+                if (!node.isOpen() || index(node.combinedCost) != lowest) {
+                    // stale, swap the last entry in here and look at it instead
+                    bucket[i] = bucket[--count];
+                    bucket[count] = null;
+                    continue;
+                }
+                if (best == -1 || node.combinedCost < bestCost) {
+                    best = i;
+                    bestCost = node.combinedCost;
+                }
+                i++;
+            }
+            if (best == -1) {
+                counts[lowest] = 0;
+                lowest++;
+                continue;
+            }
+            PathNode result = bucket[best];
+            bucket[best] = bucket[--count];
+            bucket[count] = null;
+            counts[lowest] = count;
+            result.heapPosition = -1;
+            size--;
+            return result;
+        }
+    }
+
+    private static long key(double cost) {
+        return (long) Math.floor(cost * BUCKETS_PER_TICK);
+    }
+
+    /**
+     * @return The bucket this cost belongs in, with anything out of range in the first or last one
+     */
+    private int index(double cost) {
+        long index = key(cost) - offset;
+        return (int) Math.max(0, Math.min(buckets.length - 1, index));
+    }
+
+    private void add(PathNode node) {
+        long key = key(node.combinedCost);
+        if (!hasOffset) {
+            // leave some room below, costs can still go down a bit from here
+            offset = key - buckets.length / 4;
+            hasOffset = true;
+        }
+        long index = key - offset;
+        if ((index < 0 || index >= buckets.length) && buckets.length < MAX_BUCKETS) {
+            grow(index);
+        }
+        place(node);
+    }
+
+    private void place(PathNode node) {
+        int index = index(node.combinedCost);
+        PathNode[] bucket = buckets[index];
+        if (bucket == null) {
+            bucket = buckets[index] = new PathNode[INITIAL_BUCKET_CAPACITY];
+        } else if (counts[index] >= bucket.length) {
+            bucket = buckets[index] = Arrays.copyOf(bucket, bucket.length << 1);
+        }
+        bucket[counts[index]++] = node;
+        if (index < lowest) {
+            lowest = index;
+        }
+    }
+
+    /**
+     * Doubles the range towards the given index until it fits or we hit {@link #MAX_BUCKETS}, and puts every open
+     * node back in, since the bucket a node belongs in depends on the range
+     */
+    private void grow(long index) {
+        long newOffset = offset;
+        int newLength = buckets.length;
+        while ((index < newOffset - offset || index >= newOffset - offset + newLength) && newLength < MAX_BUCKETS) {
+            if (index < newOffset - offset) {
+                newOffset -= newLength;
+            }
+            newLength <<= 1;
+        }
+        PathNode[][] oldBuckets = buckets;
+        int[] oldCounts = counts;
+        PathNode[] open = new PathNode[size];
+        int numOpen = 0;
+        for (int i = lowest; i < oldBuckets.length; i++) {
+            for (int j = 0; j < oldCounts[i]; j++) {
+                PathNode node = oldBuckets[i][j];
+                // the same node can be in the same bucket twice, only take it once
+                if (node.isOpen() && node.heapPosition == 0 && index(node.combinedCost) == i) {
+                    node.heapPosition = 1;
+                    open[numOpen++] = node;
+                }
+            }
+        }
+        buckets = new PathNode[newLength][];
+        counts = new int[newLength];
+        offset = newOffset;
+        lowest = newLength;
+        for (int i = 0; i < numOpen; i++) {
+            open[i].heapPosition = 0;
+            place(open[i]);
+        }
+    }
+}
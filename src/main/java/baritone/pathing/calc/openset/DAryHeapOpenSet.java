@@ -0,0 +1,141 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Baritone.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package baritone.pathing.calc.openset;
+
+import baritone.pathing.calc.PathNode;
+
+import java.util.Arrays;
+
+/**
+ * A 4-ary heap implementation of an open set.
+ * <p>
+ * Same idea as {@link BinaryHeapOpenSet}, but every node has four children instead of two. That makes the heap half
+ * as deep, so insert and update (which only ever go up) do half the work, and removeLowest compares four children at
+ * a time that all sit next to each other in the array.
+ */
+public final class DAryHeapOpenSet implements IOpenSet {
+
+    /**
+     * The initial capacity of the heap (2^10)
+     */
+    private static final int INITIAL_CAPACITY = 1024;
+
+    /**
+     * The array backing the heap, with the root at 0 and the children of i at 4i+1 to 4i+4
+     */
+    private PathNode[] array;
+
+    /**
+     * The size of the heap
+     */
+    private int size;
+
+    public DAryHeapOpenSet() {
+        this(INITIAL_CAPACITY);
+    }
+
+    public DAryHeapOpenSet(int size) {
+        this.size = 0;
+        this.array = new PathNode[size];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void insert(PathNode value) {
+        if (size >= array.length) {
+            array = Arrays.copyOf(array, array.length << 1);
+        }
+        siftUp(value, size++);
+    }
+
+    @Override
+    public void update(PathNode val) {
+        siftUp(val, val.heapPosition);
+    }
+
+    /**
+     * Moves parents down into the hole at index until val fits there, instead of swapping at every level
+     */
+    private void siftUp(PathNode val, int index) {
+        double cost = val.combinedCost;
+        while (index > 0) {
+            int parentInd = (index - 1) >>> 2;
+            PathNode parentNode = array[parentInd];
+            if (parentNode.combinedCost <= cost) {
+                break;
+            }
+            array[index] = parentNode;
+            parentNode.heapPosition = index;
+            index = parentInd;
+        }
+        array[index] = val;
+        val.heapPosition = index;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    @Override
+    public PathNode removeLowest() {
+        if (size == 0) {
+            throw new IllegalStateException();
+        }
+        PathNode result = array[0];
+        result.heapPosition = -1;
+        size--;
+        PathNode val = array[size];
+        array[size] = null;
+        if (size == 0) {
+            return result;
+        }
+        int index = 0;
+        double cost = val.combinedCost;
+        while (true) {
+            int firstChild = (index << 2) + 1;
+            if (firstChild >= size) {
+                break;
+            }
+            int lastChild = Math.min(firstChild + 4, size);
+            int smallestChild = firstChild;
+            double smallestChildCost = array[firstChild].combinedCost;
+            for (int child = firstChild + 1; child < lastChild; child++) {
+                double childCost = array[child].combinedCost;
+                if (childCost < smallestChildCost) {
+                    smallestChild = child;
+                    smallestChildCost = childCost;
+                }
+            }
+            if (cost <= smallestChildCost) {
+                break;
+            }
+            PathNode smallestChildNode = array[smallestChild];
+            array[index] = smallestChildNode;
+            smallestChildNode.heapPosition = index;
+            index = smallestChild;
+        }
+        array[index] = val;
+        val.heapPosition = index;
+        return result;
+    }
+}
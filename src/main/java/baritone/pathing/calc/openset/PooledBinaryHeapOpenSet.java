@@ -0,0 +1,134 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Baritone.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package baritone.pathing.calc.openset;
+
+import baritone.pathing.calc.PathNodePool;
+
+import java.util.Arrays;
+
+/**
+ * {@link BinaryHeapOpenSet}, but over the int handles of a {@link PathNodePool} instead of {@link baritone.pathing.calc.PathNode} objects.
+ * The heap positions are stored in the pool, just like they are stored in the nodes for the object version.
+ */
+public final class PooledBinaryHeapOpenSet {
+
+    /**
+     * The initial capacity of the heap (2^10)
+     */
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final PathNodePool pool;
+
+    /**
+     * The array backing the heap
+     */
+    private int[] array;
+
+    /**
+     * The size of the heap
+     */
+    private int size;
+
+    public PooledBinaryHeapOpenSet(PathNodePool pool) {
+        this.pool = pool;
+        this.size = 0;
+        this.array = new int[INITIAL_CAPACITY];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Empties the heap, keeping the backing array at whatever size it has grown to
+     */
+    public void clear() {
+        size = 0;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public void insert(int node) {
+        if (size >= array.length - 1) {
+            array = Arrays.copyOf(array, array.length << 1);
+        }
+        size++;
+        pool.setHeapPosition(node, size);
+        array[size] = node;
+        update(node);
+    }
+
+    public void update(int node) {
+        int index = pool.heapPosition(node);
+        int parentInd = index >>> 1;
+        double cost = pool.combinedCost(node);
+        int parentNode = array[parentInd];
+        while (index > 1 && pool.combinedCost(parentNode) > cost) {
+            array[index] = parentNode;
+            array[parentInd] = node;
+            pool.setHeapPosition(node, parentInd);
+            pool.setHeapPosition(parentNode, index);
+            index = parentInd;
+            parentInd = index >>> 1;
+            parentNode = array[parentInd];
+        }
+    }
+
+    public int removeLowest() {
+        if (size == 0) {
+            throw new IllegalStateException();
+        }
+        int result = array[1];
+        int val = array[size];
+        array[1] = val;
+        pool.setHeapPosition(val, 1);
+        array[size] = 0;
+        size--;
+        pool.setHeapPosition(result, -1);
+        if (size < 2) {
+            return result;
+        }
+        int index = 1;
+        int smallerChild = 2;
+        double cost = pool.combinedCost(val);
+        do {
+            int smallerChildNode = array[smallerChild];
+            double smallerChildCost = pool.combinedCost(smallerChildNode);
+            if (smallerChild < size) {
+                int rightChildNode = array[smallerChild + 1];
+                double rightChildCost = pool.combinedCost(rightChildNode);
+                if (smallerChildCost > rightChildCost) {
+                    smallerChild++;
+                    smallerChildCost = rightChildCost;
+                    smallerChildNode = rightChildNode;
+                }
+            }
+            if (cost <= smallerChildCost) {
+                break;
+            }
+            array[index] = smallerChildNode;
+            array[smallerChild] = val;
+            pool.setHeapPosition(val, smallerChild);
+            pool.setHeapPosition(smallerChildNode, index);
+            index = smallerChild;
+        } while ((smallerChild <<= 1) <= size);
+        return result;
+    }
+}
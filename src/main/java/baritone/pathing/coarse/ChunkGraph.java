@@ -0,0 +1,129 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Baritone.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package baritone.pathing.coarse;
+
+import baritone.api.pathing.movement.ActionCosts;
+import baritone.cache.CachedChunk;
+import baritone.cache.CachedRegion;
+import baritone.cache.CachedWorld;
+import baritone.utils.pathing.PathingBlockType;
+
+/**
+ * The world seen one chunk at a time, built from the surface of the chunks in the {@link CachedWorld}.
+ * <p>
+ * Two neighboring chunks are connected through "portals": pairs of surface columns facing each other across the
+ * border that can be walked between, either on the same level, one block up, or dropping down no further than we're
+ * willing to fall. The fewer portals there are, the more expensive it is to cross that border. Nothing is ever
+ * completely impassable, because all of this only looks at the surface and there might be a cave, or a block we can
+ * break, that we can't see from up here. Chunks that aren't cached at all are assumed to be somewhat worse than open
+ * ground.
+ */
+public final class ChunkGraph {
+
+    /**
+     * The cost of walking straight across one chunk
+     */
+    public static final double CHUNK_COST = 16 * ActionCosts.WALK_ONE_BLOCK_COST;
+
+    private static final double FEW_PORTALS_MULTIPLIER = 1.5;
+    private static final double UNKNOWN_MULTIPLIER = 1.5;
+    private static final double NO_PORTALS_MULTIPLIER = 4;
+
+    /**
+     * Any fewer than this and the border counts as hard to cross
+     */
+    private static final int FEW_PORTALS = 4;
+
+    private final CachedWorld cache;
+    private final int maxFallHeight;
+
+    private CachedRegion prevRegion;
+
+    /**
+     * @param cache         The cache to read chunks from
+     * @param maxFallHeight The furthest we're willing to drop between two columns
+     */
+    public ChunkGraph(CachedWorld cache, int maxFallHeight) {
+        this.cache = cache;
+        this.maxFallHeight = maxFallHeight;
+    }
+
+    /**
+     * @param chunkX The chunk x coordinate
+     * @param chunkZ The chunk z coordinate
+     * @return The chunk, or null if it isn't cached or its region isn't loaded
+     */
+    public CachedChunk getChunk(int chunkX, int chunkZ) {
+        // same as BlockStateInterface, consecutive lookups are usually in the same region
+        CachedRegion region = prevRegion;
+        if (region == null || region.getX() != chunkX >> 5 || region.getZ() != chunkZ >> 5) {
+            region = cache.getRegion(chunkX >> 5, chunkZ >> 5);
+            if (region == null) {
+                return null;
+            }
+            prevRegion = region;
+        }
+        return region.getChunk(chunkX & 31, chunkZ & 31);
+    }
+
+    /**
+     * The cost of moving from one chunk into a neighboring one. This isn't symmetric, since climbing up is harder
+     * than dropping down.
+     *
+     * @param fromX The x coordinate of the chunk we're in
+     * @param fromZ The z coordinate of the chunk we're in
+     * @param dirX  -1, 0 or 1
+     * @param dirZ  -1, 0 or 1, and exactly one of dirX and dirZ is nonzero
+     * @return The cost
+     */
+    public double edgeCost(int fromX, int fromZ, int dirX, int dirZ) {
+        CachedChunk from = getChunk(fromX, fromZ);
+        CachedChunk to = getChunk(fromX + dirX, fromZ + dirZ);
+        if (from == null || to == null) {
+            return CHUNK_COST * UNKNOWN_MULTIPLIER;
+        }
+        int portals = 0;
+        for (int i = 0; i < 16; i++) {
+            // the column on our side of the border, and the one facing it on theirs
+            int fromColX = dirX == 0 ? i : (dirX > 0 ? 15 : 0);
+            int fromColZ = dirZ == 0 ? i : (dirZ > 0 ? 15 : 0);
+            int toColX = dirX == 0 ? i : 15 - fromColX;
+            int toColZ = dirZ == 0 ? i : 15 - fromColZ;
+            if (canCross(from, fromColX, fromColZ, to, toColX, toColZ)) {
+                portals++;
+            }
+        }
+        if (portals == 0) {
+            return CHUNK_COST * NO_PORTALS_MULTIPLIER;
+        }
+        if (portals < FEW_PORTALS) {
+            return CHUNK_COST * FEW_PORTALS_MULTIPLIER;
+        }
+        return CHUNK_COST;
+    }
+
+    private boolean canCross(CachedChunk from, int fromX, int fromZ, CachedChunk to, int toX, int toZ) {
+        int fromY = from.getSurfaceHeight(fromX, fromZ);
+        int toY = to.getSurfaceHeight(toX, toZ);
+        if (toY - fromY > 1 || fromY - toY > maxFallHeight) {
+            return false;
+        }
+        // only solid ground counts, water and lava on top are cached as AVOID
+        return from.getType(fromX, fromY, fromZ) == PathingBlockType.SOLID && to.getType(toX, toY, toZ) == PathingBlockType.SOLID;
+    }
+}
@@ -0,0 +1,198 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Baritone.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package baritone.pathing.coarse;
+
+import baritone.Baritone;
+import baritone.api.pathing.goals.Goal;
+import baritone.api.pathing.goals.GoalXZ;
+import baritone.api.utils.Helper;
+import baritone.api.utils.interfaces.IGoalRenderPos;
+import baritone.pathing.movement.CalculationContext;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import net.minecraft.core.BlockPos;
+import net.minecraft.world.level.ChunkPos;
+
+import java.util.PriorityQueue;
+
+/**
+ * Plans a route over the {@link ChunkGraph} before the real search starts, so that the real search can be nudged
+ * along it with {@link baritone.utils.pathing.Favoring}.
+ * <p>
+ * The real search only ever sees a few chunks past the edge of what's loaded, so on a long trip it keeps heading
+ * straight for the goal and finding out about the mountain range or ocean in the way one segment at a time. This
+ * finds the way around from the cache instead.
+ */
+public final class CoarsePathPlanner {
+
+    /**
+     * Don't bother for anything closer than this many chunks, the real search handles that fine on its own
+     */
+    private static final int MIN_CHUNK_DISTANCE = 8;
+
+    /**
+     * How many chunks past the box around the start and goal the search may wander
+     */
+    private static final int MARGIN = 32;
+
+    private static final int[][] DIRECTIONS = {{1, 0}, {-1, 0}, {0, 1}, {0, -1}};
+
+    private CoarsePathPlanner() {}
+
+    /**
+     * @param context The context of the search that this is for
+     * @param start   Where that search starts
+     * @param goal    The goal of that search
+     * @return The chunks worth favoring, or null if there's nothing to favor
+     */
+    public static LongOpenHashSet corridorFor(CalculationContext context, BlockPos start, Goal goal) {
+        if (context.worldData == null || context.world.dimensionType().hasCeiling()) {
+            // with a roof, the "surface" in the cache is just the roof
+            return null;
+        }
+        BlockPos target;
+        if (goal instanceof IGoalRenderPos) {
+            target = ((IGoalRenderPos) goal).getGoalPos();
+        } else if (goal instanceof GoalXZ) {
+            target = new BlockPos(((GoalXZ) goal).getX(), 0, ((GoalXZ) goal).getZ());
+        } else {
+            return null;
+        }
+        int startX = start.getX() >> 4;
+        int startZ = start.getZ() >> 4;
+        int goalX = target.getX() >> 4;
+        int goalZ = target.getZ() >> 4;
+        if (Math.abs(goalX - startX) + Math.abs(goalZ - startZ) < MIN_CHUNK_DISTANCE) {
+            return null;
+        }
+        ChunkGraph graph = new ChunkGraph(context.worldData.cache, Math.max(context.maxFallHeightNoWater, context.hasWaterBucket ? context.maxFallHeightBucket : 0));
+        long[] route = plan(graph, startX, startZ, goalX, goalZ, Baritone.settings().coarsePathingMaxChunks.value);
+        if (route == null) {
+            Helper.HELPER.logDebug("Coarse planner found no route");
+            return null;
+        }
+        Helper.HELPER.logDebug("Coarse planner route is " + route.length + " chunks long");
+        return widen(route, Baritone.settings().coarsePathingCorridorRadius.value);
+    }
+
+    /**
+     * Plain A* over the chunk graph.
+     *
+     * @return The chunks along the cheapest route, packed with {@link ChunkPos#asLong(int, int)}, or null if the goal
+     * wasn't reached within the node limit
+     */
+    public static long[] plan(ChunkGraph graph, int startX, int startZ, int goalX, int goalZ, int maxNodes) {
+        int minX = Math.min(startX, goalX) - MARGIN;
+        int maxX = Math.max(startX, goalX) + MARGIN;
+        int minZ = Math.min(startZ, goalZ) - MARGIN;
+        int maxZ = Math.max(startZ, goalZ) + MARGIN;
+        Long2ObjectOpenHashMap<Node> nodes = new Long2ObjectOpenHashMap<>();
+        PriorityQueue<Node> openSet = new PriorityQueue<>((a, b) -> Double.compare(a.combinedCost, b.combinedCost));
+        Node startNode = new Node(startX, startZ, null, 0, heuristic(startX, startZ, goalX, goalZ));
+        nodes.put(ChunkPos.asLong(startX, startZ), startNode);
+        openSet.add(startNode);
+        int expanded = 0;
+        while (!openSet.isEmpty() && expanded < maxNodes) {
+            Node current = openSet.poll();
+            if (current.closed) {
+                continue; // stale entry, it was re-added with a lower cost
+            }
+            current.closed = true;
+            expanded++;
+            if (current.x == goalX && current.z == goalZ) {
+                return unwind(current);
+            }
+            for (int[] dir : DIRECTIONS) {
+                int x = current.x + dir[0];
+                int z = current.z + dir[1];
+                if (x < minX || x > maxX || z < minZ || z > maxZ) {
+                    continue;
+                }
+                double cost = current.cost + graph.edgeCost(current.x, current.z, dir[0], dir[1]);
+                long key = ChunkPos.asLong(x, z);
+                Node neighbor = nodes.get(key);
+                if (neighbor == null) {
+                    neighbor = new Node(x, z, current, cost, cost + heuristic(x, z, goalX, goalZ));
+                    nodes.put(key, neighbor);
+                    openSet.add(neighbor);
+                } else if (!neighbor.closed && cost < neighbor.cost) {
+                    Node replacement = new Node(x, z, current, cost, cost + heuristic(x, z, goalX, goalZ));
+                    neighbor.closed = true; // leave it in the queue, it'll be skipped when it comes up
+                    nodes.put(key, replacement);
+                    openSet.add(replacement);
+                }
+            }
+        }
+        return null;
+    }
+
+    private static double heuristic(int x, int z, int goalX, int goalZ) {
+        return (Math.abs(goalX - x) + Math.abs(goalZ - z)) * ChunkGraph.CHUNK_COST;
+    }
+
+    private static long[] unwind(Node end) {
+        int length = 0;
+        for (Node node = end; node != null; node = node.previous) {
+            length++;
+        }
+        long[] route = new long[length];
+        Node node = end;
+        for (int i = length - 1; i >= 0; i--) {
+            route[i] = ChunkPos.asLong(node.x, node.z);
+            node = node.previous;
+        }
+        return route;
+    }
+
+    /**
+     * @param route  A route from {@link #plan}
+     * @param radius How many chunks on either side of the route to include
+     * @return Every chunk within the radius of the route
+     */
+    public static LongOpenHashSet widen(long[] route, int radius) {
+        LongOpenHashSet corridor = new LongOpenHashSet();
+        for (long chunk : route) {
+            int x = ChunkPos.getX(chunk);
+            int z = ChunkPos.getZ(chunk);
+            for (int dx = -radius; dx <= radius; dx++) {
+                for (int dz = -radius; dz <= radius; dz++) {
+                    corridor.add(ChunkPos.asLong(x + dx, z + dz));
+                }
+            }
+        }
+        return corridor;
+    }
+
+    private static final class Node {
+
+        private final int x;
+        private final int z;
+        private final Node previous;
+        private final double cost;
+        private final double combinedCost;
+        private boolean closed;
+
+        private Node(int x, int z, Node previous, double cost, double combinedCost) {
+            this.x = x;
+            this.z = z;
+            this.previous = previous;
+            this.cost = cost;
+            this.combinedCost = combinedCost;
+        }
+    }
+}
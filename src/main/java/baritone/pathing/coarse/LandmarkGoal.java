@@ -0,0 +1,92 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Baritone.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package baritone.pathing.coarse;
+
+import baritone.api.pathing.goals.Goal;
+import baritone.api.pathing.goals.GoalBlock;
+
+import java.util.List;
+
+/**
+ * A {@link GoalBlock}, but with a heuristic that knows about the terrain in between, from {@link LandmarkTable}s.
+ * <p>
+ * The landmark bound is in chunks, so it's pulled down by a bit of slack to make up for where in the chunk we
+ * actually are, and it's never allowed to be lower than the plain geometric heuristic.
+ */
+public final class LandmarkGoal implements Goal {
+
+    /**
+     * Two chunks worth, one for each end
+     */
+    private static final double SLACK = 2 * ChunkGraph.CHUNK_COST;
+
+    private final GoalBlock goal;
+    private final LandmarkTable[] tables;
+    private final double[] goalFromLandmark;
+    private final double[] goalToLandmark;
+
+    public LandmarkGoal(GoalBlock goal, List<LandmarkTable> tables) {
+        this.goal = goal;
+        this.tables = tables.toArray(new LandmarkTable[0]);
+        this.goalFromLandmark = new double[this.tables.length];
+        this.goalToLandmark = new double[this.tables.length];
+        for (int i = 0; i < this.tables.length; i++) {
+            goalFromLandmark[i] = this.tables[i].fromLandmark(goal.x >> 4, goal.z >> 4);
+            goalToLandmark[i] = this.tables[i].toLandmark(goal.x >> 4, goal.z >> 4);
+        }
+    }
+
+    public GoalBlock getGoal() {
+        return goal;
+    }
+
+    @Override
+    public boolean isInGoal(int x, int y, int z) {
+        return goal.isInGoal(x, y, z);
+    }
+
+    @Override
+    public double heuristic(int x, int y, int z) {
+        double geometric = goal.heuristic(x, y, z);
+        int chunkX = x >> 4;
+        int chunkZ = z >> 4;
+        double bound = 0;
+        for (int i = 0; i < tables.length; i++) {
+            // infinity minus infinity is NaN, and comparisons with NaN are always false, so unreached chunks just don't count
+            double forward = goalFromLandmark[i] - tables[i].fromLandmark(chunkX, chunkZ);
+            if (forward > bound && forward != Double.POSITIVE_INFINITY) {
+                bound = forward;
+            }
+            double backward = tables[i].toLandmark(chunkX, chunkZ) - goalToLandmark[i];
+            if (backward > bound && backward != Double.POSITIVE_INFINITY) {
+                bound = backward;
+            }
+        }
+        return Math.max(geometric, bound - SLACK);
+    }
+
+    @Override
+    public double heuristic() {
+        return goal.heuristic();
+    }
+
+    @Override
+    public String toString() {
+        return goal.toString();
+    }
+}
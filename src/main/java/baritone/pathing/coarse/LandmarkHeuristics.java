@@ -0,0 +1,170 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Baritone.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package baritone.pathing.coarse;
+
+import baritone.Baritone;
+import baritone.api.cache.IWaypoint;
+import baritone.api.cache.IWaypointCollection;
+import baritone.api.pathing.goals.Goal;
+import baritone.api.pathing.goals.GoalBlock;
+import baritone.api.utils.BetterBlockPos;
+import baritone.cache.CachedWorld;
+import net.minecraft.world.level.ChunkPos;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Keeps the {@link LandmarkTable}s for one world, with the waypoints as landmarks.
+ * <p>
+ * Tables live next to the region cache, one file per landmark, and are only ever built in the background. Until a
+ * table is ready, or while it's being rebuilt, searches just use whatever is there. A table is rebuilt once enough
+ * of the chunks in its range have been repacked, but not more often than every few minutes, since the chunks around
+ * the player get repacked all the time.
+ */
+public final class LandmarkHeuristics {
+
+    /**
+     * Rebuild once this many chunks in range have changed
+     */
+    private static final int CHANGED_CHUNKS_BEFORE_REBUILD = 256;
+
+    /**
+     * But never more often than this
+     */
+    private static final long MIN_REBUILD_INTERVAL_MS = 5 * 60 * 1000;
+
+    private final Path directory;
+    private final CachedWorld cache;
+    private final IWaypointCollection waypoints;
+
+    /**
+     * Loaded tables, by landmark chunk
+     */
+    private final Map<Long, LandmarkTable> tables = new ConcurrentHashMap<>();
+
+    /**
+     * Landmarks that are being loaded from disk or built right now
+     */
+    private final Set<Long> building = ConcurrentHashMap.newKeySet();
+
+    public LandmarkHeuristics(Path directory, CachedWorld cache, IWaypointCollection waypoints) {
+        this.directory = directory;
+        this.cache = cache;
+        this.waypoints = waypoints;
+    }
+
+    /**
+     * Called from the packer thread for every chunk that gets repacked
+     */
+    public void onChunkUpdated(int chunkX, int chunkZ) {
+        for (LandmarkTable table : tables.values()) {
+            if (table.contains(chunkX, chunkZ)) {
+                table.changedChunks.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * @param goal The goal of a search that's about to start
+     * @return The goal with a landmark heuristic, or the goal itself if it isn't a {@link GoalBlock} or there are no
+     * tables for it yet. Never waits for tables to load, they're loaded or built in the background instead.
+     */
+    public Goal wrap(Goal goal) {
+        if (!(goal instanceof GoalBlock)) {
+            return goal;
+        }
+        GoalBlock block = (GoalBlock) goal;
+        int radius = Baritone.settings().landmarkRadius.value;
+        int maxFallHeight = Baritone.settings().maxFallHeightNoWater.value;
+        List<LandmarkTable> usable = new ArrayList<>();
+        for (BetterBlockPos landmark : chooseLandmarks()) {
+            LandmarkTable table = getOrSchedule(landmark.x >> 4, landmark.z >> 4, radius, maxFallHeight);
+            if (table != null && table.contains(block.x >> 4, block.z >> 4)) {
+                usable.add(table);
+            }
+        }
+        if (usable.isEmpty()) {
+            return goal;
+        }
+        return new LandmarkGoal(block, usable);
+    }
+
+    /**
+     * The most recently created waypoints, no two in the same chunk
+     */
+    private List<BetterBlockPos> chooseLandmarks() {
+        List<IWaypoint> all = new ArrayList<>(waypoints.getAllWaypoints());
+        all.sort(Comparator.comparingLong(IWaypoint::getCreationTimestamp).reversed());
+        List<BetterBlockPos> chosen = new ArrayList<>();
+        int count = Baritone.settings().landmarkCount.value;
+        for (IWaypoint waypoint : all) {
+            if (chosen.size() >= count) {
+                break;
+            }
+            BetterBlockPos pos = waypoint.getLocation();
+            if (chosen.stream().noneMatch(other -> other.x >> 4 == pos.x >> 4 && other.z >> 4 == pos.z >> 4)) {
+                chosen.add(pos);
+            }
+        }
+        return chosen;
+    }
+
+    private LandmarkTable getOrSchedule(int chunkX, int chunkZ, int radius, int maxFallHeight) {
+        long key = ChunkPos.asLong(chunkX, chunkZ);
+        LandmarkTable table = tables.get(key);
+        boolean stale = table == null
+                || table.radius != radius
+                || table.maxFallHeight != maxFallHeight
+                || table.changedChunks.get() >= CHANGED_CHUNKS_BEFORE_REBUILD && System.currentTimeMillis() - table.timestamp > MIN_REBUILD_INTERVAL_MS;
+        if (stale && building.add(key)) {
+            // the first time we're asked about this one, there might be one on disk already
+            boolean tryDisk = table == null;
+            Baritone.getExecutor().execute(() -> {
+                try {
+                    LandmarkTable loaded = tryDisk ? LandmarkTable.load(file(chunkX, chunkZ)) : null;
+                    if (loaded != null && loaded.radius == radius && loaded.maxFallHeight == maxFallHeight) {
+                        tables.put(key, loaded);
+                        return;
+                    }
+                    LandmarkTable built = LandmarkTable.build(new ChunkGraph(cache, maxFallHeight), chunkX, chunkZ, radius, maxFallHeight);
+                    tables.put(key, built);
+                    built.save(file(chunkX, chunkZ));
+                } catch (IOException e) {
+                    e.printStackTrace();
+                } finally {
+                    building.remove(key);
+                }
+            });
+        }
+        if (table != null && (table.radius != radius || table.maxFallHeight != maxFallHeight)) {
+            return null; // built for different settings, could be way off
+        }
+        return table;
+    }
+
+    private Path file(int chunkX, int chunkZ) {
+        return directory.resolve("l." + chunkX + "." + chunkZ + ".blt");
+    }
+}
@@ -0,0 +1,216 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Baritone.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package baritone.pathing.coarse;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.PriorityQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * The cost over the {@link ChunkGraph} from one landmark chunk to every chunk around it, and back.
+ * <p>
+ * With these, the triangle inequality gives a lower bound on the cost between any two chunks in range:
+ * {@code d(a, b) >= d(L, b) - d(L, a)} and {@code d(a, b) >= d(a, L) - d(b, L)}.
+ */
+public final class LandmarkTable {
+
+    /**
+     * Magic value to detect invalid table files, or ones saved by an incompatible version
+     */
+    private static final int LANDMARK_TABLE_MAGIC = 0x4c4d4b31;
+
+    private static final int[][] DIRECTIONS = {{1, 0}, {-1, 0}, {0, 1}, {0, -1}};
+
+    /**
+     * The landmark chunk
+     */
+    public final int chunkX;
+    public final int chunkZ;
+
+    /**
+     * How many chunks out from the landmark the tables go, in each direction
+     */
+    public final int radius;
+
+    /**
+     * The fall height the graph was built with
+     */
+    public final int maxFallHeight;
+
+    /**
+     * When this was built, in milliseconds
+     */
+    public final long timestamp;
+
+    private final int width;
+
+    /**
+     * Cost from the landmark to each chunk, infinite if it wasn't reached
+     */
+    private final float[] fromLandmark;
+
+    /**
+     * Cost from each chunk to the landmark, infinite if it wasn't reached
+     */
+    private final float[] toLandmark;
+
+    /**
+     * How many chunks in range have been repacked since this was built
+     */
+    final AtomicInteger changedChunks = new AtomicInteger();
+
+    private LandmarkTable(int chunkX, int chunkZ, int radius, int maxFallHeight, long timestamp, float[] fromLandmark, float[] toLandmark) {
+        this.chunkX = chunkX;
+        this.chunkZ = chunkZ;
+        this.radius = radius;
+        this.maxFallHeight = maxFallHeight;
+        this.timestamp = timestamp;
+        this.width = radius * 2 + 1;
+        if (fromLandmark.length != width * width || toLandmark.length != width * width) {
+            throw new IllegalArgumentException("Table of invalid size provided");
+        }
+        this.fromLandmark = fromLandmark;
+        this.toLandmark = toLandmark;
+    }
+
+    public boolean contains(int x, int z) {
+        return Math.abs(x - chunkX) <= radius && Math.abs(z - chunkZ) <= radius;
+    }
+
+    /**
+     * @return The cost from the landmark to this chunk, or infinity if it is out of range or wasn't reached
+     */
+    public double fromLandmark(int x, int z) {
+        return contains(x, z) ? fromLandmark[index(x, z)] : Double.POSITIVE_INFINITY;
+    }
+
+    /**
+     * @return The cost from this chunk to the landmark, or infinity if it is out of range or wasn't reached
+     */
+    public double toLandmark(int x, int z) {
+        return contains(x, z) ? toLandmark[index(x, z)] : Double.POSITIVE_INFINITY;
+    }
+
+    private int index(int x, int z) {
+        return (x - chunkX + radius) * width + (z - chunkZ + radius);
+    }
+
+    /**
+     * Runs Dijkstra out from the landmark, and again in reverse into it
+     */
+    public static LandmarkTable build(ChunkGraph graph, int chunkX, int chunkZ, int radius, int maxFallHeight) {
+        int width = radius * 2 + 1;
+        float[] from = new float[width * width];
+        float[] to = new float[width * width];
+        dijkstra(graph, chunkX, chunkZ, radius, from, false);
+        dijkstra(graph, chunkX, chunkZ, radius, to, true);
+        return new LandmarkTable(chunkX, chunkZ, radius, maxFallHeight, System.currentTimeMillis(), from, to);
+    }
+
+    private static void dijkstra(ChunkGraph graph, int chunkX, int chunkZ, int radius, float[] dist, boolean reverse) {
+        int width = radius * 2 + 1;
+        Arrays.fill(dist, Float.POSITIVE_INFINITY);
+        // entries are {cost, index}, with stale ones skipped when they come up
+        PriorityQueue<double[]> queue = new PriorityQueue<>((a, b) -> Double.compare(a[0], b[0]));
+        int startIndex = radius * width + radius;
+        dist[startIndex] = 0;
+        queue.add(new double[]{0, startIndex});
+        while (!queue.isEmpty()) {
+            double[] entry = queue.poll();
+            int index = (int) entry[1];
+            if (entry[0] > dist[index]) {
+                continue;
+            }
+            int x = index / width - radius + chunkX;
+            int z = index % width - radius + chunkZ;
+            for (int[] dir : DIRECTIONS) {
+                int nx = x + dir[0];
+                int nz = z + dir[1];
+                if (Math.abs(nx - chunkX) > radius || Math.abs(nz - chunkZ) > radius) {
+                    continue;
+                }
+                // going backwards, we want the cost of the edge from the neighbor into us
+                double cost = entry[0] + (reverse ? graph.edgeCost(nx, nz, -dir[0], -dir[1]) : graph.edgeCost(x, z, dir[0], dir[1]));
+                int neighbor = (nx - chunkX + radius) * width + (nz - chunkZ + radius);
+                if (cost < dist[neighbor]) {
+                    dist[neighbor] = (float) cost;
+                    queue.add(new double[]{cost, neighbor});
+                }
+            }
+        }
+    }
+
+    public void save(Path file) throws IOException {
+        Files.createDirectories(file.getParent());
+        try (DataOutputStream out = new DataOutputStream(new GZIPOutputStream(new BufferedOutputStream(Files.newOutputStream(file), 16384), 16384))) {
+            out.writeInt(LANDMARK_TABLE_MAGIC);
+            out.writeInt(chunkX);
+            out.writeInt(chunkZ);
+            out.writeInt(radius);
+            out.writeInt(maxFallHeight);
+            out.writeLong(timestamp);
+            for (float f : fromLandmark) {
+                out.writeFloat(f);
+            }
+            for (float f : toLandmark) {
+                out.writeFloat(f);
+            }
+        }
+    }
+
+    /**
+     * @return The table, or null if the file doesn't exist or isn't a valid table
+     */
+    public static LandmarkTable load(Path file) {
+        if (!Files.exists(file)) {
+            return null;
+        }
+        try (DataInputStream in = new DataInputStream(new GZIPInputStream(new BufferedInputStream(Files.newInputStream(file), 16384), 16384))) {
+            if (in.readInt() != LANDMARK_TABLE_MAGIC) {
+                throw new IOException("Bad magic value");
+            }
+            int chunkX = in.readInt();
+            int chunkZ = in.readInt();
+            int radius = in.readInt();
+            int maxFallHeight = in.readInt();
+            long timestamp = in.readLong();
+            if (radius < 0 || radius > 1024) {
+                throw new IOException("Bad radius " + radius);
+            }
+            int width = radius * 2 + 1;
+            float[] from = new float[width * width];
+            float[] to = new float[width * width];
+            for (int i = 0; i < from.length; i++) {
+                from[i] = in.readFloat();
+            }
+            for (int i = 0; i < to.length; i++) {
+                to[i] = in.readFloat();
+            }
+            return new LandmarkTable(chunkX, chunkZ, radius, maxFallHeight, timestamp, from, to);
+        } catch (Exception ex) { // corrupted files can cause NullPointerExceptions as well as IOExceptions
+            System.out.println("Unable to load landmark table " + file);
+            ex.printStackTrace();
+            return null;
+        }
+    }
+}
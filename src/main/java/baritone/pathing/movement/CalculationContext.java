@@ -19,12 +19,17 @@ package baritone.pathing.movement;
 
 import baritone.Baritone;
 import baritone.api.IBaritone;
+import baritone.api.Settings;
 import baritone.api.pathing.movement.ActionCosts;
+import baritone.api.utils.BetterBlockPos;
 import baritone.cache.WorldData;
 import baritone.pathing.precompute.PrecomputedData;
+import baritone.pathing.precompute.SectionPlanes;
+import baritone.pathing.precompute.SectionVersions;
 import baritone.utils.BlockStateInterface;
 import baritone.utils.ToolSet;
 import baritone.utils.pathing.BetterWorldBorder;
+import baritone.utils.pathing.MutableMoveResult;
 import net.minecraft.client.player.LocalPlayer;
 import net.minecraft.core.BlockPos;
 import net.minecraft.world.entity.player.Inventory;
@@ -35,9 +40,13 @@ import net.minecraft.world.item.enchantment.Enchantments;
 import net.minecraft.world.level.Level;
 import net.minecraft.world.level.block.Block;
 import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.dimension.DimensionType;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import static baritone.api.pathing.movement.ActionCosts.COST_INF;
 
@@ -80,9 +89,43 @@ public class CalculationContext {
     public double jumpPenalty;
     public final double walkOnWaterOnePenalty;
     public final BetterWorldBorder worldBorder;
+    public final int minY;
+    public final int height;
 
     public final PrecomputedData precomputedData;
 
+    /**
+     * Null without {@link baritone.api.Settings#precomputeSectionPlanes}
+     */
+    public final SectionPlanes sectionPlanes;
+
+    /**
+     * The blocks around the node being expanded, see {@link #focusOn(int, int, int)}
+     */
+    private final NeighborhoodCache<BlockState> neighborhood;
+
+    /**
+     * Shared by every search of the same {@link Baritone}. Null without {@link baritone.api.Settings#memoizeMovementCosts},
+     * and for subclasses, since those can change costs in ways that {@link #contextId()} can't see.
+     */
+    public final MoveCostMemo costMemo;
+
+    /**
+     * {@link SectionVersions#latest()} from just before {@link #bsi} copied the loaded chunks
+     */
+    private final long snapshotVersion;
+
+    /**
+     * What results for the node being expanded are kept under in {@link #costMemo}, the version is -1 if they aren't
+     */
+    private long focusedPosition;
+    private long focusedVersion = -1;
+
+    /**
+     * 0 until it's needed
+     */
+    private long contextId;
+
     public CalculationContext(IBaritone baritone) {
         this(baritone, false);
     }
@@ -94,7 +137,11 @@ public class CalculationContext {
         LocalPlayer player = baritone.getPlayerContext().player();
         this.world = baritone.getPlayerContext().world();
         this.worldData = (WorldData) baritone.getPlayerContext().worldData();
+        this.snapshotVersion = SectionVersions.latest();
         this.bsi = new BlockStateInterface(baritone.getPlayerContext(), forUseOnAnotherThread);
+        this.costMemo = Baritone.settings().memoizeMovementCosts.value && getClass() == CalculationContext.class ? ((Baritone) baritone).getMoveCostMemo() : null;
+        this.sectionPlanes = Baritone.settings().precomputeSectionPlanes.value ? new SectionPlanes(bsi, precomputedData) : null;
+        this.neighborhood = new NeighborhoodCache<>(bsi::get0);
         this.toolSet = new ToolSet(player);
         this.hasThrowaway = Baritone.settings().allowPlace.value && ((Baritone) baritone).getInventoryBehavior().hasGenericThrowaway();
         this.hasWaterBucket = Baritone.settings().allowWaterBucketFall.value && Inventory.isHotbarSlot(player.getInventory().findSlotMatchingItem(STACK_BUCKET_WATER)) && world.dimension() != Level.NETHER;
@@ -129,6 +176,113 @@ public class CalculationContext {
         // because if some movements are calculated one way and others are calculated another way,
         // then you get a wildly inconsistent path that isn't optimal for either scenario.
         this.worldBorder = new BetterWorldBorder(world.getWorldBorder());
+        this.minY = world.dimensionType().minY();
+        this.height = world.dimensionType().height();
+    }
+
+    /**
+     * For use without a Minecraft client, e.g. pathing from the cache in another process. There is no
+     * {@link IBaritone} or world, so what would come from the player comes from the profile instead, and everything
+     * else is read from the settings as usual.
+     *
+     * @param bsi       Where the blocks come from
+     * @param worldData The cache, may be null
+     * @param dimension The dimension the blocks are in
+     * @param profile   What the player can do
+     */
+    public CalculationContext(BlockStateInterface bsi, WorldData worldData, DimensionType dimension, CapabilityProfile profile) {
+        this.precomputedData = new PrecomputedData();
+        this.safeForThreadedUse = true;
+        this.baritone = null;
+        this.world = null;
+        this.worldData = worldData;
+        this.bsi = bsi;
+        this.sectionPlanes = null; // there are no loaded sections, only the cache
+        this.costMemo = null; // nothing changes the versions without a client
+        this.snapshotVersion = 0;
+        this.neighborhood = new NeighborhoodCache<>(bsi::get0);
+        this.toolSet = new ToolSet(profile.hotbar);
+        this.hasThrowaway = profile.hasThrowaway;
+        this.hasWaterBucket = profile.hasWaterBucket && !dimension.ultraWarm();
+        this.canSprint = profile.canSprint;
+        this.placeBlockCost = Baritone.settings().blockPlacementPenalty.value;
+        this.allowBreak = profile.allowBreak;
+        this.allowBreakAnyway = new ArrayList<>(Baritone.settings().allowBreakAnyway.value);
+        this.allowParkour = profile.allowParkour;
+        this.allowParkourPlace = profile.allowParkourPlace;
+        this.allowJumpAt256 = Baritone.settings().allowJumpAt256.value;
+        this.allowParkourAscend = profile.allowParkourAscend;
+        this.assumeWalkOnWater = Baritone.settings().assumeWalkOnWater.value;
+        this.allowFallIntoLava = false;
+        this.frostWalker = profile.frostWalker;
+        this.allowDiagonalDescend = profile.allowDiagonalDescend;
+        this.allowDiagonalAscend = profile.allowDiagonalAscend;
+        this.allowDownward = profile.allowDownward;
+        this.minFallHeight = 3;
+        this.maxFallHeightNoWater = profile.maxFallHeightNoWater;
+        this.maxFallHeightBucket = Baritone.settings().maxFallHeightBucket.value;
+        float mult = Math.min(profile.depthStrider, 3) / 3.0F;
+        this.waterWalkSpeed = ActionCosts.WALK_ONE_IN_WATER_COST * (1 - mult) + ActionCosts.WALK_ONE_BLOCK_COST * mult;
+        this.breakBlockAdditionalCost = Baritone.settings().blockBreakAdditionalPenalty.value;
+        this.backtrackCostFavoringCoefficient = Baritone.settings().backtrackCostFavoringCoefficient.value;
+        this.jumpPenalty = Baritone.settings().jumpPenalty.value;
+        this.walkOnWaterOnePenalty = Baritone.settings().walkOnWaterOnePenalty.value;
+        this.worldBorder = bsi.worldBorder;
+        this.minY = dimension.minY();
+        this.height = dimension.height();
+    }
+
+    /**
+     * Makes a copy of a threaded context that can be used at the same time as the original, from yet another thread.
+     * The copy gets its own {@link BlockStateInterface} and {@link ToolSet}, since both of those have caches that
+     * aren't safe to share. Everything else is either immutable or copied over as-is.
+     * <p>
+     * This only copies the fields, so any behavior overridden by a subclass of the original is lost.
+     *
+     * @param other The context to copy
+     */
+    public CalculationContext(CalculationContext other) {
+        if (!other.safeForThreadedUse) {
+            throw new IllegalStateException("Can only copy a context that is safe for threaded use");
+        }
+        this.precomputedData = other.precomputedData; // already written to be shared between threads
+        this.safeForThreadedUse = true;
+        this.baritone = other.baritone;
+        this.world = other.world;
+        this.worldData = other.worldData;
+        this.bsi = new BlockStateInterface(other.bsi);
+        this.sectionPlanes = other.sectionPlanes == null ? null : new SectionPlanes(bsi, precomputedData);
+        this.neighborhood = new NeighborhoodCache<>(bsi::get0);
+        this.costMemo = other.costMemo;
+        this.snapshotVersion = other.snapshotVersion;
+        this.toolSet = new ToolSet(other.toolSet);
+        this.hasThrowaway = other.hasThrowaway;
+        this.hasWaterBucket = other.hasWaterBucket;
+        this.canSprint = other.canSprint;
+        this.placeBlockCost = other.placeBlockCost;
+        this.allowBreak = other.allowBreak;
+        this.allowBreakAnyway = other.allowBreakAnyway;
+        this.allowParkour = other.allowParkour;
+        this.allowParkourPlace = other.allowParkourPlace;
+        this.allowJumpAt256 = other.allowJumpAt256;
+        this.allowParkourAscend = other.allowParkourAscend;
+        this.assumeWalkOnWater = other.assumeWalkOnWater;
+        this.allowFallIntoLava = other.allowFallIntoLava;
+        this.frostWalker = other.frostWalker;
+        this.allowDiagonalDescend = other.allowDiagonalDescend;
+        this.allowDiagonalAscend = other.allowDiagonalAscend;
+        this.allowDownward = other.allowDownward;
+        this.minFallHeight = other.minFallHeight;
+        this.maxFallHeightNoWater = other.maxFallHeightNoWater;
+        this.maxFallHeightBucket = other.maxFallHeightBucket;
+        this.waterWalkSpeed = other.waterWalkSpeed;
+        this.breakBlockAdditionalCost = other.breakBlockAdditionalCost;
+        this.backtrackCostFavoringCoefficient = other.backtrackCostFavoringCoefficient;
+        this.jumpPenalty = other.jumpPenalty;
+        this.walkOnWaterOnePenalty = other.walkOnWaterOnePenalty;
+        this.worldBorder = other.worldBorder;
+        this.minY = other.minY;
+        this.height = other.height;
     }
 
     public final IBaritone getBaritone() {
@@ -136,7 +290,79 @@ public class CalculationContext {
     }
 
     public BlockState get(int x, int y, int z) {
-        return bsi.get0(x, y, z); // laughs maniacally
+        return neighborhood.get(x, y, z); // laughs maniacally
+    }
+
+    /**
+     * Called by a search before it works out the movements out of a node, so that they share the blocks around it
+     * instead of each looking them up again. {@link #clearFocus()} has to be called once they're done.
+     */
+    public void focusOn(int x, int y, int z) {
+        neighborhood.focus(x, y, z);
+        if (costMemo != null) {
+            long version = SectionVersions.around(x >> 4, z >> 4);
+            // anything newer could have loaded or unloaded after bsi copied the loaded chunks, so the results here
+            // might not be what they'd be from the same version next time
+            focusedVersion = version <= snapshotVersion ? version : -1;
+            focusedPosition = BetterBlockPos.longHash(x, y, z);
+        }
+    }
+
+    public void clearFocus() {
+        neighborhood.clearFocus();
+        focusedVersion = -1;
+    }
+
+    /**
+     * Works out a movement from the node this is focused on, or takes it from {@link #costMemo} if an earlier search
+     * already did and nothing it depends on has changed since. Anything else is just worked out.
+     */
+    public void apply(Moves moves, int x, int y, int z, MutableMoveResult result) {
+        long version = focusedVersion;
+        if (version < 0 || BetterBlockPos.longHash(x, y, z) != focusedPosition) {
+            moves.apply(this, x, y, z, result);
+            return;
+        }
+        long context = contextId();
+        if (costMemo.get(focusedPosition, moves.ordinal(), context, version, result)) {
+            return;
+        }
+        moves.apply(this, x, y, z, result);
+        costMemo.put(focusedPosition, moves.ordinal(), context, version, result);
+    }
+
+    /**
+     * @return The id from {@link #costMemo} of everything besides the blocks that costs depend on. It's worked out the
+     * first time it's needed, by which point anything that changes the public fields before a search already has.
+     */
+    private long contextId() {
+        if (contextId == 0) {
+            List<Object> key = new ArrayList<>();
+            for (Settings.Setting<?> setting : Baritone.settings().allSettings) {
+                key.add(snapshot(setting.value));
+            }
+            key.add(toolSet.key());
+            key.addAll(Arrays.asList(hasWaterBucket, hasThrowaway, canSprint, placeBlockCost, allowBreak, allowBreakAnyway,
+                    allowParkour, allowParkourPlace, allowJumpAt256, allowParkourAscend, assumeWalkOnWater, allowFallIntoLava,
+                    frostWalker, allowDiagonalDescend, allowDiagonalAscend, allowDownward, minFallHeight, maxFallHeightNoWater,
+                    maxFallHeightBucket, waterWalkSpeed, breakBlockAdditionalCost, jumpPenalty, walkOnWaterOnePenalty,
+                    worldBorder, minY, height));
+            contextId = costMemo.contextId(world, key);
+        }
+        return contextId;
+    }
+
+    /**
+     * @return A copy of a setting's value, if it's one that can be changed in place
+     */
+    private static Object snapshot(Object value) {
+        if (value instanceof List) {
+            return new ArrayList<>((List<?>) value);
+        }
+        if (value instanceof Map) {
+            return new HashMap<>((Map<?, ?>) value);
+        }
+        return value;
     }
 
     public boolean isLoaded(int x, int z) {
@@ -0,0 +1,191 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Baritone.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package baritone.pathing.movement;
+
+import baritone.Baritone;
+import net.minecraft.world.item.ItemStack;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * What a player can do, for pathing without one. Normally all of this comes from the player's inventory and
+ * the settings when a {@link CalculationContext} is made, here it's spelled out so that different searches can have
+ * different capabilities at the same time.
+ */
+public final class CapabilityProfile {
+
+    /**
+     * The items on the hotbar, which decide how fast blocks can be broken
+     */
+    public final List<ItemStack> hotbar;
+
+    /**
+     * Whether there are blocks to place
+     */
+    public final boolean hasThrowaway;
+
+    /**
+     * Whether there is a water bucket to fall into
+     */
+    public final boolean hasWaterBucket;
+
+    /**
+     * Whether we aren't too hungry to sprint
+     */
+    public final boolean canSprint;
+
+    public final boolean allowBreak;
+    public final boolean allowParkour;
+    public final boolean allowParkourPlace;
+    public final boolean allowParkourAscend;
+    public final boolean allowDiagonalDescend;
+    public final boolean allowDiagonalAscend;
+    public final boolean allowDownward;
+    public final int maxFallHeightNoWater;
+
+    /**
+     * The levels of frost walker and depth strider on our boots
+     */
+    public final int frostWalker;
+    public final int depthStrider;
+
+    private CapabilityProfile(Builder builder) {
+        this.hotbar = Collections.unmodifiableList(new ArrayList<>(builder.hotbar));
+        this.hasThrowaway = builder.hasThrowaway;
+        this.hasWaterBucket = builder.hasWaterBucket;
+        this.canSprint = builder.canSprint;
+        this.allowBreak = builder.allowBreak;
+        this.allowParkour = builder.allowParkour;
+        this.allowParkourPlace = builder.allowParkourPlace;
+        this.allowParkourAscend = builder.allowParkourAscend;
+        this.allowDiagonalDescend = builder.allowDiagonalDescend;
+        this.allowDiagonalAscend = builder.allowDiagonalAscend;
+        this.allowDownward = builder.allowDownward;
+        this.maxFallHeightNoWater = builder.maxFallHeightNoWater;
+        this.frostWalker = builder.frostWalker;
+        this.depthStrider = builder.depthStrider;
+    }
+
+    /**
+     * @return A builder with the allow flags taken from the current settings, as if the player had everything those
+     * settings ask for, but with an empty hotbar
+     */
+    public static Builder fromSettings() {
+        return new Builder();
+    }
+
+    public static final class Builder {
+
+        private final List<ItemStack> hotbar = new ArrayList<>();
+        private boolean hasThrowaway = Baritone.settings().allowPlace.value;
+        private boolean hasWaterBucket = Baritone.settings().allowWaterBucketFall.value;
+        private boolean canSprint = Baritone.settings().allowSprint.value;
+        private boolean allowBreak = Baritone.settings().allowBreak.value;
+        private boolean allowParkour = Baritone.settings().allowParkour.value;
+        private boolean allowParkourPlace = Baritone.settings().allowParkourPlace.value;
+        private boolean allowParkourAscend = Baritone.settings().allowParkourAscend.value;
+        private boolean allowDiagonalDescend = Baritone.settings().allowDiagonalDescend.value;
+        private boolean allowDiagonalAscend = Baritone.settings().allowDiagonalAscend.value;
+        private boolean allowDownward = Baritone.settings().allowDownward.value;
+        private int maxFallHeightNoWater = Baritone.settings().maxFallHeightNoWater.value;
+        private int frostWalker;
+        private int depthStrider;
+
+        private Builder() {}
+
+        public Builder hotbar(List<ItemStack> items) {
+            if (items.size() > 9) {
+                throw new IllegalArgumentException("A hotbar has 9 slots, not " + items.size());
+            }
+            this.hotbar.clear();
+            this.hotbar.addAll(items);
+            return this;
+        }
+
+        public Builder hasThrowaway(boolean hasThrowaway) {
+            this.hasThrowaway = hasThrowaway;
+            return this;
+        }
+
+        public Builder hasWaterBucket(boolean hasWaterBucket) {
+            this.hasWaterBucket = hasWaterBucket;
+            return this;
+        }
+
+        public Builder canSprint(boolean canSprint) {
+            this.canSprint = canSprint;
+            return this;
+        }
+
+        public Builder allowBreak(boolean allowBreak) {
+            this.allowBreak = allowBreak;
+            return this;
+        }
+
+        public Builder allowParkour(boolean allowParkour) {
+            this.allowParkour = allowParkour;
+            return this;
+        }
+
+        public Builder allowParkourPlace(boolean allowParkourPlace) {
+            this.allowParkourPlace = allowParkourPlace;
+            return this;
+        }
+
+        public Builder allowParkourAscend(boolean allowParkourAscend) {
+            this.allowParkourAscend = allowParkourAscend;
+            return this;
+        }
+
+        public Builder allowDiagonalDescend(boolean allowDiagonalDescend) {
+            this.allowDiagonalDescend = allowDiagonalDescend;
+            return this;
+        }
+
+        public Builder allowDiagonalAscend(boolean allowDiagonalAscend) {
+            this.allowDiagonalAscend = allowDiagonalAscend;
+            return this;
+        }
+
+        public Builder allowDownward(boolean allowDownward) {
+            this.allowDownward = allowDownward;
+            return this;
+        }
+
+        public Builder maxFallHeightNoWater(int maxFallHeightNoWater) {
+            this.maxFallHeightNoWater = maxFallHeightNoWater;
+            return this;
+        }
+
+        public Builder frostWalker(int frostWalker) {
+            this.frostWalker = frostWalker;
+            return this;
+        }
+
+        public Builder depthStrider(int depthStrider) {
+            this.depthStrider = depthStrider;
+            return this;
+        }
+
+        public CapabilityProfile build() {
+            return new CapabilityProfile(this);
+        }
+    }
+}
@@ -0,0 +1,163 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Baritone.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package baritone.pathing.movement;
+
+import baritone.utils.pathing.MutableMoveResult;
+import it.unimi.dsi.fastutil.HashCommon;
+import net.minecraft.world.level.Level;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.lang.ref.WeakReference;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Remembers the results of movements out of positions, so that a search can reuse what an earlier one worked out
+ * instead of doing it again. Replanning mostly covers the same ground as the search before it, so most of them get
+ * reused.
+ * <p>
+ * Each result is kept along with what it depends on besides the movement and where it starts: the id of the
+ * {@link CalculationContext} from {@link #contextId}, and the version of the blocks around it from
+ * {@link baritone.pathing.precompute.SectionVersions}. It's only given back if both of those are still the same.
+ * <p>
+ * It's a fixed size, and each result can only go in the one slot given by the hash of its position and movement, so a
+ * newer one just replaces whatever was there. Safe to use from any number of threads at once: each slot has a sequence
+ * number that's odd while the slot is being written, and a read only counts if that number was even and didn't change
+ * while it was reading.
+ */
+public final class MoveCostMemo {
+
+    private static final VarHandle SEQUENCE = MethodHandles.arrayElementVarHandle(int[].class);
+
+    private static final int MAX_CONTEXTS = 8;
+
+    private final int mask;
+
+    private final int[] sequences;
+    private final long[] positions;
+    private final int[] moves;
+    private final long[] contexts;
+    private final long[] versions;
+    private final double[] costs;
+    private final int[] destinations;
+
+    /**
+     * The id of each of the last few contexts, all in {@link #world}. Ids are never reused, so a result can only be
+     * given back to a context that's equal to the one it was worked out in.
+     */
+    private final Map<Object, Long> contextIds = new HashMap<>();
+    private long nextContextId;
+
+    /**
+     * The world {@link #contextIds} are for. Weak, so that a world that's been left isn't kept around by this.
+     */
+    private WeakReference<Level> world = new WeakReference<>(null);
+
+    /**
+     * @param bits The log2 of how many results can be kept
+     */
+    public MoveCostMemo(int bits) {
+        int size = 1 << bits;
+        this.mask = size - 1;
+        this.sequences = new int[size];
+        this.positions = new long[size];
+        this.moves = new int[size];
+        this.contexts = new long[size];
+        this.versions = new long[size];
+        this.costs = new double[size];
+        this.destinations = new int[size * 3];
+    }
+
+    /**
+     * @param world   The world the context is in
+     * @param context Everything else about the context that costs depend on, which mustn't change after this
+     * @return The id to keep results for this context under, the same for every context that's equal to it
+     */
+    public synchronized long contextId(Level world, Object context) {
+        if (this.world.get() != world) {
+            contextIds.clear(); // nothing from another world can be the same
+            this.world = new WeakReference<>(world);
+        }
+        Long id = contextIds.get(context);
+        if (id != null) {
+            return id;
+        }
+        if (contextIds.size() >= MAX_CONTEXTS) {
+            contextIds.clear(); // results for the ones that are dropped just won't be found any more
+        }
+        contextIds.put(context, ++nextContextId);
+        return nextContextId;
+    }
+
+    /**
+     * @param position The position the movement starts from, as a {@link baritone.api.utils.BetterBlockPos#longHash}
+     * @param move     Which movement it is
+     * @param context  The id of the context from {@link #contextId}
+     * @param version  The version of the blocks around the position
+     * @param result   Where to put the result
+     * @return Whether there was a result to put there
+     */
+    public boolean get(long position, int move, long context, long version, MutableMoveResult result) {
+        int slot = slot(position, move);
+        int before = (int) SEQUENCE.getAcquire(sequences, slot);
+        if ((before & 1) != 0) {
+            return false; // being written right now
+        }
+        boolean same = positions[slot] == position && moves[slot] == move && contexts[slot] == context && versions[slot] == version;
+        double cost = costs[slot];
+        int x = destinations[slot * 3];
+        int y = destinations[slot * 3 + 1];
+        int z = destinations[slot * 3 + 2];
+        VarHandle.acquireFence(); // all of that has to have been read before the sequence is checked again
+        if (!same || (int) SEQUENCE.get(sequences, slot) != before) {
+            return false;
+        }
+        result.cost = cost;
+        result.x = x;
+        result.y = y;
+        result.z = z;
+        return true;
+    }
+
+    /**
+     * Remembers a result, unless another thread is writing to the same slot right now
+     *
+     * @see #get
+     */
+    public void put(long position, int move, long context, long version, MutableMoveResult result) {
+        int slot = slot(position, move);
+        int before = (int) SEQUENCE.getVolatile(sequences, slot);
+        if ((before & 1) != 0 || !SEQUENCE.compareAndSet(sequences, slot, before, before + 1)) {
+            return; // it can just be worked out again next time
+        }
+        positions[slot] = position;
+        moves[slot] = move;
+        contexts[slot] = context;
+        versions[slot] = version;
+        costs[slot] = result.cost;
+        destinations[slot * 3] = result.x;
+        destinations[slot * 3 + 1] = result.y;
+        destinations[slot * 3 + 2] = result.z;
+        SEQUENCE.setRelease(sequences, slot, before + 2);
+    }
+
+    private int slot(long position, int move) {
+        return (int) HashCommon.mix(position * 31 + move) & mask;
+    }
+}
@@ -121,6 +121,10 @@ public interface MovementHelper extends ActionCosts, Helper {
     }
 
     static boolean canWalkThrough(CalculationContext context, int x, int y, int z) {
+        Ternary planes = context.sectionPlanes == null ? MAYBE : context.sectionPlanes.canWalkThrough(x, y, z);
+        if (planes != MAYBE) {
+            return planes == YES;
+        }
         return context.precomputedData.canWalkThrough(context.bsi, x, y, z, context.get(x, y, z));
     }
 
@@ -278,6 +282,10 @@ public interface MovementHelper extends ActionCosts, Helper {
      * not including water, and not including ladders or vines or cobwebs (they slow us down)
      */
     static boolean fullyPassable(CalculationContext context, int x, int y, int z) {
+        Ternary planes = context.sectionPlanes == null ? MAYBE : context.sectionPlanes.fullyPassable(x, y, z);
+        if (planes != MAYBE) {
+            return planes == YES;
+        }
         return fullyPassable(context, x, y, z, context.get(x, y, z));
     }
 
@@ -490,6 +498,10 @@ public interface MovementHelper extends ActionCosts, Helper {
     }
 
     static boolean canWalkOn(CalculationContext context, int x, int y, int z) {
+        Ternary planes = context.sectionPlanes == null ? MAYBE : context.sectionPlanes.canWalkOn(x, y, z);
+        if (planes != MAYBE) {
+            return planes == YES;
+        }
         return canWalkOn(context, x, y, z, context.get(x, y, z));
     }
 
@@ -0,0 +1,116 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Baritone.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package baritone.pathing.movement;
+
+import java.util.Arrays;
+
+/**
+ * Remembers the blocks around the node a search is expanding, so that all of the movements out of it share them
+ * instead of each looking up the same ones again. Anything out of reach of every movement but a long fall or parkour
+ * is kept, and the rest is passed straight through.
+ * <p>
+ * Blocks are only looked up the first time a movement asks for them, and everything is forgotten as soon as the search
+ * moves on to another node, so this never gives anything different from looking them up directly. Not thread safe.
+ *
+ * @param <T> What's kept for each block
+ */
+public final class NeighborhoodCache<T> {
+
+    /**
+     * How far out horizontally, far enough for the longest parkour jump
+     */
+    public static final int RADIUS = 4;
+
+    /**
+     * How far down and up
+     */
+    public static final int BELOW = 3;
+    public static final int ABOVE = 4;
+
+    private static final int WIDTH = 2 * RADIUS + 1;
+    private static final int LEVELS = BELOW + 1 + ABOVE;
+
+    private final Source<T> source;
+    private final Object[] values = new Object[WIDTH * WIDTH * LEVELS];
+
+    /**
+     * Which focus each of {@link #values} was looked up for. Only the ones that match {@link #stamp} are current.
+     */
+    private final int[] stamps = new int[WIDTH * WIDTH * LEVELS];
+    private int stamp;
+
+    private boolean focused;
+
+    /**
+     * The lowest corner of what's kept
+     */
+    private int minX;
+    private int minY;
+    private int minZ;
+
+    public NeighborhoodCache(Source<T> source) {
+        this.source = source;
+    }
+
+    /**
+     * Forgets everything, and starts keeping the blocks around this position
+     */
+    public void focus(int x, int y, int z) {
+        if (++stamp == 0) {
+            // every value from before wrapping around has to be forgotten too
+            Arrays.fill(stamps, 0);
+            stamp = 1;
+        }
+        minX = x - RADIUS;
+        minY = y - BELOW;
+        minZ = z - RADIUS;
+        focused = true;
+    }
+
+    /**
+     * Stops keeping anything, so that every lookup goes straight through until the next {@link #focus}
+     */
+    public void clearFocus() {
+        focused = false;
+    }
+
+    @SuppressWarnings("unchecked")
+    public T get(int x, int y, int z) {
+        if (!focused) {
+            return source.get(x, y, z);
+        }
+        int dx = x - minX;
+        int dy = y - minY;
+        int dz = z - minZ;
+        if (dx < 0 || dx >= WIDTH || dy < 0 || dy >= LEVELS || dz < 0 || dz >= WIDTH) {
+            return source.get(x, y, z);
+        }
+        int index = (dy * WIDTH + dz) * WIDTH + dx;
+        if (stamps[index] != stamp) {
+            values[index] = source.get(x, y, z);
+            stamps[index] = stamp;
+        }
+        return (T) values[index];
+    }
+
+    @FunctionalInterface
+    public interface Source<T> {
+
+        T get(int x, int y, int z);
+    }
+}
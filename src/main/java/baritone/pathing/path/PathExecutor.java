@@ -32,9 +32,12 @@ import baritone.pathing.movement.Movement;
 import baritone.pathing.movement.MovementHelper;
 import baritone.pathing.movement.movements.*;
 import baritone.utils.BlockStateInterface;
+import it.unimi.dsi.fastutil.ints.IntRBTreeSet;
+import it.unimi.dsi.fastutil.ints.IntSortedSet;
 import net.minecraft.core.BlockPos;
 import net.minecraft.core.Vec3i;
 import net.minecraft.util.Tuple;
+import net.minecraft.world.level.block.state.BlockState;
 import net.minecraft.world.phys.Vec3;
 import java.util.*;
 
@@ -66,6 +69,16 @@ public class PathExecutor implements IPathExecutor, Helper {
     private Double currentMovementOriginalCostEstimate;
     private Integer costEstimateIndex;
     private boolean failed;
+
+    /**
+     * The first movement that became impossible, if that's why we were cancelled, -1 otherwise
+     */
+    private int brokenMovement = -1;
+
+    /**
+     * The movements ahead of us that have had a block change next to them since we last checked, in order
+     */
+    private final IntSortedSet changedMovements = new IntRBTreeSet();
     private boolean recalcBP = true;
     private HashSet<BlockPos> toBreak = new HashSet<>();
     private HashSet<BlockPos> toPlace = new HashSet<>();
@@ -198,6 +211,20 @@ public class PathExecutor implements IPathExecutor, Helper {
             for (int i = 1; i < Baritone.settings().costVerificationLookahead.value && pathPosition + i < path.length() - 1; i++) {
                 if (((Movement) path.movements().get(pathPosition + i)).calculateCost(behavior.secretInternalGetCalculationContext()) >= ActionCosts.COST_INF && canCancel) {
                     logDebug("Something has changed in the world and a future movement has become impossible. Cancelling.");
+                    brokenMovement = pathPosition + i;
+                    cancel();
+                    return true;
+                }
+            }
+        }
+        if (!changedMovements.isEmpty() && canCancel) {
+            // these can be well past the lookahead, so only the movements that were actually touched get rechecked
+            int[] changed = changedMovements.toIntArray();
+            changedMovements.clear();
+            for (int index : changed) {
+                if (index > pathPosition && ((Movement) path.movements().get(index)).calculateCost(behavior.secretInternalGetCalculationContext()) >= ActionCosts.COST_INF) {
+                    logDebug("A block change has made a future movement impossible. Cancelling.");
+                    brokenMovement = index;
                     cancel();
                     return true;
                 }
@@ -206,6 +233,7 @@ public class PathExecutor implements IPathExecutor, Helper {
         double currentCost = movement.recalculateCost(behavior.secretInternalGetCalculationContext());
         if (currentCost >= ActionCosts.COST_INF && canCancel) {
             logDebug("Something has changed in the world and this movement has become impossible. Cancelling.");
+            brokenMovement = pathPosition;
             cancel();
             return true;
         }
@@ -643,6 +671,37 @@ public class PathExecutor implements IPathExecutor, Helper {
         return failed;
     }
 
+    /**
+     * @return The index of the movement that became impossible and made us fail, or -1 if we failed for any other
+     * reason (or didn't)
+     */
+    public int getBrokenMovement() {
+        return brokenMovement;
+    }
+
+    /**
+     * Notes every movement still ahead of us that could be affected by any of these block changes, so that they get
+     * rechecked on the next tick even if they're further out than {@link baritone.api.Settings#costVerificationLookahead}
+     *
+     * @param changes The blocks that changed
+     */
+    public void onBlocksChanged(List<Pair<BlockPos, BlockState>> changes) {
+        for (int i = pathPosition + 1; i < path.movements().size(); i++) {
+            BetterBlockPos src = path.movements().get(i).getSrc();
+            BetterBlockPos dest = path.movements().get(i).getDest();
+            for (Pair<BlockPos, BlockState> change : changes) {
+                BlockPos pos = change.first();
+                // everything a movement looks at is within a block of its src and dest horizontally, from the floor under them to above their heads
+                if (pos.getX() >= Math.min(src.x, dest.x) - 1 && pos.getX() <= Math.max(src.x, dest.x) + 1
+                        && pos.getZ() >= Math.min(src.z, dest.z) - 1 && pos.getZ() <= Math.max(src.z, dest.z) + 1
+                        && pos.getY() >= Math.min(src.y, dest.y) - 1 && pos.getY() <= Math.max(src.y, dest.y) + 2) {
+                    changedMovements.add(i);
+                    break;
+                }
+            }
+        }
+    }
+
     public boolean finished() {
         return pathPosition >= path.length();
     }
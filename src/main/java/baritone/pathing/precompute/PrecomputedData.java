@@ -29,13 +29,13 @@ public class PrecomputedData {
 
     private final int[] data = new int[Block.BLOCK_STATE_REGISTRY.size()];
 
-    private static final int COMPLETED_MASK = 1 << 0;
-    private static final int CAN_WALK_ON_MASK = 1 << 1;
-    private static final int CAN_WALK_ON_SPECIAL_MASK = 1 << 2;
-    private static final int CAN_WALK_THROUGH_MASK = 1 << 3;
-    private static final int CAN_WALK_THROUGH_SPECIAL_MASK = 1 << 4;
-    private static final int FULLY_PASSABLE_MASK = 1 << 5;
-    private static final int FULLY_PASSABLE_SPECIAL_MASK = 1 << 6;
+    static final int COMPLETED_MASK = 1 << 0;
+    static final int CAN_WALK_ON_MASK = 1 << 1;
+    static final int CAN_WALK_ON_SPECIAL_MASK = 1 << 2;
+    static final int CAN_WALK_THROUGH_MASK = 1 << 3;
+    static final int CAN_WALK_THROUGH_SPECIAL_MASK = 1 << 4;
+    static final int FULLY_PASSABLE_MASK = 1 << 5;
+    static final int FULLY_PASSABLE_SPECIAL_MASK = 1 << 6;
 
     private int fillData(int id, BlockState state) {
         int blockData = 0;
@@ -70,6 +70,18 @@ public class PrecomputedData {
         return blockData;
     }
 
+    /**
+     * @return All of the masks that apply to this state
+     */
+    int get(BlockState state) {
+        int id = Block.BLOCK_STATE_REGISTRY.getId(state);
+        int blockData = data[id];
+        if ((blockData & COMPLETED_MASK) == 0) {
+            blockData = fillData(id, state);
+        }
+        return blockData;
+    }
+
     public boolean canWalkOn(BlockStateInterface bsi, int x, int y, int z, BlockState state) {
         int id = Block.BLOCK_STATE_REGISTRY.getId(state);
         int blockData = data[id];
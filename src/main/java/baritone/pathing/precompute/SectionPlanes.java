@@ -0,0 +1,210 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Baritone.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package baritone.pathing.precompute;
+
+import baritone.utils.BlockStateInterface;
+import baritone.utils.accessor.IPalettedContainer;
+import net.minecraft.util.BitStorage;
+import net.minecraft.world.level.block.Blocks;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.world.level.chunk.LevelChunkSection;
+import net.minecraft.world.level.chunk.Palette;
+import net.minecraft.world.level.chunk.PalettedContainer;
+
+import java.util.Arrays;
+
+import static baritone.pathing.precompute.PrecomputedData.*;
+import static baritone.pathing.precompute.Ternary.*;
+
+/**
+ * {@link PrecomputedData} worked out for every block of a section at once, as one bit per block in each of four
+ * planes: can walk on, can walk through, fully passable, and whether any of those depends on the position. Checking a
+ * block is then a couple of array reads, without getting its state or looking up its id.
+ * <p>
+ * The last few sections are kept, in a direct mapped cache like the one in {@link BlockStateInterface}, and worked out
+ * again whenever {@link SectionVersions} says they or their column have changed, which includes the chunk loading or
+ * unloading. Only sections of the real world are done, anything
+ * else is left to the usual lookups. Not thread safe, each thread needs its own.
+ */
+public final class SectionPlanes {
+
+    private static final int SLOTS = 4 * 4 * 4;
+
+    /**
+     * Where each plane starts in a slot's planes
+     */
+    private static final int WALK_ON = 0;
+    private static final int WALK_THROUGH = 64;
+    private static final int FULLY_PASSABLE = 128;
+    private static final int SPECIAL = 192;
+
+    private static final int SPECIAL_MASKS = CAN_WALK_ON_SPECIAL_MASK | CAN_WALK_THROUGH_SPECIAL_MASK | FULLY_PASSABLE_SPECIAL_MASK;
+
+    private final BlockStateInterface bsi;
+    private final PrecomputedData data;
+
+    private final long[] keys = new long[SLOTS];
+    private final int[] versions = new int[SLOTS];
+    private final long[] columnVersions = new long[SLOTS];
+
+    /**
+     * The planes of each slot, or null if its section isn't loaded
+     */
+    private final long[][] planes = new long[SLOTS][];
+
+    /**
+     * Spare planes, from a slot whose section turned out not to be loaded
+     */
+    private long[] spare;
+
+    /**
+     * The masks of each palette entry of the section being worked out, 0 for ones that haven't come up yet
+     */
+    private final int[] paletteData = new int[256];
+
+    public SectionPlanes(BlockStateInterface bsi, PrecomputedData data) {
+        this.bsi = bsi;
+        this.data = data;
+        Arrays.fill(keys, -1L);
+    }
+
+    public Ternary canWalkOn(int x, int y, int z) {
+        return test(x, y, z, WALK_ON);
+    }
+
+    public Ternary canWalkThrough(int x, int y, int z) {
+        return test(x, y, z, WALK_THROUGH);
+    }
+
+    public Ternary fullyPassable(int x, int y, int z) {
+        return test(x, y, z, FULLY_PASSABLE);
+    }
+
+    /**
+     * @return {@link Ternary#MAYBE} if the block needs to be looked at the usual way
+     */
+    private Ternary test(int x, int y, int z, int plane) {
+        long[] section = planesFor(x, y, z);
+        if (section == null) {
+            return MAYBE;
+        }
+        int index = (y & 15) << 8 | (z & 15) << 4 | (x & 15);
+        int word = index >> 6;
+        long bit = 1L << index;
+        if ((section[SPECIAL + word] & bit) != 0) {
+            return MAYBE;
+        }
+        return (section[plane + word] & bit) != 0 ? YES : NO;
+    }
+
+    private long[] planesFor(int x, int y, int z) {
+        int chunkX = x >> 4;
+        int sectionY = y >> 4;
+        int chunkZ = z >> 4;
+        int slot = (chunkX & 3) << 4 | (chunkZ & 3) << 2 | (sectionY & 3);
+        long key = ((long) chunkX & 0x3fffffL) << 30 | ((long) chunkZ & 0x3fffffL) << 8 | (sectionY & 0xff);
+        int version = SectionVersions.get(chunkX, sectionY, chunkZ);
+        long columnVersion = SectionVersions.column(chunkX, chunkZ);
+        if (keys[slot] == key && versions[slot] == version && columnVersions[slot] == columnVersion) {
+            return planes[slot];
+        }
+        LevelChunkSection section = bsi.getLoadedSection(x, y, z);
+        long[] result = planes[slot];
+        if (section == null) {
+            if (result != null) {
+                spare = result;
+            }
+            result = null;
+        } else {
+            if (result == null) {
+                result = spare != null ? spare : new long[256];
+                spare = null;
+            }
+            build(section, result);
+        }
+        keys[slot] = key;
+        versions[slot] = version;
+        columnVersions[slot] = columnVersion;
+        planes[slot] = result;
+        return result;
+    }
+
+    private void build(LevelChunkSection section, long[] result) {
+        if (section.hasOnlyAir()) {
+            fill(result, data.get(Blocks.AIR.defaultBlockState()));
+            return;
+        }
+        PalettedContainer<BlockState> states = section.getStates();
+        Palette<BlockState> palette = ((IPalettedContainer<BlockState>) states).getPalette();
+        BitStorage storage = ((IPalettedContainer<BlockState>) states).getStorage();
+        if (storage == null) {
+            Arrays.fill(result, 0L);
+            // the mapping of BlockStateContainer.getIndex from xyz to index is y << 8 | z << 4 | x;
+            for (int index = 0; index < 4096; index++) {
+                set(result, index, data.get(states.get(index & 15, index >> 8, (index >> 4) & 15)));
+            }
+            return;
+        }
+        if (storage.getBits() == 0) {
+            // there's only one thing in the whole section
+            fill(result, data.get(palette.valueFor(0)));
+            return;
+        }
+        Arrays.fill(result, 0L);
+        Arrays.fill(paletteData, 0);
+        for (int index = 0; index < 4096; index++) {
+            int id = storage.get(index);
+            int blockData;
+            if (id < paletteData.length) {
+                blockData = paletteData[id];
+                if (blockData == 0) {
+                    blockData = data.get(palette.valueFor(id));
+                    paletteData[id] = blockData;
+                }
+            } else {
+                // the global palette, which is big enough that remembering each entry isn't worth it
+                blockData = data.get(palette.valueFor(id));
+            }
+            set(result, index, blockData);
+        }
+    }
+
+    private static void fill(long[] result, int blockData) {
+        Arrays.fill(result, WALK_ON, WALK_ON + 64, (blockData & CAN_WALK_ON_MASK) != 0 ? -1L : 0L);
+        Arrays.fill(result, WALK_THROUGH, WALK_THROUGH + 64, (blockData & CAN_WALK_THROUGH_MASK) != 0 ? -1L : 0L);
+        Arrays.fill(result, FULLY_PASSABLE, FULLY_PASSABLE + 64, (blockData & FULLY_PASSABLE_MASK) != 0 ? -1L : 0L);
+        Arrays.fill(result, SPECIAL, SPECIAL + 64, (blockData & SPECIAL_MASKS) != 0 ? -1L : 0L);
+    }
+
+    private static void set(long[] result, int index, int blockData) {
+        int word = index >> 6;
+        long bit = 1L << index;
+        if ((blockData & CAN_WALK_ON_MASK) != 0) {
+            result[WALK_ON + word] |= bit;
+        }
+        if ((blockData & CAN_WALK_THROUGH_MASK) != 0) {
+            result[WALK_THROUGH + word] |= bit;
+        }
+        if ((blockData & FULLY_PASSABLE_MASK) != 0) {
+            result[FULLY_PASSABLE + word] |= bit;
+        }
+        if ((blockData & SPECIAL_MASKS) != 0) {
+            result[SPECIAL + word] |= bit;
+        }
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Baritone.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package baritone.pathing.precompute;
+
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A counter for each 16x16x16 section of the world that goes up whenever a block in it changes, so that anything
+ * worked out from a section can tell if it's out of date.
+ * <p>
+ * There's a fixed number of counters and sections share them by hash, so a change can make other sections look
+ * changed too. That only ever means something gets worked out again when it didn't need to be.
+ * <p>
+ * Whole chunk columns are tracked too, for anything that changes when a chunk loads or unloads or when the cache of it
+ * does. Each of those gets the next number from a counter for the whole world instead of just going up by one, so
+ * that the latest change anywhere in an area is simply the highest of them.
+ */
+public final class SectionVersions {
+
+    private static final int SIZE = 1 << 14;
+
+    private static final AtomicIntegerArray VERSIONS = new AtomicIntegerArray(SIZE);
+
+    private static final int COLUMNS = 1 << 12;
+
+    private static final AtomicLongArray COLUMN_VERSIONS = new AtomicLongArray(COLUMNS);
+    private static final AtomicLong LATEST = new AtomicLong();
+
+    private SectionVersions() {}
+
+    /**
+     * @param sectionY The block y coordinate shifted right by 4, so it can be negative
+     */
+    public static int get(int chunkX, int sectionY, int chunkZ) {
+        return VERSIONS.get(slot(chunkX, sectionY, chunkZ));
+    }
+
+    /**
+     * @return The number given to the latest change anywhere, so anything newer than this happened afterwards
+     */
+    public static long latest() {
+        return LATEST.get();
+    }
+
+    /**
+     * @return The number given to the latest change to the column of this chunk, including it loading or unloading
+     */
+    public static long column(int chunkX, int chunkZ) {
+        return COLUMN_VERSIONS.get(columnSlot(chunkX, chunkZ));
+    }
+
+    /**
+     * @return The number given to the latest change to the column of this chunk or any of the 8 around it
+     */
+    public static long around(int chunkX, int chunkZ) {
+        long latest = 0;
+        for (int dx = -1; dx <= 1; dx++) {
+            for (int dz = -1; dz <= 1; dz++) {
+                latest = Math.max(latest, COLUMN_VERSIONS.get(columnSlot(chunkX + dx, chunkZ + dz)));
+            }
+        }
+        return latest;
+    }
+
+    /**
+     * Called whenever a block changes
+     */
+    public static void changed(int blockX, int blockY, int blockZ) {
+        VERSIONS.incrementAndGet(slot(blockX >> 4, blockY >> 4, blockZ >> 4));
+        columnChanged(blockX >> 4, blockZ >> 4);
+    }
+
+    /**
+     * Called whenever a chunk loads or unloads, or what's cached of it changes
+     */
+    public static void columnChanged(int chunkX, int chunkZ) {
+        long version = LATEST.incrementAndGet();
+        // max, so that a slower thread with an older number can't take it backwards
+        COLUMN_VERSIONS.accumulateAndGet(columnSlot(chunkX, chunkZ), version, Math::max);
+    }
+
+    /**
+     * Called whenever a whole region of the cache is loaded or dropped
+     */
+    public static void regionChanged(int regionX, int regionZ) {
+        long version = LATEST.incrementAndGet();
+        for (int x = 0; x < 32; x++) {
+            for (int z = 0; z < 32; z++) {
+                COLUMN_VERSIONS.accumulateAndGet(columnSlot(regionX << 5 | x, regionZ << 5 | z), version, Math::max);
+            }
+        }
+    }
+
+    private static int slot(int chunkX, int sectionY, int chunkZ) {
+        int hash = (chunkX * 0x9E3779B1) ^ (chunkZ * 0x85EBCA77) ^ (sectionY * 0xC2B2AE3D);
+        return (hash ^ hash >>> 16) & (SIZE - 1);
+    }
+
+    private static int columnSlot(int chunkX, int chunkZ) {
+        int hash = (chunkX * 0x9E3779B1) ^ (chunkZ * 0x85EBCA77);
+        return (hash ^ hash >>> 16) & (COLUMNS - 1);
+    }
+}
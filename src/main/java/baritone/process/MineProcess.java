@@ -365,13 +365,15 @@ public final class MineProcess extends BaritoneProcessHelper implements IMinePro
             if (CachedChunk.BLOCKS_TO_KEEP_TRACK_OF.contains(block)) {
                 BetterBlockPos pf = ctx.baritone.getPlayerContext().playerFeet();
 
-                // maxRegionDistanceSq 2 means adjacent directly or adjacent diagonally; nothing further than that
-                locs.addAll(ctx.worldData.getCachedWorld().getLocationsOf(
+                // the default radius reaches across the regions adjacent to the one we're in, directly or diagonally
+                // ones that are stale or can't be mined are skipped during the search, so they don't use up the threshold
+                locs.addAll(ctx.worldData.getCachedWorld().getNearestLocationsOf(
                         BlockUtils.blockToString(block),
+                        max,
                         Baritone.settings().maxCachedWorldScanCount.value,
-                        pf.x,
-                        pf.z,
-                        2
+                        pf,
+                        Baritone.settings().mineCacheScanRadius.value,
+                        pos -> isUseful(ctx, pos, filter, blacklist, dropped)
                 ));
             } else {
                 untracked.add(block);
@@ -427,6 +429,27 @@ public final class MineProcess extends BaritoneProcessHelper implements IMinePro
         return true;
     }
 
+    private static boolean isUseful(CalculationContext ctx, BlockPos pos, BlockOptionalMetaLookup filter, List<BlockPos> blacklist, List<BlockPos> dropped) {
+        // remove any that are within loaded chunks that aren't actually what we want
+        if (ctx.bsi.worldContainsLoadedChunk(pos.getX(), pos.getZ()) && !filter.has(ctx.get(pos.getX(), pos.getY(), pos.getZ())) && !dropped.contains(pos)) {
+            return false;
+        }
+        // remove any that are implausible to mine (encased in bedrock, or touching lava)
+        if (!MineProcess.plausibleToBreak(ctx, pos)) {
+            return false;
+        }
+        if (Baritone.settings().allowOnlyExposedOres.value && !isNextToAir(ctx, pos)) {
+            return false;
+        }
+        if (pos.getY() < Baritone.settings().minYLevelWhileMining.value + ctx.world.dimensionType().minY()) {
+            return false;
+        }
+        if (pos.getY() > Baritone.settings().maxYLevelWhileMining.value) {
+            return false;
+        }
+        return !blacklist.contains(pos);
+    }
+
     private static List<BlockPos> prune(CalculationContext ctx, List<BlockPos> locs2, BlockOptionalMetaLookup filter, int max, List<BlockPos> blacklist, List<BlockPos> dropped) {
         dropped.removeIf(drop -> {
             for (BlockPos pos : locs2) {
@@ -439,26 +462,7 @@ public final class MineProcess extends BaritoneProcessHelper implements IMinePro
         List<BlockPos> locs = locs2
                 .stream()
                 .distinct()
-
-                // remove any that are within loaded chunks that aren't actually what we want
-                .filter(pos -> !ctx.bsi.worldContainsLoadedChunk(pos.getX(), pos.getZ()) || filter.has(ctx.get(pos.getX(), pos.getY(), pos.getZ())) || dropped.contains(pos))
-
-                // remove any that are implausible to mine (encased in bedrock, or touching lava)
-                .filter(pos -> MineProcess.plausibleToBreak(ctx, pos))
-
-                .filter(pos -> {
-                    if (Baritone.settings().allowOnlyExposedOres.value) {
-                        return isNextToAir(ctx, pos);
-                    } else {
-                        return true;
-                    }
-                })
-
-                .filter(pos -> pos.getY() >= Baritone.settings().minYLevelWhileMining.value + ctx.world.dimensionType().minY())
-
-                .filter(pos -> pos.getY() <= Baritone.settings().maxYLevelWhileMining.value)
-
-                .filter(pos -> !blacklist.contains(pos))
+                .filter(pos -> isUseful(ctx, pos, filter, blacklist, dropped))
 
                 .sorted(Comparator.comparingDouble(ctx.getBaritone().getPlayerContext().player().blockPosition()::distSqr))
                 .collect(Collectors.toList());
@@ -33,6 +33,9 @@ import net.minecraft.world.level.block.state.BlockState;
 import net.minecraft.world.level.chunk.ChunkStatus;
 import net.minecraft.world.level.chunk.LevelChunk;
 import net.minecraft.world.level.chunk.LevelChunkSection;
+import net.minecraft.world.level.dimension.DimensionType;
+
+import java.util.Arrays;
 
 /**
  * Wraps get for chuck caching capability
@@ -48,13 +51,34 @@ public class BlockStateInterface {
     public final BlockGetter access;
     public final BetterWorldBorder worldBorder;
 
+    /**
+     * From the dimension type, since every lookup needs them
+     */
+    private final int minY;
+    private final int height;
+
     private LevelChunk prev = null;
     private CachedRegion prevCached = null;
 
+    /**
+     * The sections of the real world that were looked at recently, as a direct mapped cache: each one can only go in
+     * the slot given by the low bits of its coordinates, so an 8x8 chunk, 4 section high area always fits without any
+     * of them pushing another out. Null without {@link baritone.api.Settings#blockLookupSectionCache}.
+     */
+    private final LevelChunkSection[] sections;
+    private final long[] sectionKeys;
+
     private final boolean useTheRealWorld;
 
     private static final BlockState AIR = Blocks.AIR.defaultBlockState();
 
+    private static final int SECTION_CACHE_SIZE = 8 * 8 * 4;
+
+    /**
+     * In {@link #sectionKeys}, for a slot that doesn't have a section yet. Real keys never have the top bit set.
+     */
+    private static final long NO_SECTION = -1L;
+
     public BlockStateInterface(IPlayerContext ctx) {
         this(ctx, false);
     }
@@ -63,12 +87,17 @@ public class BlockStateInterface {
         this.world = ctx.world();
         this.worldBorder = new BetterWorldBorder(world.getWorldBorder());
         this.worldData = (WorldData) ctx.worldData();
+        this.minY = world.dimensionType().minY();
+        this.height = world.dimensionType().height();
         if (copyLoadedChunks) {
             this.provider = ((IClientChunkProvider) world.getChunkSource()).createThreadSafeCopy();
         } else {
             this.provider = (ClientChunkCache) world.getChunkSource();
         }
         this.useTheRealWorld = !Baritone.settings().pathThroughCachedOnly.value;
+        // only the long lived ones that do a lot of lookups are worth the allocation
+        this.sections = copyLoadedChunks && useTheRealWorld && Baritone.settings().blockLookupSectionCache.value ? new LevelChunkSection[SECTION_CACHE_SIZE] : null;
+        this.sectionKeys = newSectionKeys(sections);
         if (!ctx.minecraft().isSameThread()) {
             throw new IllegalStateException();
         }
@@ -76,7 +105,54 @@ public class BlockStateInterface {
         this.access = new BlockStateInterfaceAccessWrapper(this);
     }
 
+    /**
+     * A copy of another instance with its own lookup caches, for use on a different thread than the original.
+     * The chunk provider is shared, so the original should have been made with copyLoadedChunks.
+     *
+     * @param other The instance to copy
+     */
+    public BlockStateInterface(BlockStateInterface other) {
+        this.world = other.world;
+        this.worldBorder = other.worldBorder;
+        this.worldData = other.worldData;
+        this.minY = other.minY;
+        this.height = other.height;
+        this.provider = other.provider;
+        this.useTheRealWorld = other.useTheRealWorld;
+        this.sections = other.sections == null ? null : new LevelChunkSection[SECTION_CACHE_SIZE];
+        this.sectionKeys = newSectionKeys(sections);
+        this.isPassableBlockPos = new BlockPos.MutableBlockPos();
+        this.access = new BlockStateInterfaceAccessWrapper(this);
+    }
+
+    /**
+     * For use without a Minecraft client. There is no real world, so every lookup goes to the cache in worldData,
+     * and subclasses that have blocks from somewhere else can override {@link #get0(int, int, int)} and
+     * {@link #isLoaded(int, int)}.
+     *
+     * @param worldData   The cache to read from, may be null
+     * @param dimension   The dimension the blocks are in
+     * @param worldBorder The world border
+     */
+    public BlockStateInterface(WorldData worldData, DimensionType dimension, BetterWorldBorder worldBorder) {
+        this.world = null;
+        this.worldBorder = worldBorder;
+        this.worldData = worldData;
+        this.minY = dimension.minY();
+        this.height = dimension.height();
+        this.provider = null;
+        this.useTheRealWorld = false;
+        this.sections = null;
+        this.sectionKeys = null;
+        this.isPassableBlockPos = new BlockPos.MutableBlockPos();
+        this.access = new BlockStateInterfaceAccessWrapper(this);
+    }
+
     public boolean worldContainsLoadedChunk(int blockX, int blockZ) {
+        if (provider == null) {
+            // no world, so whatever is in the cache is as loaded as it gets
+            return isLoaded(blockX, blockZ);
+        }
         return provider.hasChunk(blockX >> 4, blockZ >> 4);
     }
 
@@ -95,13 +171,18 @@ public class BlockStateInterface {
     }
 
     public BlockState get0(int x, int y, int z) { // Mickey resigned
-        y -= world.dimensionType().minY();
+        y -= minY;
         // Invalid vertical position
-        if (y < 0 || y >= world.dimensionType().height()) {
+        if (y < 0 || y >= height) {
             return AIR;
         }
 
-        if (useTheRealWorld) {
+        if (sections != null) {
+            LevelChunkSection section = getSection(x >> 4, y >> 4, z >> 4);
+            if (section != null) {
+                return section.hasOnlyAir() ? AIR : section.getBlockState(x & 15, y & 15, z & 15);
+            }
+        } else if (useTheRealWorld) {
             LevelChunk cached = prev;
             // there's great cache locality in block state lookups
             // generally it's within each movement
@@ -132,22 +213,74 @@ public class BlockStateInterface {
             prevCached = region;
             cached = region;
         }
-        BlockState type = cached.getBlock(x & 511, y + world.dimensionType().minY(), z & 511);
+        BlockState type = cached.getBlock(x & 511, y + minY, z & 511);
         if (type == null) {
             return AIR;
         }
         return type;
     }
 
+    /**
+     * @return The section of the real world that a block is in, or null if it's above or below the world, its chunk
+     * isn't loaded, or this only looks at the cache
+     */
+    public LevelChunkSection getLoadedSection(int x, int y, int z) {
+        y -= minY;
+        if (y < 0 || y >= height || !useTheRealWorld) {
+            return null;
+        }
+        if (sections != null) {
+            return getSection(x >> 4, y >> 4, z >> 4);
+        }
+        LevelChunk chunk = provider.getChunk(x >> 4, z >> 4, ChunkStatus.FULL, false);
+        return chunk == null || chunk.isEmpty() ? null : chunk.getSections()[y >> 4];
+    }
+
+    /**
+     * @param sectionY The section, counting from the bottom of the world
+     * @return The section of the real world, or null if its chunk isn't loaded
+     */
+    private LevelChunkSection getSection(int chunkX, int sectionY, int chunkZ) {
+        int slot = (chunkX & 7) << 5 | (chunkZ & 7) << 2 | (sectionY & 3);
+        // 22 bits is enough for any chunk coordinate inside the world border, and 8 for any section
+        long key = ((long) chunkX & 0x3fffffL) << 30 | ((long) chunkZ & 0x3fffffL) << 8 | sectionY;
+        if (sectionKeys[slot] == key) {
+            return sections[slot];
+        }
+        LevelChunk chunk = prev;
+        if (chunk == null || chunk.getPos().x != chunkX || chunk.getPos().z != chunkZ) {
+            chunk = provider.getChunk(chunkX, chunkZ, ChunkStatus.FULL, false);
+            if (chunk == null || chunk.isEmpty()) {
+                return null; // not cached, since it could load at any time
+            }
+            prev = chunk;
+        }
+        LevelChunkSection section = chunk.getSections()[sectionY];
+        sections[slot] = section;
+        sectionKeys[slot] = key;
+        return section;
+    }
+
+    private static long[] newSectionKeys(LevelChunkSection[] sections) {
+        if (sections == null) {
+            return null;
+        }
+        long[] keys = new long[sections.length];
+        Arrays.fill(keys, NO_SECTION);
+        return keys;
+    }
+
     public boolean isLoaded(int x, int z) {
         LevelChunk prevChunk = prev;
         if (prevChunk != null && prevChunk.getPos().x == x >> 4 && prevChunk.getPos().z == z >> 4) {
             return true;
         }
-        prevChunk = provider.getChunk(x >> 4, z >> 4, ChunkStatus.FULL, false);
-        if (prevChunk != null && !prevChunk.isEmpty()) {
-            prev = prevChunk;
-            return true;
+        if (provider != null) {
+            prevChunk = provider.getChunk(x >> 4, z >> 4, ChunkStatus.FULL, false);
+            if (prevChunk != null && !prevChunk.isEmpty()) {
+                prev = prevChunk;
+                return true;
+            }
         }
         CachedRegion prevRegion = prevCached;
         if (prevRegion != null && prevRegion.getX() == x >> 9 && prevRegion.getZ() == z >> 9) {
@@ -28,8 +28,10 @@ import net.minecraft.world.item.enchantment.Enchantments;
 import net.minecraft.world.level.block.Block;
 import net.minecraft.world.level.block.state.BlockState;
 
-import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
 
 /**
@@ -40,10 +42,19 @@ import java.util.function.Function;
 public class ToolSet {
 
     /**
-     * A cache mapping a {@link Block} to how long it will take to break
-     * with this toolset, given the optimum tool is used.
+     * The break strength tables for the last few hotbars, keyed by {@link #key()}, so that every tool set with the same
+     * tools, effects and settings shares one instead of working it all out again for each path search. They're never
+     * written to once they're in here, so any number of threads can read them.
      */
-    private final Map<Block, Double> breakStrengthCache;
+    private static final Map<List<Object>, double[]> TABLES = new ConcurrentHashMap<>();
+
+    private static final int MAX_TABLES = 8;
+
+    /**
+     * How long it will take to break each {@link BlockState}, by its id in {@link Block#BLOCK_STATE_REGISTRY}, with
+     * this toolset, given the optimum tool is used. Null until the first one is needed.
+     */
+    private double[] breakStrengths;
 
     /**
      * My buddy leijurv owned me so we have this to not create a new lambda instance.
@@ -52,15 +63,50 @@ public class ToolSet {
 
     private final LocalPlayer player;
 
+    /**
+     * From the potion effects when this was made, 1 without {@link baritone.api.Settings#considerPotionEffects}
+     */
+    private final double amplifier;
+
+    /**
+     * The hotbar to use when there's no player, null if there is one
+     */
+    private final List<ItemStack> hotbar;
+
     public ToolSet(LocalPlayer player) {
-        breakStrengthCache = new HashMap<>();
+        this(player, null);
+    }
+
+    /**
+     * For use without a player, e.g. when pathing from a cache without a client. There are no potion effects, and the
+     * first slot counts as the selected one.
+     *
+     * @param hotbar The items on the hotbar, up to 9
+     */
+    public ToolSet(List<ItemStack> hotbar) {
+        this(null, new ArrayList<>(hotbar));
+    }
+
+    /**
+     * A new cache over the same player or hotbar, for use from another thread
+     *
+     * @param other The tool set to copy
+     */
+    public ToolSet(ToolSet other) {
+        this(other.player, other.hotbar);
+    }
+
+    private ToolSet(LocalPlayer player, List<ItemStack> hotbar) {
         this.player = player;
+        this.hotbar = hotbar;
 
         if (Baritone.settings().considerPotionEffects.value) {
             double amplifier = potionAmplifier();
+            this.amplifier = amplifier;
             Function<Double, Double> amplify = x -> amplifier * x;
             backendCalculation = amplify.compose(this::getBestDestructionTime);
         } else {
+            this.amplifier = 1;
             backendCalculation = this::getBestDestructionTime;
         }
     }
@@ -72,7 +118,68 @@ public class ToolSet {
      * @return the speed of how fast we'll mine it. 1/(time in ticks)
      */
     public double getStrVsBlock(BlockState state) {
-        return breakStrengthCache.computeIfAbsent(state.getBlock(), backendCalculation);
+        double[] table = breakStrengths;
+        if (table == null) {
+            table = breakStrengths = tableFor(key());
+        }
+        int id = Block.BLOCK_STATE_REGISTRY.getId(state);
+        if (id < 0 || id >= table.length) {
+            return backendCalculation.apply(state.getBlock()); // not registered, shouldn't happen
+        }
+        return table[id];
+    }
+
+    /**
+     * Filled all at once, so that the hotbar changing while it's being filled can't leave some of it from a different
+     * hotbar than the rest. It's only a few thousand blocks, since every state of a block breaks the same.
+     */
+    private double[] tableFor(List<Object> key) {
+        double[] table = TABLES.get(key);
+        if (table != null) {
+            return table;
+        }
+        table = new double[Block.BLOCK_STATE_REGISTRY.size()];
+        Block block = null;
+        double strength = 0;
+        for (BlockState state : Block.BLOCK_STATE_REGISTRY) {
+            if (state.getBlock() != block) {
+                block = state.getBlock();
+                strength = backendCalculation.apply(block);
+            }
+            table[Block.BLOCK_STATE_REGISTRY.getId(state)] = strength;
+        }
+        if (!key().equals(key)) {
+            return table; // the hotbar changed while this was being filled, so it's only good for this tool set
+        }
+        if (TABLES.size() >= MAX_TABLES) {
+            TABLES.clear(); // these are cheap to fill again, so there's no need to be clever about which to drop
+        }
+        TABLES.put(key, table);
+        return table;
+    }
+
+    /**
+     * @return Everything besides the block that break times depend on: what's on the hotbar, which slot is selected,
+     * the potion effects, and the settings about which tools to use. Two tool sets break everything the same if and
+     * only if their keys are equal, and a key doesn't change once it's been made.
+     */
+    public List<Object> key() {
+        List<Object> key = new ArrayList<>(8 + 2 * 9);
+        key.add(amplifier);
+        key.add(player == null ? 0 : player.getInventory().selected);
+        key.add(Baritone.settings().autoTool.value);
+        key.add(Baritone.settings().useSwordToMine.value);
+        key.add(Baritone.settings().itemSaver.value);
+        key.add(Baritone.settings().itemSaverThreshold.value);
+        key.add(new ArrayList<>(Baritone.settings().blocksToAvoidBreaking.value));
+        key.add(Baritone.settings().avoidBreakingMultiplier.value);
+        for (int i = 0; i < 9; i++) {
+            ItemStack stack = getItem(i);
+            key.add(stack.getItem()); // items are only ever equal to themselves
+            // the tag has the enchantments and the damage, and is copied since the stack's own can still change
+            key.add(stack.getTag() == null ? null : stack.getTag().copy());
+        }
+        return key;
     }
 
     /**
@@ -115,7 +222,7 @@ public class ToolSet {
         possible, this lets us make pathing depend on the actual tool to be used (if auto tool is disabled)
         */
         if (!Baritone.settings().autoTool.value && pathingCalculation) {
-            return player.getInventory().selected;
+            return player == null ? 0 : player.getInventory().selected;
         }
 
         int best = 0;
@@ -124,7 +231,7 @@ public class ToolSet {
         boolean bestSilkTouch = false;
         BlockState blockState = b.defaultBlockState();
         for (int i = 0; i < 9; i++) {
-            ItemStack itemStack = player.getInventory().getItem(i);
+            ItemStack itemStack = getItem(i);
             if (!Baritone.settings().useSwordToMine.value && itemStack.getItem() instanceof SwordItem) {
                 continue;
             }
@@ -160,10 +267,17 @@ public class ToolSet {
      * @return A double containing the destruction ticks with the best tool
      */
     private double getBestDestructionTime(Block b) {
-        ItemStack stack = player.getInventory().getItem(getBestSlot(b, false, true));
+        ItemStack stack = getItem(getBestSlot(b, false, true));
         return calculateSpeedVsBlock(stack, b.defaultBlockState()) * avoidanceMultiplier(b);
     }
 
+    private ItemStack getItem(int slot) {
+        if (player != null) {
+            return player.getInventory().getItem(slot);
+        }
+        return hotbar != null && slot < hotbar.size() ? hotbar.get(slot) : ItemStack.EMPTY;
+    }
+
     private double avoidanceMultiplier(Block b) {
         return Baritone.settings().blocksToAvoidBreaking.value.contains(b) ? Baritone.settings().avoidBreakingMultiplier.value : 1;
     }
@@ -211,6 +325,9 @@ public class ToolSet {
      */
     private double potionAmplifier() {
         double speed = 1;
+        if (player == null) {
+            return speed;
+        }
         if (player.hasEffect(MobEffects.DIG_SPEED)) {
             speed *= 1 + (player.getEffect(MobEffects.DIG_SPEED).getAmplifier() + 1) * 0.2;
         }
@@ -19,6 +19,8 @@ package baritone.utils.pathing;
 
 import net.minecraft.world.level.border.WorldBorder;
 
+import java.util.Objects;
+
 /**
  * Essentially, a "rule" for the path finder, prevents proposed movements from attempting to venture
  * into the world border, and prevents actual movements from placing blocks in the world border.
@@ -47,4 +49,21 @@ public class BetterWorldBorder {
         // it won't let us right click it
         return x > minX && x + 1 < maxX && z > minZ && z + 1 < maxZ;
     }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (o == null || getClass() != o.getClass()) {
+            return false;
+        }
+        BetterWorldBorder other = (BetterWorldBorder) o;
+        return minX == other.minX && maxX == other.maxX && minZ == other.minZ && maxZ == other.maxZ;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(minX, maxX, minZ, maxZ);
+    }
 }
@@ -23,11 +23,20 @@ import baritone.api.utils.Helper;
 import baritone.api.utils.IPlayerContext;
 import baritone.pathing.movement.CalculationContext;
 import it.unimi.dsi.fastutil.longs.Long2DoubleOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongOpenHashSet;
+import net.minecraft.world.level.ChunkPos;
 
 public final class Favoring {
 
     private final Long2DoubleOpenHashMap favorings;
 
+    /**
+     * Chunks along the route from {@link baritone.pathing.coarse.CoarsePathPlanner}, null if there isn't one
+     */
+    private LongOpenHashSet corridor;
+
+    private double corridorCoefficient;
+
     public Favoring(IPlayerContext ctx, IPath previous, CalculationContext context) {
         this(previous, context);
         for (Avoidance avoid : Avoidance.create(ctx)) {
@@ -45,11 +54,30 @@ public final class Favoring {
         }
     }
 
+    /**
+     * Multiplies the cost of moving into any of these chunks by the coefficient, on top of everything else
+     *
+     * @param chunks      The chunks, packed with {@link ChunkPos#asLong(int, int)}
+     * @param coefficient The coefficient
+     */
+    public void setCorridor(LongOpenHashSet chunks, double coefficient) {
+        this.corridor = chunks;
+        this.corridorCoefficient = coefficient;
+    }
+
     public boolean isEmpty() {
-        return favorings.isEmpty();
+        return favorings.isEmpty() && corridor == null;
     }
 
     public double calculate(long hash) {
         return favorings.get(hash);
     }
+
+    public double calculate(int x, int z, long hash) {
+        double coeff = favorings.get(hash);
+        if (corridor != null && corridor.contains(ChunkPos.asLong(x >> 4, z >> 4))) {
+            coeff *= corridorCoefficient;
+        }
+        return coeff;
+    }
 }
@@ -0,0 +1,107 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Baritone.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package baritone.cache;
+
+import baritone.utils.pathing.PathingBlockType;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class PackedBlockTypesTest {
+
+    private static final int HEIGHT = 384;
+
+    @Test
+    public void sameBytesAsBitSet() {
+        Random random = new Random(5021);
+        PathingBlockType[] values = PathingBlockType.values();
+        PackedBlockTypes types = new PackedBlockTypes(HEIGHT);
+        BitSet bitSet = new BitSet(CachedChunk.size(HEIGHT));
+        // leave the top empty so that trailing zeros get trimmed the same way
+        for (int y = 0; y < HEIGHT - 20; y++) {
+            for (int z = 0; z < 16; z++) {
+                for (int x = 0; x < 16; x++) {
+                    PathingBlockType type = values[random.nextInt(values.length)];
+                    types.set(x, y, z, type);
+                    int index = CachedChunk.getPositionIndex(x, y, z);
+                    bitSet.set(index, type.getBits()[0]);
+                    bitSet.set(index + 1, type.getBits()[1]);
+                }
+            }
+        }
+        assertArrayEquals(bitSet.toByteArray(), types.toByteArray());
+        PackedBlockTypes read = PackedBlockTypes.fromByteArray(HEIGHT, bitSet.toByteArray());
+        for (int y = 0; y < HEIGHT; y++) {
+            for (int z = 0; z < 16; z++) {
+                for (int x = 0; x < 16; x++) {
+                    int index = CachedChunk.getPositionIndex(x, y, z);
+                    assertEquals(PathingBlockType.fromBits(bitSet.get(index), bitSet.get(index + 1)), read.get(x, y, z));
+                }
+            }
+        }
+    }
+
+    @Test
+    public void sectionWrites() {
+        PackedBlockTypes types = new PackedBlockTypes(HEIGHT);
+        long[] section = new long[PackedBlockTypes.WORDS_PER_SECTION];
+        PackedBlockTypes.set(section, 3, 15, 9, PathingBlockType.WATER);
+        PackedBlockTypes.set(section, 0, 0, 0, PathingBlockType.SOLID);
+        types.setSection(2, section);
+        assertEquals(PathingBlockType.WATER, types.get(3, 47, 9));
+        assertEquals(PathingBlockType.SOLID, types.get(0, 32, 0));
+        assertEquals(PathingBlockType.AIR, types.get(0, 31, 0));
+        assertFalse(types.isSectionEmpty(2));
+        types.clearSection(2);
+        assertTrue(types.isSectionEmpty(2));
+        for (PathingBlockType type : PathingBlockType.values()) {
+            PackedBlockTypes.fill(section, type);
+            types.setSection(1, section);
+            for (int i = 0; i < 4096; i++) {
+                assertEquals(type, types.get(i & 15, 16 + (i >> 8), (i >> 4) & 15));
+            }
+        }
+    }
+
+    @Test
+    public void highestNonAir() {
+        Random random = new Random(77);
+        PackedBlockTypes types = new PackedBlockTypes(HEIGHT);
+        int[] expected = new int[256];
+        Arrays.fill(expected, -1);
+        for (int i = 0; i < 200; i++) {
+            int x = random.nextInt(16);
+            int z = random.nextInt(16);
+            int y = random.nextInt(HEIGHT);
+            types.set(x, y, z, PathingBlockType.values()[1 + random.nextInt(3)]);
+            expected[z << 4 | x] = Math.max(expected[z << 4 | x], y);
+        }
+        int[] heights = new int[256];
+        types.highestNonAir(heights);
+        assertArrayEquals(expected, heights);
+        for (int z = 0; z < 16; z++) {
+            for (int x = 0; x < 16; x++) {
+                assertEquals(expected[z << 4 | x], types.highestNonAir(x, z));
+            }
+        }
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Baritone.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package baritone.cache;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class RegionFileTest {
+
+    private static byte[] read(RegionFile file, int index) throws IOException {
+        ByteBuffer buffer = file.read(index);
+        if (buffer == null) {
+            return null;
+        }
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return bytes;
+    }
+
+    @Test
+    public void writeAndReadBack() throws IOException {
+        Path dir = Files.createTempDirectory("baritone");
+        Path path = dir.resolve("r.0.0.bcr");
+        Random rand = new Random(1);
+        byte[][] expected = new byte[1024][];
+        for (int round = 0; round < 20; round++) {
+            try (RegionFile file = RegionFile.open(path, 384, true)) {
+                for (int i = 0; i < 100; i++) {
+                    int index = rand.nextInt(1024);
+                    if (rand.nextInt(10) == 0) {
+                        file.remove(index);
+                        expected[index] = null;
+                    } else {
+                        byte[] data = new byte[1 + rand.nextInt(4096)];
+                        rand.nextBytes(data);
+                        file.write(index, data, data.length, round);
+                        expected[index] = data;
+                    }
+                }
+                file.flush();
+            }
+            try (RegionFile file = RegionFile.open(path, 384, false)) {
+                for (int i = 0; i < 1024; i++) {
+                    assertEquals(expected[i] != null, file.isPresent(i));
+                    assertTrue(Arrays.equals(expected[i], read(file, i)));
+                }
+            }
+        }
+        assertFalse(RegionFile.isLegacy(path));
+    }
+
+    @Test
+    public void oldDataStaysUntilFlush() throws IOException {
+        Path path = Files.createTempDirectory("baritone").resolve("r.0.0.bcr");
+        byte[] before = new byte[1000];
+        Arrays.fill(before, (byte) 1);
+        byte[] after = new byte[900];
+        Arrays.fill(after, (byte) 2);
+        try (RegionFile file = RegionFile.open(path, 384, true)) {
+            file.write(5, before, before.length, 0);
+            file.flush();
+        }
+        try (RegionFile file = RegionFile.open(path, 384, true)) {
+            file.write(5, after, after.length, 1);
+            try (RegionFile onDisk = RegionFile.open(path, 384, false)) {
+                assertArrayEquals(before, read(onDisk, 5));
+            }
+            file.flush();
+        }
+        try (RegionFile file = RegionFile.open(path, 384, false)) {
+            assertEquals(1, file.timestamp(5));
+            assertArrayEquals(after, read(file, 5));
+        }
+    }
+
+    @Test
+    public void freedSlotIsReused() throws IOException {
+        Path path = Files.createTempDirectory("baritone").resolve("r.0.0.bcr");
+        try (RegionFile file = RegionFile.open(path, 384, true)) {
+            file.write(5, new byte[1000], 1000, 0);
+            file.write(6, new byte[1000], 1000, 0);
+            file.flush();
+            // too big for its old slot, so it moves to the end and leaves a gap
+            file.write(5, new byte[3000], 3000, 1);
+            file.flush();
+        }
+        long size = Files.size(path);
+        try (RegionFile file = RegionFile.open(path, 384, true)) {
+            file.write(6, new byte[900], 900, 1);
+            file.flush();
+            assertEquals(900, read(file, 6).length);
+            assertEquals(3000, read(file, 5).length);
+        }
+        assertEquals(size, Files.size(path));
+    }
+
+    @Test(expected = IOException.class)
+    public void wrongHeight() throws IOException {
+        Path path = Files.createTempDirectory("baritone").resolve("r.0.0.bcr");
+        try (RegionFile file = RegionFile.open(path, 384, true)) {
+            file.flush();
+        }
+        RegionFile.open(path, 256, false).close();
+    }
+}
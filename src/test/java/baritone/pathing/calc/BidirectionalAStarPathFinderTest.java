@@ -0,0 +1,50 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Baritone.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package baritone.pathing.calc;
+
+import baritone.bench.BenchmarkWorld;
+import baritone.bench.Terrain;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class BidirectionalAStarPathFinderTest {
+
+    private static void sameCostAsForwardOnly(Terrain terrain) {
+        BenchmarkWorld world = Searches.world(terrain);
+        double forward = Searches.cost(Searches.aStar(world));
+        double bidirectional = Searches.cost(Searches.bidirectionalAStar(world));
+        // neither half is guaranteed to find the very cheapest path, so they can end a little apart
+        assertEquals(forward, bidirectional, forward * 0.1);
+    }
+
+    @Test
+    public void flat() {
+        sameCostAsForwardOnly(Terrain.FLAT);
+    }
+
+    @Test
+    public void caveMaze() {
+        sameCostAsForwardOnly(Terrain.CAVE_MAZE);
+    }
+
+    @Test
+    public void nether() {
+        sameCostAsForwardOnly(Terrain.NETHER);
+    }
+}
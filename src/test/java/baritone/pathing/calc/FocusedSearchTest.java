@@ -0,0 +1,74 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Baritone.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package baritone.pathing.calc;
+
+import baritone.api.pathing.calc.IPath;
+import baritone.api.utils.PathCalculationResult;
+import baritone.bench.BenchmarkContext;
+import baritone.bench.BenchmarkWorld;
+import baritone.bench.Terrain;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class FocusedSearchTest {
+
+    /**
+     * Every lookup goes straight to the world, as it did before searches focused on the node they expand
+     */
+    private static final class UnfocusedContext extends BenchmarkContext {
+
+        private UnfocusedContext(BenchmarkWorld world) {
+            super(world);
+        }
+
+        @Override
+        public void focusOn(int x, int y, int z) {}
+
+        @Override
+        public void clearFocus() {}
+    }
+
+    private static void sameAsUnfocused(Terrain terrain) {
+        BenchmarkWorld world = Searches.world(terrain);
+        PathCalculationResult focused = Searches.aStar(world);
+        PathCalculationResult unfocused = Searches.aStar(world, new UnfocusedContext(world));
+        assertEquals(Searches.cost(unfocused), Searches.cost(focused), 0);
+        IPath expected = unfocused.getPath().get();
+        IPath actual = focused.getPath().get();
+        assertEquals(expected.positions(), actual.positions());
+        for (int i = 0; i < expected.movements().size(); i++) {
+            assertEquals(expected.movements().get(i).getCost(), actual.movements().get(i).getCost(), 0);
+        }
+    }
+
+    @Test
+    public void flat() {
+        sameAsUnfocused(Terrain.FLAT);
+    }
+
+    @Test
+    public void caveMaze() {
+        sameAsUnfocused(Terrain.CAVE_MAZE);
+    }
+
+    @Test
+    public void nether() {
+        sameAsUnfocused(Terrain.NETHER);
+    }
+}
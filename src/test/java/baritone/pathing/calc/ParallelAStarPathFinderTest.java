@@ -0,0 +1,51 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Baritone.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package baritone.pathing.calc;
+
+import baritone.bench.BenchmarkWorld;
+import baritone.bench.Terrain;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+
+public class ParallelAStarPathFinderTest {
+
+    private static void sameCostAsOneThread(Terrain terrain) {
+        BenchmarkWorld world = Searches.world(terrain);
+        double single = Searches.cost(Searches.aStar(world));
+        double parallel = Searches.cost(Searches.parallelAStar(world, 4));
+        // the workers don't expand nodes in exactly the same order, so it can end on a slightly different path
+        assertEquals(single, parallel, single * 0.1);
+    }
+
+    @Test
+    public void flat() {
+        sameCostAsOneThread(Terrain.FLAT);
+    }
+
+    @Test
+    public void caveMaze() {
+        sameCostAsOneThread(Terrain.CAVE_MAZE);
+    }
+
+    @Test
+    public void oneThread() {
+        BenchmarkWorld world = Searches.world(Terrain.FLAT);
+        assertEquals(Searches.cost(Searches.aStar(world)), Searches.cost(Searches.parallelAStar(world, 1)), 0.01);
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Baritone.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package baritone.pathing.calc;
+
+import baritone.api.pathing.calc.IPath;
+import baritone.api.pathing.goals.GoalBlock;
+import baritone.api.utils.BetterBlockPos;
+import baritone.api.utils.PathCalculationResult;
+import baritone.bench.BenchmarkContext;
+import baritone.bench.BenchmarkWorld;
+import baritone.bench.Benchmarks;
+import baritone.bench.Terrain;
+import baritone.pathing.movement.CalculationContext;
+import baritone.utils.pathing.Favoring;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Runs searches without a client, in the generated worlds from the benchmarks
+ */
+final class Searches {
+
+    private static boolean bootstrapped;
+
+    private Searches() {}
+
+    static synchronized BenchmarkWorld world(Terrain terrain) {
+        if (!bootstrapped) {
+            Benchmarks.bootstrap();
+            bootstrapped = true;
+        }
+        return terrain.create();
+    }
+
+    static PathCalculationResult aStar(BenchmarkWorld world) {
+        return aStar(world, new BenchmarkContext(world));
+    }
+
+    static PathCalculationResult aStar(BenchmarkWorld world, CalculationContext context) {
+        BetterBlockPos start = world.start();
+        return new AStarPathFinder(start.x, start.y, start.z, new GoalBlock(world.goal()), new Favoring(null, context), context)
+                .calculate(30000, 30000);
+    }
+
+    static PathCalculationResult bidirectionalAStar(BenchmarkWorld world) {
+        CalculationContext context = new BenchmarkContext(world);
+        BetterBlockPos start = world.start();
+        return new BidirectionalAStarPathFinder(start.x, start.y, start.z, new GoalBlock(world.goal()), new Favoring(null, context), context)
+                .calculate(30000, 30000);
+    }
+
+    static PathCalculationResult parallelAStar(BenchmarkWorld world, int threads) {
+        CalculationContext context = new BenchmarkContext(world);
+        BetterBlockPos start = world.start();
+        return new ParallelAStarPathFinder(start.x, start.y, start.z, new GoalBlock(world.goal()), new Favoring(null, context), context, threads)
+                .calculate(30000, 30000);
+    }
+
+    /**
+     * @return The cost of the path, after checking that it made it all the way to the goal
+     */
+    static double cost(PathCalculationResult result) {
+        assertEquals(PathCalculationResult.Type.SUCCESS_TO_GOAL, result.getType());
+        IPath path = result.getPath().get();
+        double cost = path.ticksRemainingFrom(0);
+        assertTrue(cost > 0);
+        return cost;
+    }
+}
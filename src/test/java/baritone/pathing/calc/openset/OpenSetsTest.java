@@ -50,13 +50,13 @@ public class OpenSetsTest {
         return testSizes;
     }
 
-    private static void removeAndTest(int amount, IOpenSet[] test, Collection<PathNode> mustContain) {
+    private static void removeAndTest(int amount, IOpenSet[] test, Collection<Double> mustContain) {
         double[][] results = new double[test.length][amount];
         for (int i = 0; i < test.length; i++) {
             long before = System.nanoTime() / 1000000L;
             for (int j = 0; j < amount; j++) {
                 PathNode pn = test[i].removeLowest();
-                if (mustContain != null && !mustContain.contains(pn)) {
+                if (mustContain != null && !mustContain.contains(pn.combinedCost)) {
                     throw new IllegalStateException(mustContain + " " + pn);
                 }
                 results[i][j] = pn.combinedCost;
@@ -78,36 +78,46 @@ public class OpenSetsTest {
         System.out.println("Testing size " + size);
         // Include LinkedListOpenSet even though it's not performant because I absolutely trust that it behaves properly
         // I'm really testing the heap implementations against it as the ground truth
-        IOpenSet[] test = new IOpenSet[]{new BinaryHeapOpenSet(), new LinkedListOpenSet()};
+        IOpenSet[] test = new IOpenSet[]{new BinaryHeapOpenSet(), new LinkedListOpenSet(), new DAryHeapOpenSet(), new BucketOpenSet()};
         for (IOpenSet set : test) {
             assertTrue(set.isEmpty());
         }
 
         // generate the pathnodes that we'll be testing the sets on
-        PathNode[] toInsert = new PathNode[size];
+        // every set gets its own copy of each node, since the heaps keep track of where a node is on the node itself
+        PathNode[][] toInsert = new PathNode[test.length][size];
         for (int i = 0; i < size; i++) {
-            // can't use an existing goal
-            // because they use Baritone.settings()
-            // and we can't do that because Minecraft itself isn't initted
-            PathNode pn = new PathNode(0, 0, 0, new Goal() {
-                @Override
-                public boolean isInGoal(int x, int y, int z) {
-                    return false;
-                }
-
-                @Override
-                public double heuristic(int x, int y, int z) {
-                    return 0;
-                }
-            });
-            pn.combinedCost = Math.random();
-            toInsert[i] = pn;
+            double cost = Math.random();
+            for (int j = 0; j < test.length; j++) {
+                // can't use an existing goal
+                // because they use Baritone.settings()
+                // and we can't do that because Minecraft itself isn't initted
+                PathNode pn = new PathNode(0, 0, 0, new Goal() {
+                    @Override
+                    public boolean isInGoal(int x, int y, int z) {
+                        return false;
+                    }
+
+                    @Override
+                    public double heuristic(int x, int y, int z) {
+                        return 0;
+                    }
+                });
+                pn.combinedCost = cost;
+                toInsert[j][i] = pn;
+            }
         }
 
         // create a list of what the first removals should be
-        ArrayList<PathNode> copy = new ArrayList<>(Arrays.asList(toInsert));
-        copy.sort(Comparator.comparingDouble(pn -> pn.combinedCost));
-        Set<PathNode> lowestQuarter = new HashSet<>(copy.subList(0, size / 4));
+        double[] copy = new double[size];
+        for (int i = 0; i < size; i++) {
+            copy[i] = toInsert[0][i].combinedCost;
+        }
+        Arrays.sort(copy);
+        Set<Double> lowestQuarter = new HashSet<>();
+        for (int i = 0; i < size / 4; i++) {
+            lowestQuarter.add(copy[i]);
+        }
 
         // all opensets should be empty; nothing has been inserted yet
         for (IOpenSet set : test) {
@@ -115,10 +125,11 @@ public class OpenSetsTest {
         }
 
         System.out.println("Insertion");
-        for (IOpenSet set : test) {
+        for (int j = 0; j < test.length; j++) {
+            IOpenSet set = test[j];
             long before = System.nanoTime() / 1000000L;
             for (int i = 0; i < size; i++)
-                set.insert(toInsert[i]);
+                set.insert(toInsert[j][i]);
             System.out.println(set.getClass() + " " + (System.nanoTime() / 1000000L - before));
             //all three take either 0 or 1ms to insert up to 10,000 nodes
             //linkedlist takes 0ms most often (because there's no array resizing or allocation there, just pointer shuffling)
@@ -127,6 +138,7 @@ public class OpenSetsTest {
         // all opensets should now be full
         for (IOpenSet set : test) {
             assertFalse(set.isEmpty());
+            assertEquals(size, set.size());
         }
 
         System.out.println("Removal round 1");
@@ -139,16 +151,17 @@ public class OpenSetsTest {
         }
         int cnt = 0;
         for (int i = 0; cnt < size / 2 && i < size; i++) {
-            if (lowestQuarter.contains(toInsert[i])) { // these were already removed and can't be updated to test
+            if (lowestQuarter.contains(toInsert[0][i].combinedCost)) { // these were already removed and can't be updated to test
                 continue;
             }
-            toInsert[i].combinedCost *= Math.random();
+            double cost = toInsert[0][i].combinedCost * Math.random();
             // multiplying it by a random number between 0 and 1 is guaranteed to decrease it
-            for (IOpenSet set : test) {
+            for (int j = 0; j < test.length; j++) {
                 // it's difficult to benchmark these individually because if you modify all at once then update then
                 // it breaks the internal consistency of the heaps.
                 // you have to call update every time you modify a node.
-                set.update(toInsert[i]);
+                toInsert[j][i].combinedCost = cost;
+                test[j].update(toInsert[j][i]);
             }
             cnt++;
         }
@@ -0,0 +1,114 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Baritone.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package baritone.pathing.movement;
+
+import baritone.utils.pathing.MutableMoveResult;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+
+public class MoveCostMemoTest {
+
+    private static MutableMoveResult result(int x, int y, int z, double cost) {
+        MutableMoveResult result = new MutableMoveResult();
+        result.x = x;
+        result.y = y;
+        result.z = z;
+        result.cost = cost;
+        return result;
+    }
+
+    @Test
+    public void remembers() {
+        MoveCostMemo memo = new MoveCostMemo(8);
+        memo.put(1234L, 3, 77L, 5L, result(1, 2, 3, 4.5));
+        MutableMoveResult result = new MutableMoveResult();
+        assertTrue(memo.get(1234L, 3, 77L, 5L, result));
+        assertEquals(1, result.x);
+        assertEquals(2, result.y);
+        assertEquals(3, result.z);
+        assertEquals(4.5, result.cost, 0);
+    }
+
+    @Test
+    public void onlyForTheSameEverything() {
+        MoveCostMemo memo = new MoveCostMemo(8);
+        memo.put(1234L, 3, 77L, 5L, result(1, 2, 3, 4.5));
+        MutableMoveResult result = new MutableMoveResult();
+        assertFalse(memo.get(1235L, 3, 77L, 5L, result));
+        assertFalse(memo.get(1234L, 4, 77L, 5L, result));
+        assertFalse(memo.get(1234L, 3, 78L, 5L, result));
+        assertFalse(memo.get(1234L, 3, 77L, 6L, result));
+    }
+
+    @Test
+    public void sameIdOnlyForEqualContexts() {
+        MoveCostMemo memo = new MoveCostMemo(8);
+        long id = memo.contextId(null, Arrays.asList(true, 3.5, "stone"));
+        assertEquals(id, memo.contextId(null, Arrays.asList(true, 3.5, "stone")));
+        assertNotEquals(id, memo.contextId(null, Arrays.asList(true, 3.5, "dirt")));
+        assertNotEquals(id, memo.contextId(null, Arrays.asList(false, 3.5, "stone")));
+    }
+
+    @Test
+    public void idsAreNotReusedOnceForgotten() {
+        MoveCostMemo memo = new MoveCostMemo(8);
+        long first = memo.contextId(null, Collections.singletonList(0));
+        for (int i = 1; i < 100; i++) {
+            memo.contextId(null, Collections.singletonList(i));
+        }
+        assertNotEquals(first, memo.contextId(null, Collections.singletonList(0)));
+    }
+
+    @Test
+    public void nothingBeforeAnythingIsPut() {
+        MoveCostMemo memo = new MoveCostMemo(8);
+        assertFalse(memo.get(0L, 0, 1L, 0L, new MutableMoveResult()));
+    }
+
+    @Test
+    public void consistentBetweenThreads() throws InterruptedException {
+        MoveCostMemo memo = new MoveCostMemo(4);
+        Thread[] threads = new Thread[4];
+        boolean[] failed = new boolean[1];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                MutableMoveResult result = new MutableMoveResult();
+                for (int i = 0; i < 200000; i++) {
+                    int position = i % 97;
+                    if (memo.get(position, 0, 1L, 0L, result)) {
+                        // every field has to be from the same put
+                        if (result.x != position || result.y != -position || result.z != position * 2 || result.cost != position + 0.5) {
+                            failed[0] = true;
+                        }
+                    } else {
+                        memo.put(position, 0, 1L, 0L, result(position, -position, position * 2, position + 0.5));
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertFalse(failed[0]);
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * This file is part of Baritone.
+ *
+ * Baritone is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU Lesser General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * Baritone is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public License
+ * along with Baritone.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package baritone.pathing.movement;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class NeighborhoodCacheTest {
+
+    /**
+     * A world that changes every time it's looked at, so that anything kept for too long shows up
+     */
+    private static final class ChangingWorld implements NeighborhoodCache.Source<Long> {
+
+        private long lookups;
+
+        @Override
+        public Long get(int x, int y, int z) {
+            lookups++;
+            return lookups << 40 ^ (long) x * 31 * 31 ^ (long) y * 31 ^ z;
+        }
+    }
+
+    @Test
+    public void sameAsLookingUpDirectly() {
+        Random random = new Random(2310);
+        ChangingWorld world = new ChangingWorld();
+        NeighborhoodCache<Long> cache = new NeighborhoodCache<>(world);
+        for (int node = 0; node < 1000; node++) {
+            int x = random.nextInt(64) - 32;
+            int y = random.nextInt(64) - 32;
+            int z = random.nextInt(64) - 32;
+            cache.focus(x, y, z);
+            long[] seen = new long[9 * 9 * 16];
+            for (int i = 0; i < 200; i++) {
+                int dx = random.nextInt(9) - 4;
+                int dy = random.nextInt(16) - 8;
+                int dz = random.nextInt(9) - 4;
+                int index = ((dy + 8) * 9 + dz + 4) * 9 + dx + 4;
+                boolean kept = dy >= -NeighborhoodCache.BELOW && dy <= NeighborhoodCache.ABOVE;
+                long before = world.lookups;
+                long value = cache.get(x + dx, y + dy, z + dz);
+                if (kept && seen[index] != 0) {
+                    // the same as the first time during this node, without looking it up again
+                    assertEquals(seen[index], value);
+                    assertEquals(before, world.lookups);
+                } else {
+                    // looked up right now
+                    assertEquals(before + 1, world.lookups);
+                    assertEquals((before + 1) << 40 ^ (long) (x + dx) * 31 * 31 ^ (long) (y + dy) * 31 ^ (z + dz), value);
+                    seen[index] = value;
+                }
+            }
+        }
+    }
+
+    @Test
+    public void forgetsOnFocus() {
+        ChangingWorld world = new ChangingWorld();
+        NeighborhoodCache<Long> cache = new NeighborhoodCache<>(world);
+        cache.focus(0, 0, 0);
+        long first = cache.get(1, 1, 1);
+        assertEquals(first, (long) cache.get(1, 1, 1));
+        cache.focus(0, 0, 0);
+        assertNotEquals(first, (long) cache.get(1, 1, 1));
+    }
+
+    @Test
+    public void passesThroughWithoutFocus() {
+        ChangingWorld world = new ChangingWorld();
+        NeighborhoodCache<Long> cache = new NeighborhoodCache<>(world);
+        assertNotEquals(cache.get(0, 0, 0), cache.get(0, 0, 0));
+        cache.focus(0, 0, 0);
+        cache.get(0, 0, 0);
+        cache.clearFocus();
+        assertNotEquals(cache.get(0, 0, 0), cache.get(0, 0, 0));
+    }
+}